@@ -0,0 +1,169 @@
+/****************************************************************************/
+/*  File:       AbstractAttribute.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.math.BigDecimal;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+
+/**
+ * A base class for attributes, which parses each typed value only once.
+ *
+ * The typed value is cached the first time it is asked for.  Only the last
+ * typed value is kept, so an attribute read alternatively as two different
+ * types is parsed each time.  The cache is racy but benign: the typed values
+ * are immutable, so if several threads parse the same value at the same time,
+ * they get equal values.  Subclasses can keep the cache somewhere else, by
+ * overriding {@link #getTypedValue()} and {@link #setTypedValue(Object)}.
+ *
+ * @author agent
+ */
+public abstract class AbstractAttribute
+        implements Attribute
+{
+    @Override
+    public boolean getBoolean()
+            throws ToolsException
+    {
+        // not cached, the cache holds the xs:boolean value, which can differ
+        return AttributeValues.parseBoolean(getValue());
+    }
+
+    @Override
+    public boolean getXsBoolean()
+            throws ToolsException
+    {
+        Object typed = getTypedValue();
+        if ( typed instanceof Boolean ) {
+            return (Boolean) typed;
+        }
+        boolean value = AttributeValues.parseXsBoolean(getValue());
+        setTypedValue(value);
+        return value;
+    }
+
+    @Override
+    public int getInteger()
+            throws ToolsException
+    {
+        Object typed = getTypedValue();
+        if ( typed instanceof Integer ) {
+            return (Integer) typed;
+        }
+        int value = AttributeValues.parseInteger(getValue());
+        setTypedValue(value);
+        return value;
+    }
+
+    @Override
+    public long getLong()
+            throws ToolsException
+    {
+        Object typed = getTypedValue();
+        if ( typed instanceof Long ) {
+            return (Long) typed;
+        }
+        long value = AttributeValues.parseLong(getValue());
+        setTypedValue(value);
+        return value;
+    }
+
+    @Override
+    public double getDouble()
+            throws ToolsException
+    {
+        Object typed = getTypedValue();
+        if ( typed instanceof Double ) {
+            return (Double) typed;
+        }
+        double value = AttributeValues.parseDouble(getValue());
+        setTypedValue(value);
+        return value;
+    }
+
+    @Override
+    public BigDecimal getDecimal()
+            throws ToolsException
+    {
+        Object typed = getTypedValue();
+        if ( typed instanceof BigDecimal ) {
+            return (BigDecimal) typed;
+        }
+        BigDecimal value = AttributeValues.parseDecimal(getValue());
+        setTypedValue(value);
+        return value;
+    }
+
+    @Override
+    public QName getQName()
+            throws ToolsException
+    {
+        Object typed = getTypedValue();
+        if ( typed instanceof QName ) {
+            return (QName) typed;
+        }
+        QName value = getNamespaceBindings().parseQName(getValue());
+        setTypedValue(value);
+        return value;
+    }
+
+    /**
+     * Return the namespace bindings in scope on the attribute.
+     *
+     * @return The namespace bindings to resolve QName values.
+     *
+     * @throws ToolsException If there is any error getting the bindings.
+     */
+    protected abstract NamespaceBindings getNamespaceBindings()
+            throws ToolsException;
+
+    /**
+     * Return the cached typed value, or {@code null}.
+     *
+     * @return The last typed value parsed, if any.
+     */
+    protected Object getTypedValue()
+    {
+        return myTypedValue;
+    }
+
+    /**
+     * Cache a typed value.
+     *
+     * @param value The typed value just parsed.
+     */
+    protected void setTypedValue(Object value)
+    {
+        myTypedValue = value;
+    }
+
+    private Object myTypedValue = null;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -9,6 +9,8 @@
 
 package org.expath.tools.model;
 
+import java.math.BigDecimal;
+import javax.xml.namespace.QName;
 import org.expath.tools.ToolsException;
 
 /**
@@ -34,6 +36,20 @@ public interface Attribute
      */
     public String getNamespaceUri();
 
+    /**
+     * Return the code of the name of the attribute, in the default name pool.
+     *
+     * Like for {@link Element#getNameCode()}, the name is only looked up, and
+     * the code is {@link NamePool#NO_CODE} if the name is not in the pool.
+     *
+     * @return The code of the name, in {@link NamePool#getDefault()}, or
+     * {@link NamePool#NO_CODE}.
+     */
+    public default int getNameCode()
+    {
+        return NamePool.getDefault().getCode(getNamespaceUri(), getLocalName());
+    }
+
     /**
      * Return the string value of the attribute.
      * 
@@ -41,9 +57,26 @@ public interface Attribute
      */
     public String getValue();
 
+    /**
+     * Return the string value of the attribute, without copying it.
+     *
+     * The default implementation returns {@link #getValue()}.  An
+     * implementation can return a view over its own storage instead.
+     *
+     * @return The value of the attribute, as a character sequence.
+     */
+    public default CharSequence getValueAsCharSequence()
+    {
+        return getValue();
+    }
+
     /**
      * Return the boolean value of the attribute.
      * 
+     * This is lenient: the value is true if it is {@code 1} or {@code true}
+     * (ignoring case), and false otherwise.  See {@link #getXsBoolean()} to
+     * accept only the lexical forms of {@code xs:boolean}.
+     * 
      * @return The value of the attribute, as a boolean.
      * 
      * @throws ToolsException If there is any error parsing the value as a
@@ -52,6 +85,22 @@ public interface Attribute
     public boolean getBoolean()
             throws ToolsException;
 
+    /**
+     * Return the {@code xs:boolean} value of the attribute.
+     *
+     * The value must be one of {@code true}, {@code false}, {@code 1} or
+     * {@code 0}, possibly surrounded by whitespace.
+     *
+     * @return The value of the attribute, as a boolean.
+     *
+     * @throws ToolsException If the value is not a valid {@code xs:boolean}.
+     */
+    public default boolean getXsBoolean()
+            throws ToolsException
+    {
+        return AttributeValues.parseXsBoolean(getValue());
+    }
+
     /**
      * Return the integer value of the attribute.
      * 
@@ -62,6 +111,73 @@ public interface Attribute
      */
     public int getInteger()
             throws ToolsException;
+
+    /**
+     * Return the long integer value of the attribute.
+     *
+     * @return The value of the attribute, as a long.
+     *
+     * @throws ToolsException If there is any error parsing the value as a
+     * long.
+     */
+    public default long getLong()
+            throws ToolsException
+    {
+        return AttributeValues.parseLong(getValue());
+    }
+
+    /**
+     * Return the double value of the attribute.
+     *
+     * The value must be in the lexical space of {@code xs:double}, so the
+     * spellings {@code INF}, {@code -INF} and {@code NaN} are accepted, but
+     * not the Java-only ones like {@code Infinity} or {@code 0x1p3}.
+     *
+     * @return The value of the attribute, as a double.
+     *
+     * @throws ToolsException If there is any error parsing the value as a
+     * double.
+     */
+    public default double getDouble()
+            throws ToolsException
+    {
+        return AttributeValues.parseDouble(getValue());
+    }
+
+    /**
+     * Return the decimal value of the attribute.
+     *
+     * The value must be in the lexical space of {@code xs:decimal}, so no
+     * exponent is accepted (like in {@code 1e3}).
+     *
+     * @return The value of the attribute, as a decimal.
+     *
+     * @throws ToolsException If there is any error parsing the value as a
+     * decimal.
+     */
+    public default BigDecimal getDecimal()
+            throws ToolsException
+    {
+        return AttributeValues.parseDecimal(getValue());
+    }
+
+    /**
+     * Return the QName value of the attribute.
+     *
+     * The value is resolved using the namespace bindings in scope on the
+     * element of the attribute.  The default implementation does not know
+     * the element, so it always throws an exception.
+     *
+     * @return The value of the attribute, as a QName.
+     *
+     * @throws ToolsException If there is any error parsing the value as a
+     * QName, or if the prefix is not bound.
+     */
+    public default QName getQName()
+            throws ToolsException
+    {
+        throw new ToolsException("No namespace context to resolve the QName: " + getValue());
+    }
 }
 
 
@@ -82,5 +198,5 @@ public interface Attribute
 /*                                                                          */
 /*  The Initial Developer of the Original Code is Florent Georges.          */
 /*                                                                          */
-/*  Contributor(s): none.                                                   */
+/*  Contributor(s): agent.                                                  */
 /* ------------------------------------------------------------------------ */
@@ -0,0 +1,181 @@
+/****************************************************************************/
+/*  File:       AttributeChecker.java                                       */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.xml.XMLConstants;
+import org.expath.tools.ToolsException;
+
+/**
+ * A compiled check of the attributes of an element.
+ *
+ * This is the compiled form of the parameters of {@link
+ * Element#noOtherNCNameAttribute(String[], String[])}: the allowed names are
+ * the attributes allowed in no namespace, and no attribute is allowed in any
+ * of the forbidden namespaces.  Attributes in other namespaces are allowed.
+ *
+ * The allowed names are kept as sorted name codes, and the forbidden
+ * namespaces in a hash set, so checking an attribute is a lookup and does
+ * not allocate anything.  A checker is immutable, so it can be compiled once
+ * and shared freely by several threads.
+ *
+ * @author agent
+ */
+public final class AttributeChecker
+{
+    /**
+     * Compile a new checker.
+     *
+     * @param names The non-qualified names of allowed attributes (cannot be
+     * null, but can be empty.)
+     *
+     * @param forbidden_ns The forbidden namespaces, no attribute can be in any
+     * of those namespaces.
+     */
+    public AttributeChecker(String[] names, String[] forbidden_ns)
+    {
+        int[] codes = new int[names.length];
+        for ( int i = 0; i < names.length; ++i ) {
+            codes[i] = POOL.allocate("", names[i]);
+        }
+        Arrays.sort(codes);
+        myAllowed = codes;
+        myForbidden = new HashSet<String>(Arrays.asList(forbidden_ns));
+    }
+
+    /**
+     * Return the checker for a pair of arrays, compiling it on first use.
+     *
+     * The checkers are cached by the identity of the arrays (not by their
+     * content), so callers passing the same constant arrays get the same
+     * checker without compiling it again, while new arrays give a new
+     * checker.  The arrays must not be changed once passed here.  The cache
+     * does not keep the arrays alive.
+     *
+     * @param names The non-qualified names of allowed attributes.
+     *
+     * @param forbidden_ns The forbidden namespaces.
+     *
+     * @return The checker.
+     */
+    public static AttributeChecker forArrays(String[] names, String[] forbidden_ns)
+    {
+        synchronized ( CACHE ) {
+            Map<String[], AttributeChecker> checkers = CACHE.get(names);
+            if ( checkers == null ) {
+                checkers = new WeakHashMap<String[], AttributeChecker>();
+                CACHE.put(names, checkers);
+            }
+            AttributeChecker checker = checkers.get(forbidden_ns);
+            if ( checker == null ) {
+                checker = new AttributeChecker(names, forbidden_ns);
+                checkers.put(forbidden_ns, checker);
+            }
+            return checker;
+        }
+    }
+
+    /**
+     * Check whether an attribute is allowed, given the code of its name.
+     *
+     * @param code The code of the name of the attribute, in the default pool.
+     * It cannot be {@link NamePool#NO_CODE}, use {@link #isAllowed(String,
+     * String)} for names which are not in the pool.
+     *
+     * @return {@code true} if the attribute is allowed.
+     */
+    public boolean isAllowed(int code)
+    {
+        if ( code < 0 ) {
+            throw new IllegalArgumentException("Not a name code: " + code);
+        }
+        String ns = POOL.getNamespaceUri(code);
+        if ( ns.isEmpty() ) {
+            return Arrays.binarySearch(myAllowed, code) >= 0;
+        }
+        return ! myForbidden.contains(ns);
+    }
+
+    /**
+     * Check whether an attribute is allowed, given its name.
+     *
+     * @param ns The namespace URI of the attribute, the empty string for no
+     * namespace.
+     *
+     * @param local The local name of the attribute.
+     *
+     * @return {@code true} if the attribute is allowed.
+     */
+    public boolean isAllowed(String ns, String local)
+    {
+        if ( ns.isEmpty() ) {
+            return Arrays.binarySearch(myAllowed, POOL.getCode("", local)) >= 0;
+        }
+        return ! myForbidden.contains(ns);
+    }
+
+    /**
+     * Check all the attributes of an element.
+     *
+     * Namespace declarations are not checked, if an implementation returns
+     * them as attributes.
+     *
+     * @param elem The element to check.
+     *
+     * @throws ToolsException If any attribute of the element is not allowed.
+     */
+    public void check(Element elem)
+            throws ToolsException
+    {
+        for ( Attribute a : elem.attributes() ) {
+            String ns = a.getNamespaceUri();
+            int code = a.getNameCode();
+            boolean allowed = code == NamePool.NO_CODE ? isAllowed(ns, a.getLocalName()) : isAllowed(code);
+            if ( ! XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(ns) && ! allowed ) {
+                String name = ns.isEmpty() ? a.getLocalName() : "{" + ns + "}" + a.getLocalName();
+                throw new ToolsException("@" + name + " not allowed on " + elem.getDisplayName());
+            }
+        }
+    }
+
+    // the codes of the allowed names in no namespace, sorted
+    private final int[] myAllowed;
+    private final Set<String> myForbidden;
+
+    private static final NamePool POOL = NamePool.getDefault();
+    // the checkers by names, then forbidden namespaces (arrays compare by identity)
+    private static final Map<String[], Map<String[], AttributeChecker>> CACHE
+        = new WeakHashMap<String[], Map<String[], AttributeChecker>>();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,148 @@
+/****************************************************************************/
+/*  File:       AttributeSlots.java                                         */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.xml.namespace.QName;
+
+/**
+ * A compiled list of attribute names, to fetch several attributes at once.
+ *
+ * Each name is given a slot, its position in the list.  The names are kept
+ * in an index by name code, so {@link Element#getAttributes(AttributeSlots,
+ * String[])} can find the slot of each attribute of an element with one
+ * lookup, in one pass over the attributes.  An instance is immutable, so it
+ * can be compiled once and shared freely by several threads.
+ *
+ * @author agent
+ */
+public final class AttributeSlots
+{
+    /**
+     * Compile a list of attribute names in no namespace.
+     *
+     * @param names The local names of the attributes.
+     *
+     * @throws IllegalArgumentException If a name appears more than once.
+     */
+    public AttributeSlots(String... names)
+    {
+        int[] codes = new int[names.length];
+        for ( int i = 0; i < names.length; ++i ) {
+            codes[i] = NamePool.getDefault().allocate("", names[i]);
+        }
+        myIndex = index(codes, names);
+    }
+
+    /**
+     * Compile a list of attribute names.
+     *
+     * @param names The names of the attributes.
+     *
+     * @throws IllegalArgumentException If a name appears more than once.
+     */
+    public AttributeSlots(QName... names)
+    {
+        int[] codes = new int[names.length];
+        for ( int i = 0; i < names.length; ++i ) {
+            codes[i] = NamePool.getDefault().allocate(names[i].getNamespaceURI(), names[i].getLocalPart());
+        }
+        myIndex = index(codes, names);
+    }
+
+    /**
+     * Return the slots for an array of names in no namespace, compiling them on first use.
+     *
+     * The slots are cached by the identity of the array (not by its content),
+     * like {@link AttributeChecker#forArrays(String[], String[])}, so callers
+     * passing the same constant array get the same slots.  The array must not
+     * be changed once passed here.  The cache does not keep it alive.
+     *
+     * @param names The local names of the attributes.
+     *
+     * @return The slots.
+     *
+     * @throws IllegalArgumentException If a name appears more than once.
+     */
+    public static AttributeSlots forArray(String[] names)
+    {
+        synchronized ( CACHE ) {
+            AttributeSlots slots = CACHE.get(names);
+            if ( slots == null ) {
+                slots = new AttributeSlots(names);
+                CACHE.put(names, slots);
+            }
+            return slots;
+        }
+    }
+
+    /**
+     * Return the number of slots.
+     *
+     * @return The number of names.
+     */
+    public int size()
+    {
+        return myIndex.size();
+    }
+
+    /**
+     * Return the slot of an attribute name.
+     *
+     * @param code The name code of the attribute.
+     *
+     * @return The slot of the name, or -1 if it is not in the list.
+     */
+    public int getSlot(int code)
+    {
+        return myIndex.first(code);
+    }
+
+    /**
+     * Index the name codes, rejecting duplicates, which would leave a slot never filled.
+     */
+    private static ChildIndex index(int[] codes, Object[] names)
+    {
+        ChildIndex index = new ChildIndex(codes);
+        for ( int i = 0; i < codes.length; ++i ) {
+            if ( index.first(codes[i]) != i ) {
+                throw new IllegalArgumentException("Duplicate attribute name: " + names[i]);
+            }
+        }
+        return index;
+    }
+
+    private final ChildIndex myIndex;
+
+    // the slots by array of names (arrays compare by identity)
+    private static final Map<String[], AttributeSlots> CACHE = new WeakHashMap<String[], AttributeSlots>();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,150 @@
+/****************************************************************************/
+/*  File:       AttributeValues.java                                        */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.math.BigDecimal;
+import java.util.regex.Pattern;
+import org.expath.tools.ToolsException;
+
+/**
+ * Parse the lexical values of attributes into typed values.
+ *
+ * The values are trimmed first, like attributes of atomic types in a schema.
+ * Only the lexical forms of the corresponding XML Schema types are accepted,
+ * and a value which cannot be parsed gives a {@link ToolsException}.  The
+ * only exception is {@link #parseBoolean(String)}, which keeps the lenient
+ * behaviour of {@link Attribute#getBoolean()}.
+ *
+ * @author agent
+ */
+final class AttributeValues
+{
+    private AttributeValues()
+    {
+        // utility class
+    }
+
+    /**
+     * Parse a boolean leniently: "1" or "true" in any case, anything else is false.
+     */
+    public static boolean parseBoolean(String value)
+    {
+        if ( "1".equals(value) ) {
+            return true;
+        }
+        else {
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    public static boolean parseXsBoolean(String value)
+            throws ToolsException
+    {
+        String v = value.trim();
+        if ( "true".equals(v) || "1".equals(v) ) {
+            return true;
+        }
+        else if ( "false".equals(v) || "0".equals(v) ) {
+            return false;
+        }
+        else {
+            throw new ToolsException("Invalid boolean value: " + value);
+        }
+    }
+
+    public static int parseInteger(String value)
+            throws ToolsException
+    {
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch ( NumberFormatException ex ) {
+            throw new ToolsException("Invalid integer value: " + value, ex);
+        }
+    }
+
+    public static long parseLong(String value)
+            throws ToolsException
+    {
+        try {
+            return Long.parseLong(value.trim());
+        }
+        catch ( NumberFormatException ex ) {
+            throw new ToolsException("Invalid long value: " + value, ex);
+        }
+    }
+
+    public static double parseDouble(String value)
+            throws ToolsException
+    {
+        String v = value.trim();
+        // Java accepts more, like "1d", "0x1p3" or "Infinity"
+        if ( ! DOUBLE.matcher(v).matches() ) {
+            throw new ToolsException("Invalid double value: " + value);
+        }
+        // the XML Schema spellings of the infinities
+        if ( "INF".equals(v) || "+INF".equals(v) ) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if ( "-INF".equals(v) ) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        try {
+            return Double.parseDouble(v);
+        }
+        catch ( NumberFormatException ex ) {
+            throw new ToolsException("Invalid double value: " + value, ex);
+        }
+    }
+
+    public static BigDecimal parseDecimal(String value)
+            throws ToolsException
+    {
+        String v = value.trim();
+        // Java accepts an exponent, like "1e3"
+        if ( ! DECIMAL.matcher(v).matches() ) {
+            throw new ToolsException("Invalid decimal value: " + value);
+        }
+        try {
+            return new BigDecimal(v);
+        }
+        catch ( NumberFormatException ex ) {
+            throw new ToolsException("Invalid decimal value: " + value, ex);
+        }
+    }
+
+    // the lexical space of xs:decimal
+    private static final Pattern DECIMAL = Pattern.compile(
+        "[+-]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)");
+    // the lexical space of xs:double ("+INF" is allowed by XML Schema 1.1)
+    private static final Pattern DOUBLE = Pattern.compile(
+        "[+-]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([Ee][+-]?[0-9]+)?|[+-]?INF|NaN");
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,327 @@
+/****************************************************************************/
+/*  File:       BinaryContent.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.expath.tools.ToolsException;
+
+/**
+ * Decode the binary content of elements, encoded as base64 or hex text.
+ *
+ * The text of the element is read in chunks from {@link
+ * Element#openTextReader()}, decoded with lookup tables, and each chunk of
+ * bytes is written to the destination right away, so the text and the
+ * bytes are never entirely in memory.  The chunk buffers are taken from a
+ * bounded pool, and given back after each decoding.
+ *
+ * Whitespace is allowed anywhere in the text, as in an indented document.
+ * Base64 text must be padded (as {@code xs:base64Binary}), and hex text must
+ * have an even number of digits.
+ *
+ * @author agent
+ */
+public final class BinaryContent
+{
+    private BinaryContent()
+    {
+        // utility class
+    }
+
+    /**
+     * Decode the base64 content of an element to an output stream.
+     *
+     * @param elem The element with the base64 text.
+     *
+     * @param out The destination of the bytes.  It is not closed.
+     *
+     * @return The number of bytes written.
+     *
+     * @throws ToolsException If the text is not valid base64, or there is any
+     * error reading the text or writing the bytes.
+     */
+    public static long decodeBase64(Element elem, OutputStream out)
+            throws ToolsException
+    {
+        return decode(elem, streamSink(out), false);
+    }
+
+    /**
+     * Decode the base64 content of an element to a channel.
+     *
+     * @param elem The element with the base64 text.
+     *
+     * @param out The destination of the bytes.  It is not closed.
+     *
+     * @return The number of bytes written.
+     *
+     * @throws ToolsException If the text is not valid base64, or there is any
+     * error reading the text or writing the bytes.
+     */
+    public static long decodeBase64(Element elem, WritableByteChannel out)
+            throws ToolsException
+    {
+        return decode(elem, channelSink(out), false);
+    }
+
+    /**
+     * Decode the hex content of an element to an output stream.
+     *
+     * @param elem The element with the hex text.
+     *
+     * @param out The destination of the bytes.  It is not closed.
+     *
+     * @return The number of bytes written.
+     *
+     * @throws ToolsException If the text is not valid hex, or there is any
+     * error reading the text or writing the bytes.
+     */
+    public static long decodeHex(Element elem, OutputStream out)
+            throws ToolsException
+    {
+        return decode(elem, streamSink(out), true);
+    }
+
+    /**
+     * Decode the hex content of an element to a channel.
+     *
+     * @param elem The element with the hex text.
+     *
+     * @param out The destination of the bytes.  It is not closed.
+     *
+     * @return The number of bytes written.
+     *
+     * @throws ToolsException If the text is not valid hex, or there is any
+     * error reading the text or writing the bytes.
+     */
+    public static long decodeHex(Element elem, WritableByteChannel out)
+            throws ToolsException
+    {
+        return decode(elem, channelSink(out), true);
+    }
+
+    private static long decode(Element elem, Sink out, boolean hex)
+            throws ToolsException
+    {
+        Buffers buffers = BUFFERS.poll();
+        if ( buffers == null ) {
+            buffers = new Buffers();
+        }
+        try ( Reader in = elem.openTextReader() ) {
+            return hex
+                ? hex(in, out, buffers.chars, buffers.bytes)
+                : base64(in, out, buffers.chars, buffers.bytes);
+        }
+        catch ( IOException ex ) {
+            throw new ToolsException("Error decoding the content of " + elem.getDisplayName(), ex);
+        }
+        finally {
+            BUFFERS.offer(buffers);
+        }
+    }
+
+    private static long base64(Reader in, Sink out, char[] chars, byte[] bytes)
+            throws IOException, ToolsException
+    {
+        long total = 0;
+        // the sextets not decoded yet, their count, and the count of '='
+        int bits = 0;
+        int count = 0;
+        int pad = 0;
+        for ( int n = in.read(chars); n >= 0; n = in.read(chars) ) {
+            int len = 0;
+            for ( int i = 0; i < n; ++i ) {
+                char c = chars[i];
+                int v = c < 128 ? BASE64[c] : INVALID;
+                if ( v >= 0 ) {
+                    if ( pad > 0 ) {
+                        throw new ToolsException("Invalid base64, data after padding");
+                    }
+                    bits = bits << 6 | v;
+                    if ( ++count == 4 ) {
+                        bytes[len++] = (byte) (bits >> 16);
+                        bytes[len++] = (byte) (bits >> 8);
+                        bytes[len++] = (byte) bits;
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+                else if ( v == PAD ) {
+                    // '=' can only be the third and/or fourth character of the last quantum
+                    if ( count < 2 ) {
+                        throw new ToolsException("Invalid base64, misplaced padding");
+                    }
+                    ++pad;
+                    if ( count + pad == 4 ) {
+                        if ( count == 2 ) {
+                            bytes[len++] = (byte) (bits >> 4);
+                        }
+                        else {
+                            bytes[len++] = (byte) (bits >> 10);
+                            bytes[len++] = (byte) (bits >> 2);
+                        }
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+                else if ( v != SPACE ) {
+                    throw new ToolsException("Invalid base64 character: '" + c + "'");
+                }
+            }
+            if ( len > 0 ) {
+                out.write(bytes, len);
+                total += len;
+            }
+        }
+        if ( count != 0 ) {
+            throw new ToolsException("Invalid base64, truncated or not padded");
+        }
+        return total;
+    }
+
+    private static long hex(Reader in, Sink out, char[] chars, byte[] bytes)
+            throws IOException, ToolsException
+    {
+        long total = 0;
+        // the first digit of the current byte, or -1
+        int high = -1;
+        for ( int n = in.read(chars); n >= 0; n = in.read(chars) ) {
+            int len = 0;
+            for ( int i = 0; i < n; ++i ) {
+                char c = chars[i];
+                int v = c < 128 ? HEX[c] : INVALID;
+                if ( v >= 0 ) {
+                    if ( high < 0 ) {
+                        high = v;
+                    }
+                    else {
+                        bytes[len++] = (byte) (high << 4 | v);
+                        high = -1;
+                    }
+                }
+                else if ( v != SPACE ) {
+                    throw new ToolsException("Invalid hex character: '" + c + "'");
+                }
+            }
+            if ( len > 0 ) {
+                out.write(bytes, len);
+                total += len;
+            }
+        }
+        if ( high >= 0 ) {
+            throw new ToolsException("Invalid hex, odd number of digits");
+        }
+        return total;
+    }
+
+    private static Sink streamSink(final OutputStream out)
+    {
+        return new Sink() {
+            @Override
+            public void write(byte[] bytes, int len)
+                    throws IOException
+            {
+                out.write(bytes, 0, len);
+            }
+        };
+    }
+
+    private static Sink channelSink(final WritableByteChannel out)
+    {
+        return new Sink() {
+            @Override
+            public void write(byte[] bytes, int len)
+                    throws IOException
+            {
+                ByteBuffer buf = ByteBuffer.wrap(bytes, 0, len);
+                while ( buf.hasRemaining() ) {
+                    out.write(buf);
+                }
+            }
+        };
+    }
+
+    /**
+     * The destination of the decoded bytes.
+     */
+    private interface Sink
+    {
+        void write(byte[] bytes, int len)
+                throws IOException;
+    }
+
+    /**
+     * The buffers for one decoding.
+     */
+    private static final class Buffers
+    {
+        // base64 gives 3 bytes for 4 chars, and hex 1 byte for 2 chars
+        public final char[] chars = new char[CHUNK_SIZE];
+        public final byte[] bytes = new byte[CHUNK_SIZE];
+    }
+
+    private static int[] table(String digits, boolean ignore_case)
+    {
+        int[] table = new int[128];
+        Arrays.fill(table, INVALID);
+        table[' '] = SPACE;
+        table['\t'] = SPACE;
+        table['\n'] = SPACE;
+        table['\r'] = SPACE;
+        for ( int i = 0; i < digits.length(); ++i ) {
+            table[digits.charAt(i)] = i;
+            if ( ignore_case ) {
+                table[Character.toLowerCase(digits.charAt(i))] = i;
+            }
+        }
+        return table;
+    }
+
+    private static final int INVALID = -1;
+    private static final int SPACE = -2;
+    private static final int PAD = -3;
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final int[] BASE64 = table("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", false);
+    private static final int[] HEX = table("0123456789ABCDEF", true);
+    static {
+        BASE64['='] = PAD;
+    }
+
+    private static final BlockingQueue<Buffers> BUFFERS
+        = new ArrayBlockingQueue<Buffers>(2 * Runtime.getRuntime().availableProcessors());
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
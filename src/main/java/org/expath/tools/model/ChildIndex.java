@@ -0,0 +1,162 @@
+/****************************************************************************/
+/*  File:       ChildIndex.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.Arrays;
+
+/**
+ * An index of the children elements of an element, by name.
+ *
+ * The index is built from the name codes of the children, in document order.
+ * It maps each name code to the position of the first child with that name,
+ * and chains each position to the next child with the same name, so looking
+ * up a name does not depend on the number of children, and walking all the
+ * children with that name does not allocate anything.  The positions are
+ * used by the implementations to get the child objects themselves.
+ *
+ * The codes can be any non-negative integers identifying the names, not
+ * necessarily codes in a {@link NamePool} (e.g. codes in a per-tree name
+ * table).  A child with a negative code is never found.
+ *
+ * An index is immutable, so it can be shared freely by several threads.
+ *
+ * @author agent
+ */
+public final class ChildIndex
+{
+    /**
+     * Create the index of the children with the given name codes.
+     *
+     * @param codes The name codes of the children, in document order.  The
+     * array is not copied, and must not be modified afterwards.
+     */
+    public ChildIndex(int[] codes)
+    {
+        int capacity = 2;
+        while ( capacity < 2 * codes.length ) {
+            capacity <<= 1;
+        }
+        myCodes = codes;
+        myKeys = new int[capacity];
+        myFirsts = new int[capacity];
+        myNexts = new int[codes.length];
+        Arrays.fill(myKeys, -1);
+        // backwards, so each chain is in document order
+        for ( int i = codes.length - 1; i >= 0; --i ) {
+            if ( codes[i] < 0 ) {
+                myNexts[i] = -1;
+                continue;
+            }
+            int slot = slot(codes[i]);
+            if ( myKeys[slot] < 0 ) {
+                myKeys[slot] = codes[i];
+                myNexts[i] = -1;
+            }
+            else {
+                myNexts[i] = myFirsts[slot];
+            }
+            myFirsts[slot] = i;
+        }
+    }
+
+    /**
+     * Return the number of children.
+     *
+     * @return The number of children.
+     */
+    public int size()
+    {
+        return myCodes.length;
+    }
+
+    /**
+     * Return the name code of the child at a position.
+     *
+     * @param position The position of the child.
+     *
+     * @return The code of its name.
+     */
+    public int getCode(int position)
+    {
+        return myCodes[position];
+    }
+
+    /**
+     * Return the position of the first child with a given name.
+     *
+     * @param code The code of the name to look for.
+     *
+     * @return The position of the first child with that name, or -1.
+     */
+    public int first(int code)
+    {
+        if ( code < 0 ) {
+            return -1;
+        }
+        int slot = slot(code);
+        return myKeys[slot] == code ? myFirsts[slot] : -1;
+    }
+
+    /**
+     * Return the position of the next child with the same name as another.
+     *
+     * @param position The position of the previous child.
+     *
+     * @return The position of the next child with the same name, or -1.
+     */
+    public int next(int position)
+    {
+        return myNexts[position];
+    }
+
+    /**
+     * Return the slot of a code in the table (the slot of the code if it is
+     * there, or the empty slot where it would go).
+     */
+    private int slot(int code)
+    {
+        int mask = myKeys.length - 1;
+        int hash = code * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while ( myKeys[slot] >= 0 && myKeys[slot] != code ) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // the code of each child
+    private final int[] myCodes;
+    // open addressing table, from a code to the position of its first child
+    private final int[] myKeys;
+    private final int[] myFirsts;
+    // for each child, the position of the next child with the same name
+    private final int[] myNexts;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
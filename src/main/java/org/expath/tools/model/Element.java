@@ -9,8 +9,14 @@
 
 package org.expath.tools.model;
 
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import org.expath.tools.ToolsException;
+import org.xml.sax.ContentHandler;
 
 /**
  * An abstract representation of an element (just provide the HTTP Client needs).
@@ -35,6 +41,24 @@ public interface Element
      */
     String getNamespaceUri();
 
+    /**
+     * Return the code of the name of the element, in the default name pool.
+     *
+     * The name is only looked up, it is never added to the pool, so the code
+     * is {@link NamePool#NO_CODE} if the name is not in the pool.  Such an
+     * element does not have the name of any code allocated by the
+     * application, but two elements with {@code NO_CODE} do not necessarily
+     * have the same name.  The default implementation looks the name up in
+     * the pool.
+     *
+     * @return The code of the name, in {@link NamePool#getDefault()}, or
+     * {@link NamePool#NO_CODE}.
+     */
+    default int getNameCode()
+    {
+        return NamePool.getDefault().getCode(getNamespaceUri(), getLocalName());
+    }
+
     /**
      * Get the display name of the element.
      *
@@ -57,6 +81,75 @@ public interface Element
      */
     String getAttribute(String local_name);
 
+    /**
+     * Return the value of an attribute, in a namespace.
+     *
+     * @param ns The namespace URI of the attribute, the empty string for no
+     * namespace.
+     *
+     * @param local_name The local name of the attribute.
+     *
+     * @return The value of the attribute, or null if it does not exist.
+     */
+    default String getAttribute(String ns, String local_name)
+    {
+        for ( Attribute a : attributes() ) {
+            if ( a.getLocalName().equals(local_name) && a.getNamespaceUri().equals(ns) ) {
+                return a.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the values of several attributes at once, in one pass.
+     *
+     * Same as {@link #getAttributes(AttributeSlots, String[])}, with the
+     * names compiled by {@link AttributeSlots#forArray(String[])}, so they are
+     * compiled once per array, but looked up in a synchronized cache on each
+     * call.  To fetch the same names from many elements, compile them once in
+     * an {@link AttributeSlots} instead.
+     *
+     * @param names The local names of the attributes, in no namespace.
+     *
+     * @param out The array to receive the values, at the same positions as
+     * {@code names}.  A value is null if the attribute does not exist.
+     *
+     * @throws IllegalArgumentException If a name appears more than once.
+     */
+    default void getAttributes(String[] names, String[] out)
+    {
+        getAttributes(AttributeSlots.forArray(names), out);
+    }
+
+    /**
+     * Return the values of several attributes at once, in one pass.
+     *
+     * The default implementation goes once through {@link #attributes()}, and
+     * looks up the slot of each attribute by name code.  So it allocates the
+     * attribute objects if the implementation creates them on demand (the DOM
+     * elements do).  The tiny and streaming elements read their own storage
+     * instead, without allocating.
+     *
+     * @param slots The compiled names of the attributes.
+     *
+     * @param out The array to receive the values, at the positions of the
+     * names in {@code slots}.  A value is null if the attribute does not exist.
+     */
+    default void getAttributes(AttributeSlots slots, String[] out)
+    {
+        if ( out.length < slots.size() ) {
+            throw new IllegalArgumentException("Output array too small: " + out.length + " < " + slots.size());
+        }
+        Arrays.fill(out, 0, slots.size(), null);
+        for ( Attribute a : attributes() ) {
+            int slot = slots.getSlot(a.getNameCode());
+            if ( slot >= 0 ) {
+                out[slot] = a.getValue();
+            }
+        }
+    }
+
     /**
      * Iterate through the attributes.
      * 
@@ -68,8 +161,12 @@ public interface Element
      * Return true if this element has at least one child in no namespace.
      * 
      * @return {@code true} if there is any child in no namespace.
+     *
+     * @throws ToolsException If there is any error reading the children (for
+     * a streaming implementation).
      */
-    boolean hasNoNsChild();
+    boolean hasNoNsChild()
+            throws ToolsException;
 
     /**
      * Iterate through the children elements.
@@ -87,6 +184,73 @@ public interface Element
      */
     Iterable<Element> children(String ns);
 
+    /**
+     * Return the first child element with a specific name.
+     *
+     * The default implementation iterates through {@link #children(String)}.
+     * An implementation can instead keep an index of its children by name.
+     * A streaming implementation might consume the children it goes through.
+     *
+     * @param ns The namespace URI of the child (the empty string for no
+     * namespace).
+     *
+     * @param local The local name of the child.
+     *
+     * @return The first child with that name, or {@code null} if there is none.
+     */
+    default Element child(String ns, String local)
+    {
+        for ( Element c : children(ns) ) {
+            if ( c.getLocalName().equals(local) ) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Iterate through the children elements with a specific name.
+     *
+     * The default implementation iterates through {@link #children(String)},
+     * and collects the matching children in a new list (the DOM elements use
+     * an index of their children by name instead).  The tiny and streaming
+     * elements return a lazy view, without allocating a list.
+     *
+     * @param ns The namespace URI of the children (the empty string for no
+     * namespace).
+     *
+     * @param local The local name of the children.
+     *
+     * @return The iterator.
+     */
+    default Iterable<Element> children(String ns, String local)
+    {
+        List<Element> result = new ArrayList<Element>();
+        for ( Element c : children(ns) ) {
+            if ( c.getLocalName().equals(local) ) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of children elements.
+     *
+     * The default implementation iterates through {@link #children()}.  A
+     * streaming implementation might consume the children to count them.
+     *
+     * @return The number of children elements.
+     */
+    default int childCount()
+    {
+        int count = 0;
+        for ( Element c : children() ) {
+            ++count;
+        }
+        return count;
+    }
+
     /**
      * Check the element {@code elem} does not have attributes other than {@code names}.
      *
@@ -100,6 +264,12 @@ public interface Element
      * @param forbidden_ns The forbidden namespaces, no attribute can be in any
      * of those namespaces.
      *
+     * This is the slow path: the arrays are compiled to an {@link
+     * AttributeChecker}, cached only by the identity of the arrays (see
+     * {@link AttributeChecker#forArrays(String[], String[])}).  Callers
+     * checking many elements should compile a checker once, and use {@link
+     * #noOtherNCNameAttribute(AttributeChecker)}.
+     *
      * @throws ToolsException If the element contains an attribute in any of the
      * forbidden namespaces, or in no namespace and the name of which is not in
      * {@code names}.
@@ -107,15 +277,132 @@ public interface Element
     void noOtherNCNameAttribute(String[] names, String[] forbidden_ns)
             throws ToolsException;
 
+    /**
+     * Check the element does not have attributes other than allowed by {@code checker}.
+     *
+     * Same as {@link #noOtherNCNameAttribute(String[], String[])}, but with
+     * the names and namespaces compiled once in a reusable checker.
+     *
+     * @param checker The compiled check.
+     *
+     * @throws ToolsException If the element contains an attribute which is not
+     * allowed by {@code checker}.
+     */
+    default void noOtherNCNameAttribute(AttributeChecker checker)
+            throws ToolsException
+    {
+        checker.check(this);
+    }
+
     /**
      * Return the content of the element (the content of the child:: axis).
      * 
+     * The comments and processing instructions are part of the content only
+     * if the implementation keeps them: the DOM implementation does, the
+     * tiny trees built by {@link org.expath.tools.model.tiny.TinyParser} do
+     * not.
+     * 
      * @return The sequence.
      *
      * @throws ToolsException if an error occurs whilst retrieving the content
      */
     Sequence getContent() throws ToolsException;
 
+    /**
+     * Return the string value of the element.
+     *
+     * The string value is the concatenation of all its text descendants.  An
+     * implementation can return a view over the text it stores, instead of
+     * joining it into a new string.  The default implementation does not
+     * know the text of the element, so it always throws an exception.
+     *
+     * @return The string value of the element.
+     *
+     * @throws ToolsException If there is any error reading the text, or the
+     * implementation does not support it.
+     */
+    default CharSequence getStringValue()
+            throws ToolsException
+    {
+        throw new ToolsException("String value not supported by " + getClass().getName());
+    }
+
+    /**
+     * Return a reader over the string value of the element.
+     *
+     * The default implementation reads {@link #getStringValue()}.  A
+     * streaming implementation can read the text from its input instead,
+     * without keeping it in memory.
+     *
+     * @return A reader over the text descendants of the element.
+     *
+     * @throws ToolsException If there is any error reading the text, or the
+     * implementation does not support it.
+     */
+    default Reader openTextReader()
+            throws ToolsException
+    {
+        return TextValue.openReader(getStringValue());
+    }
+
+    /**
+     * Return a StAX view of the element and its content.
+     *
+     * The reader is positioned on the start tag of the element, and after its
+     * end tag, the next event is the end of the document.  The namespace
+     * bindings in scope on the element are all declared on its start tag.  An
+     * implementation reads its own storage, without serializing the element.
+     * The default implementation always throws an exception.
+     *
+     * @return The reader.
+     *
+     * @throws ToolsException If there is any error creating the reader, or the
+     * implementation does not support it.
+     */
+    default XMLStreamReader openStreamReader()
+            throws ToolsException
+    {
+        throw new ToolsException("StAX view not supported by " + getClass().getName());
+    }
+
+    /**
+     * Send the element and its content to a SAX handler.
+     *
+     * The events are sent between {@code startDocument()} and {@code
+     * endDocument()}, and the namespace bindings in scope on the element are
+     * all mapped before its start tag.  The default implementation sends the
+     * events of {@link #openStreamReader()}.
+     *
+     * @param handler The handler to send the events to.
+     *
+     * @throws ToolsException If there is any error reading the element, or in
+     * the handler.
+     */
+    default void replay(ContentHandler handler)
+            throws ToolsException
+    {
+        SaxReplay.send(openStreamReader(), handler);
+    }
+
+    /**
+     * Return the structural digest of the element.
+     *
+     * See {@link StructuralDigest} for what the digest depends on.  Two
+     * elements with different digests are never deep-equal, see {@link
+     * StructuralDigest#deepEqual(Element, Element)}.  Implementations can
+     * memoize the digest, for the element and for its descendants.  The
+     * default implementation computes it from {@link #openStreamReader()}.
+     *
+     * @return The digest of the element, never 0.
+     *
+     * @throws ToolsException If there is any error reading the element.
+     */
+    default long getDigest()
+            throws ToolsException
+    {
+        return StructuralDigest.compute(this);
+    }
+
     /**
      * Parse a literal QName using the namespace bindings in scope on the element.
      * 
@@ -127,6 +414,32 @@ public interface Element
      */
     QName parseQName(String value)
             throws ToolsException;
+
+    /**
+     * Parse a whitespace-separated list of literal QNames, using the namespace
+     * bindings in scope on the element.
+     *
+     * The default implementation calls {@link #parseQName(String)} for each
+     * QName in the list.  An implementation can instead resolve them all in
+     * one pass, against a snapshot of the bindings in scope.
+     *
+     * @param value The list of literal QNames to parse.
+     *
+     * @return The parsed QNames, in order.
+     *
+     * @throws ToolsException if an error occurs whilst parsing any of the QNames
+     */
+    default List<QName> parseQNames(CharSequence value)
+            throws ToolsException
+    {
+        List<QName> result = new ArrayList<QName>();
+        for ( String v : value.toString().trim().split("\\s+") ) {
+            if ( ! v.isEmpty() ) {
+                result.add(parseQName(v));
+            }
+        }
+        return result;
+    }
 }
 
 
@@ -147,5 +460,5 @@ public interface Element
 /*                                                                          */
 /*  The Initial Developer of the Original Code is Florent Georges.          */
 /*                                                                          */
-/*  Contributor(s): none.                                                   */
+/*  Contributor(s): agent.                                                  */
 /* ------------------------------------------------------------------------ */
@@ -0,0 +1,281 @@
+/****************************************************************************/
+/*  File:       ElementPath.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.expath.tools.ToolsException;
+
+/**
+ * A compiled path, to select descendant elements of an element.
+ *
+ * A path is a sequence of steps separated by slashes, each step selecting
+ * children elements by name, for instance {@code http:multipart/http:body}.
+ * A step is either a QName, or a name test with a wildcard: {@code *},
+ * {@code prefix:*} or {@code *:local}.  Like in XPath, a name without prefix
+ * is in no namespace (the default namespace does not apply).  The first step
+ * selects children of the context element.
+ *
+ * The prefixes are resolved at compile time, so evaluating a path does not
+ * look up any namespace.  The steps with a name use {@link Element#children(String,
+ * String)}, so they use the indexes of the implementations which have some.
+ * A compiled path is immutable, and can be shared freely by several threads.
+ *
+ * @author agent
+ */
+public final class ElementPath
+{
+    private ElementPath(String source, Step[] steps)
+    {
+        mySource = source;
+        mySteps = steps;
+    }
+
+    /**
+     * Compile a path.
+     *
+     * @param path The path to compile.
+     *
+     * @param bindings The namespace bindings to resolve the prefixes in the path.
+     *
+     * @return The compiled path.
+     *
+     * @throws ToolsException If the path is invalid, or uses a prefix which is
+     * not bound.
+     */
+    public static ElementPath compile(String path, NamespaceBindings bindings)
+            throws ToolsException
+    {
+        List<Step> steps = new ArrayList<Step>();
+        for ( String step : path.split("/", -1) ) {
+            steps.add(compileStep(step.trim(), path, bindings));
+        }
+        return new ElementPath(path, steps.toArray(new Step[steps.size()]));
+    }
+
+    /**
+     * Select the elements matching this path, from a context element.
+     *
+     * The elements are returned lazily, in document order.
+     *
+     * @param context The element to evaluate the path from.
+     *
+     * @return The selected elements.
+     */
+    public Iterable<Element> select(final Element context)
+    {
+        return new Iterable<Element>() {
+            @Override
+            public Iterator<Element> iterator() {
+                return new Matches(context);
+            }
+        };
+    }
+
+    /**
+     * Return the first element matching this path, from a context element.
+     *
+     * @param context The element to evaluate the path from.
+     *
+     * @return The first selected element, or {@code null} if there is none.
+     */
+    public Element selectFirst(Element context)
+    {
+        Iterator<Element> it = new Matches(context);
+        return it.hasNext() ? it.next() : null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mySource;
+    }
+
+    private static Step compileStep(String step, String path, NamespaceBindings bindings)
+            throws ToolsException
+    {
+        if ( step.isEmpty() ) {
+            throw new ToolsException("Empty step in path: " + path);
+        }
+        if ( step.equals(WILDCARD) ) {
+            return new Step(null, null);
+        }
+        int colon = step.indexOf(':');
+        if ( colon < 0 ) {
+            return new Step("", intern("", step));
+        }
+        String prefix = step.substring(0, colon);
+        String local = step.substring(colon + 1);
+        if ( prefix.isEmpty() || local.isEmpty() || local.indexOf(':') >= 0 ) {
+            throw new ToolsException("Invalid step in path: " + step + ", in " + path);
+        }
+        String ns = null;
+        if ( ! prefix.equals(WILDCARD) ) {
+            ns = bindings.getNamespaceUri(prefix);
+            if ( ns == null || ns.isEmpty() ) {
+                throw new ToolsException("No namespace in scope for prefix of step: " + step + ", in " + path);
+            }
+        }
+        if ( local.equals(WILDCARD) ) {
+            return new Step(ns, null);
+        }
+        return new Step(ns, intern(ns == null ? "" : ns, local));
+    }
+
+    /**
+     * Return the local name instance in the name pool, so it is shared.
+     */
+    private static String intern(String ns, String local)
+    {
+        NamePool pool = NamePool.getDefault();
+        return pool.getLocalName(pool.allocate(ns, local));
+    }
+
+    /**
+     * One step, a name test on the child axis.
+     */
+    private static final class Step
+    {
+        /**
+         * @param ns The namespace URI, or {@code null} for any.
+         *
+         * @param local The local name, or {@code null} for any.
+         */
+        public Step(String ns, String local)
+        {
+            this.ns = ns;
+            this.local = local;
+        }
+
+        public Iterator<Element> children(Element parent)
+        {
+            if ( ns == null ) {
+                return parent.children().iterator();
+            }
+            else if ( local == null ) {
+                return parent.children(ns).iterator();
+            }
+            else {
+                return parent.children(ns, local).iterator();
+            }
+        }
+
+        /**
+         * Whether an element returned by {@link #children(Element)} matches
+         * the step (only {@code *:local} needs to be checked).
+         */
+        public boolean matches(Element elem)
+        {
+            return ns != null || local == null || local.equals(elem.getLocalName());
+        }
+
+        public final String ns;
+        public final String local;
+    }
+
+    /**
+     * The matches of the path, depth-first, with one iterator per step.
+     */
+    private final class Matches
+            implements Iterator<Element>
+    {
+        public Matches(Element context)
+        {
+            // no generic array creation
+            @SuppressWarnings("unchecked")
+            Iterator<Element>[] iterators = (Iterator<Element>[]) new Iterator<?>[mySteps.length];
+            myIterators = iterators;
+            myIterators[0] = mySteps[0].children(context);
+            myLevel = 0;
+            myNext = advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return myNext != null;
+        }
+
+        @Override
+        public Element next()
+        {
+            Element next = myNext;
+            if ( next == null ) {
+                throw new NoSuchElementException();
+            }
+            myNext = advance();
+            return next;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Path results are read-only");
+        }
+
+        private Element advance()
+        {
+            int last = mySteps.length - 1;
+            int level = myLevel;
+            while ( level >= 0 ) {
+                Iterator<Element> it = myIterators[level];
+                if ( ! it.hasNext() ) {
+                    myIterators[level] = null;
+                    --level;
+                    continue;
+                }
+                Element elem = it.next();
+                if ( ! mySteps[level].matches(elem) ) {
+                    continue;
+                }
+                if ( level == last ) {
+                    myLevel = level;
+                    return elem;
+                }
+                ++level;
+                myIterators[level] = mySteps[level].children(elem);
+            }
+            myLevel = -1;
+            return null;
+        }
+
+        private final Iterator<Element>[] myIterators;
+        private int myLevel;
+        private Element myNext;
+    }
+
+    private final String mySource;
+    private final Step[] mySteps;
+
+    private static final String WILDCARD = "*";
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
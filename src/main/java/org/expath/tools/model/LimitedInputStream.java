@@ -0,0 +1,118 @@
+/****************************************************************************/
+/*  File:       LimitedInputStream.java                                     */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream failing as soon as more than a given number of bytes is read.
+ *
+ * Parsers do not always propagate the I/O error as such (a DOM LS parser
+ * reports it as an {@code LSException}), so the violation is also kept on
+ * the stream, for the parser to report it with {@link #getViolation()}.
+ *
+ * @author agent
+ */
+public class LimitedInputStream
+        extends FilterInputStream
+{
+    public LimitedInputStream(InputStream in, long max)
+    {
+        super(in);
+        myRemaining = max;
+        myMax = max;
+    }
+
+    /**
+     * Return the violation of the limit on bytes, if any.
+     *
+     * @return The violation, or {@code null} if the limit has not been exceeded.
+     */
+    public ParseLimitException getViolation()
+    {
+        return myViolation;
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        int b = super.read();
+        if ( b >= 0 ) {
+            consume(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+            throws IOException
+    {
+        int n = super.read(b, off, len);
+        if ( n > 0 ) {
+            consume(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n)
+            throws IOException
+    {
+        long skipped = super.skip(n);
+        consume(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    private void consume(long n)
+            throws IOException
+    {
+        myRemaining -= n;
+        if ( myRemaining < 0 ) {
+            if ( myViolation == null ) {
+                myViolation = new ParseLimitException(ParseLimits.Kind.BYTES, myMax);
+            }
+            throw new IOException(myViolation.getMessage());
+        }
+    }
+
+    private long myRemaining;
+    private final long myMax;
+    private ParseLimitException myViolation = null;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,232 @@
+/****************************************************************************/
+/*  File:       NamePool.java                                               */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.xml.namespace.QName;
+
+/**
+ * A pool of names, assigning an integer code to each expanded name.
+ *
+ * A name is a namespace URI (the empty string for no namespace) and a local
+ * name.  The same name always gets the same code from the same pool, so
+ * names can be compared by comparing their codes.  The pool also keeps one
+ * {@link QName} object for each name, and the strings it returns for a code
+ * are always the same instances.
+ *
+ * Looking up a name does not allocate anything once it is in the pool.  The
+ * pool is thread-safe.  Names are never removed from a pool, so only the
+ * names known by the application (the names it looks for, compiled in
+ * checkers, vocabularies, paths, etc.) must be added with {@link
+ * #allocate(String, String)}.  The names in the documents are only looked up
+ * with {@link #getCode(String, String)}, so parsing untrusted documents
+ * never grows the pool: a name which is not in the pool has the code {@link
+ * #NO_CODE}, and is then different from all the names the application looks
+ * for.  The model implementations keep the names of a document on their own
+ * (e.g. in a per-tree name table for tiny trees).
+ *
+ * The namespace URI {@code null} is the same as the empty string.
+ *
+ * @author agent
+ */
+public final class NamePool
+{
+    /**
+     * The code of a name which is not in the pool, never a valid code.
+     */
+    public static final int NO_CODE = -1;
+
+    /**
+     * Return the pool used by default by the model implementations.
+     *
+     * @return The default pool.
+     */
+    public static NamePool getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Return the code of a name, adding it to the pool if needed.
+     *
+     * Only use it for names known by the application, not for names coming
+     * from documents, as names are never removed from the pool.
+     *
+     * @param ns The namespace URI, the empty string (or {@code null}) for no
+     * namespace.
+     *
+     * @param local The local name.
+     *
+     * @return The code of the name.
+     */
+    public int allocate(String ns, String local)
+    {
+        String uri = ns == null ? "" : ns;
+        int code = getCode(uri, local);
+        if ( code >= 0 ) {
+            return code;
+        }
+        synchronized ( this ) {
+            code = getCode(uri, local);
+            if ( code >= 0 ) {
+                return code;
+            }
+            code = mySize;
+            QName[] names = myNames;
+            if ( code == names.length ) {
+                names = Arrays.copyOf(names, 2 * code);
+            }
+            Space space = mySpaces.get(uri);
+            if ( space == null ) {
+                space = new Space(uri);
+                mySpaces.put(uri, space);
+            }
+            // use the same URI instance for all the names in a namespace
+            names[code] = new QName(space.myUri, local);
+            // publish the array before the code
+            myNames = names;
+            mySize = code + 1;
+            space.myLocals.put(local, code);
+            return code;
+        }
+    }
+
+    /**
+     * Return the code of a name, if it is in the pool.
+     *
+     * This never adds the name to the pool.
+     *
+     * @param ns The namespace URI, the empty string (or {@code null}) for no
+     * namespace.
+     *
+     * @param local The local name.
+     *
+     * @return The code of the name, or {@link #NO_CODE} if it is not in the pool.
+     */
+    public int getCode(String ns, String local)
+    {
+        Space space = mySpaces.get(ns == null ? "" : ns);
+        if ( space == null ) {
+            return NO_CODE;
+        }
+        Integer code = space.myLocals.get(local);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * Return the QName of a name, the one in the pool if any.
+     *
+     * This never adds the name to the pool, so it can be used for names
+     * coming from documents.
+     *
+     * @param ns The namespace URI, the empty string (or {@code null}) for no
+     * namespace.
+     *
+     * @param local The local name.
+     *
+     * @return The QName, without any prefix.
+     */
+    public QName getQName(String ns, String local)
+    {
+        int code = getCode(ns, local);
+        return code == NO_CODE ? new QName(ns == null ? "" : ns, local) : myNames[code];
+    }
+
+    /**
+     * Return the namespace URI of a name.
+     *
+     * @param code The code of the name.
+     *
+     * @return The namespace URI, the empty string for no namespace.
+     */
+    public String getNamespaceUri(int code)
+    {
+        return myNames[code].getNamespaceURI();
+    }
+
+    /**
+     * Return the local name of a name.
+     *
+     * @param code The code of the name.
+     *
+     * @return The local name.
+     */
+    public String getLocalName(int code)
+    {
+        return myNames[code].getLocalPart();
+    }
+
+    /**
+     * Return the name as a QName (always the same instance for the same code).
+     *
+     * @param code The code of the name.
+     *
+     * @return The QName, without any prefix.
+     */
+    public QName getQName(int code)
+    {
+        return myNames[code];
+    }
+
+    /**
+     * Return the number of names in the pool.
+     *
+     * @return The number of names.
+     */
+    public int size()
+    {
+        return mySize;
+    }
+
+    /**
+     * The codes of the names in one namespace, by local name.
+     */
+    private static class Space
+    {
+        public Space(String uri)
+        {
+            myUri = uri;
+        }
+
+        private final String myUri;
+        private final ConcurrentMap<String, Integer> myLocals = new ConcurrentHashMap<String, Integer>();
+    }
+
+    // the names, by code (only the first mySize ones are set)
+    private volatile QName[] myNames = new QName[256];
+    private volatile int mySize = 0;
+    // the codes, by namespace URI then local name
+    private final ConcurrentMap<String, Space> mySpaces = new ConcurrentHashMap<String, Space>();
+
+    private static final NamePool DEFAULT = new NamePool();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
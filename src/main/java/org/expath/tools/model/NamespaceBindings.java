@@ -0,0 +1,238 @@
+/****************************************************************************/
+/*  File:       NamespaceBindings.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+
+/**
+ * An immutable snapshot of the namespace bindings in scope on an element.
+ *
+ * A snapshot holds all the bindings in scope, so resolving a prefix never
+ * walks up the tree.  The snapshot of an element which does not declare any
+ * namespace is the same object as the one of its parent (see {@link
+ * #extend(String[], String[])}), so a snapshot is typically shared by a
+ * whole subtree.  The prefix {@code xml} is always bound.
+ *
+ * The QNames returned by the parse methods are the ones from the default
+ * {@link NamePool} when the names are in the pool, so parsing the names known
+ * by the application does not create new objects.  Other names are not added
+ * to the pool.  The QNames do not keep the prefixes.
+ *
+ * @author agent
+ */
+public final class NamespaceBindings
+{
+    private NamespaceBindings(String[] prefixes, String[] uris)
+    {
+        myPrefixes = prefixes;
+        myUris = uris;
+    }
+
+    /**
+     * Return the bindings, with the bindings declared on an element added.
+     *
+     * @param prefixes The prefixes declared on the element, the empty string
+     * for the default namespace.
+     *
+     * @param uris The namespace URIs bound to {@code prefixes}, the empty
+     * string to undeclare the default namespace.
+     *
+     * @return The new bindings, or this object if nothing is declared.
+     */
+    public NamespaceBindings extend(String[] prefixes, String[] uris)
+    {
+        if ( prefixes.length == 0 ) {
+            return this;
+        }
+        List<String> new_prefixes = new ArrayList<String>(Arrays.asList(myPrefixes));
+        List<String> new_uris = new ArrayList<String>(Arrays.asList(myUris));
+        for ( int i = 0; i < prefixes.length; ++i ) {
+            int index = new_prefixes.indexOf(prefixes[i]);
+            if ( index < 0 ) {
+                new_prefixes.add(prefixes[i]);
+                new_uris.add(uris[i]);
+            }
+            else {
+                new_uris.set(index, uris[i]);
+            }
+        }
+        return new NamespaceBindings(
+            new_prefixes.toArray(new String[new_prefixes.size()]),
+            new_uris.toArray(new String[new_uris.size()]));
+    }
+
+    /**
+     * Return the namespace URI bound to a prefix.
+     *
+     * @param prefix The prefix, the empty string for the default namespace.
+     *
+     * @return The namespace URI, or {@code null} if the prefix is not bound
+     * (for the default namespace, the empty string or {@code null} if there is
+     * no default namespace).
+     */
+    public String getNamespaceUri(String prefix)
+    {
+        return lookup(prefix, 0, prefix.length());
+    }
+
+    /**
+     * Return the prefixes bound in this snapshot (not including {@code xml}).
+     *
+     * @return The prefixes, the empty string for the default namespace.
+     */
+    public String[] getPrefixes()
+    {
+        return myPrefixes.clone();
+    }
+
+    /**
+     * Parse a literal QName.
+     *
+     * A name without prefix is in the default namespace, if any.
+     *
+     * @param value The literal QName to parse.
+     *
+     * @return The parsed QName.
+     *
+     * @throws ToolsException If the QName is invalid, or its prefix is not bound.
+     */
+    public QName parseQName(CharSequence value)
+            throws ToolsException
+    {
+        return parseQName(value, 0, value.length());
+    }
+
+    /**
+     * Parse a whitespace-separated list of literal QNames, in one pass.
+     *
+     * @param value The list of literal QNames to parse.
+     *
+     * @return The parsed QNames, in order.
+     *
+     * @throws ToolsException If any of the QNames is invalid, or its prefix is
+     * not bound.
+     */
+    public List<QName> parseQNames(CharSequence value)
+            throws ToolsException
+    {
+        List<QName> result = new ArrayList<QName>();
+        int length = value.length();
+        int i = 0;
+        while ( i < length ) {
+            while ( i < length && isSpace(value.charAt(i)) ) {
+                ++i;
+            }
+            int start = i;
+            while ( i < length && ! isSpace(value.charAt(i)) ) {
+                ++i;
+            }
+            if ( i > start ) {
+                result.add(parseQName(value, start, i));
+            }
+        }
+        return result;
+    }
+
+    private QName parseQName(CharSequence value, int start, int end)
+            throws ToolsException
+    {
+        int colon = -1;
+        for ( int i = start; i < end && colon < 0; ++i ) {
+            if ( value.charAt(i) == ':' ) {
+                colon = i;
+            }
+        }
+        if ( colon == start || colon == end - 1 || start == end ) {
+            throw new ToolsException("Invalid QName: " + value.subSequence(start, end));
+        }
+        String ns;
+        String local;
+        // ':' not found
+        if ( colon < 0 ) {
+            ns = lookup("", 0, 0);
+            local = value.subSequence(start, end).toString();
+        }
+        // ':' found
+        else {
+            ns = lookup(value, start, colon);
+            if ( ns == null ) {
+                throw new ToolsException("No namespace in scope for prefix of QName: " + value.subSequence(start, end));
+            }
+            local = value.subSequence(colon + 1, end).toString();
+        }
+        return NamePool.getDefault().getQName(ns, local);
+    }
+
+    /**
+     * Return the URI bound to the prefix {@code value[start, end)}, without
+     * creating the prefix string.
+     */
+    private String lookup(CharSequence value, int start, int end)
+    {
+        int length = end - start;
+        for ( int i = 0; i < myPrefixes.length; ++i ) {
+            String prefix = myPrefixes[i];
+            if ( prefix.length() == length && regionEquals(prefix, value, start) ) {
+                return myUris[i];
+            }
+        }
+        if ( length == 3 && regionEquals(XMLConstants.XML_NS_PREFIX, value, start) ) {
+            return XMLConstants.XML_NS_URI;
+        }
+        return null;
+    }
+
+    private static boolean regionEquals(String prefix, CharSequence value, int start)
+    {
+        for ( int i = 0; i < prefix.length(); ++i ) {
+            if ( prefix.charAt(i) != value.charAt(start + i) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /** No binding (but for the prefix {@code xml}). */
+    public static final NamespaceBindings EMPTY = new NamespaceBindings(new String[0], new String[0]);
+
+    private final String[] myPrefixes;
+    private final String[] myUris;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,121 @@
+/****************************************************************************/
+/*  File:       ParseLimitChecker.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+/**
+ * Check the {@link ParseLimits} of one parse, from the events of the document.
+ *
+ * The tree builders call the checker for every element and every chunk of
+ * text of the document, before deciding whether to keep them.  So the parts
+ * skipped by a projection or stripped are counted as well, and a violation
+ * is detected as soon as the event exceeding the limit is received (the
+ * length of a text node is checked chunk by chunk, before the node is
+ * built).  The namespace declarations count as attributes.
+ *
+ * A text node ends at each element boundary.  Builders keeping comments,
+ * processing instructions or CDATA sections as separate nodes must call
+ * {@link #endText()} at each of them.
+ *
+ * @author agent
+ */
+public class ParseLimitChecker
+{
+    public ParseLimitChecker(ParseLimits limits)
+    {
+        myLimits = limits;
+    }
+
+    /**
+     * Count an element, when its start tag is received.
+     *
+     * @param attributes The number of attributes and namespace declarations
+     * on the element.
+     *
+     * @throws ParseLimitException If the element exceeds a limit.
+     */
+    public void startElement(int attributes)
+            throws ParseLimitException
+    {
+        myText = 0;
+        ++myDepth;
+        ++myElements;
+        myAttributes += attributes;
+        if ( myDepth > myLimits.getMaxDepth() ) {
+            throw new ParseLimitException(ParseLimits.Kind.DEPTH, myLimits.getMaxDepth());
+        }
+        if ( myElements > myLimits.getMaxElements() ) {
+            throw new ParseLimitException(ParseLimits.Kind.ELEMENTS, myLimits.getMaxElements());
+        }
+        if ( myAttributes > myLimits.getMaxAttributes() ) {
+            throw new ParseLimitException(ParseLimits.Kind.ATTRIBUTES, myLimits.getMaxAttributes());
+        }
+    }
+
+    /**
+     * Record the end of an element.
+     */
+    public void endElement()
+    {
+        myText = 0;
+        --myDepth;
+    }
+
+    /**
+     * Count a chunk of text, part of the current text node.
+     *
+     * @param length The number of characters in the chunk.
+     *
+     * @throws ParseLimitException If the text node exceeds the limit on its length.
+     */
+    public void text(int length)
+            throws ParseLimitException
+    {
+        myText += length;
+        if ( myText > myLimits.getMaxTextLength() ) {
+            throw new ParseLimitException(ParseLimits.Kind.TEXT_LENGTH, myLimits.getMaxTextLength());
+        }
+    }
+
+    /**
+     * Record the end of the current text node.
+     */
+    public void endText()
+    {
+        myText = 0;
+    }
+
+    private final ParseLimits myLimits;
+    private int myDepth = 0;
+    private long myElements = 0;
+    private long myAttributes = 0;
+    // the length of the current text node
+    private long myText = 0;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
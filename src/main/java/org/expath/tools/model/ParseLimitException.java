@@ -0,0 +1,84 @@
+/****************************************************************************/
+/*  File:       ParseLimitException.java                                    */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import org.expath.tools.ToolsException;
+
+/**
+ * Thrown when parsing a document exceeds one of its {@link ParseLimits}.
+ *
+ * @author agent
+ */
+public class ParseLimitException
+        extends ToolsException
+{
+    public ParseLimitException(ParseLimits.Kind kind, long limit)
+    {
+        super("The document exceeds the parse limit on " + name(kind) + ": " + limit);
+        myKind = kind;
+        myLimit = limit;
+    }
+
+    /**
+     * Return the kind of limit which has been exceeded.
+     *
+     * @return The kind of limit.
+     */
+    public ParseLimits.Kind getKind()
+    {
+        return myKind;
+    }
+
+    /**
+     * Return the value of the limit which has been exceeded.
+     *
+     * @return The value of the limit.
+     */
+    public long getLimit()
+    {
+        return myLimit;
+    }
+
+    private static String name(ParseLimits.Kind kind)
+    {
+        switch ( kind ) {
+            case BYTES:       return "the number of bytes";
+            case ELEMENTS:    return "the number of elements";
+            case ATTRIBUTES:  return "the number of attributes";
+            case DEPTH:       return "the depth of elements";
+            case TEXT_LENGTH: return "the length of text nodes";
+            default:          return kind.toString();
+        }
+    }
+
+    private final ParseLimits.Kind myKind;
+    private final long myLimit;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
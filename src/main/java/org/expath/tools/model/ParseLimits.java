@@ -0,0 +1,182 @@
+/****************************************************************************/
+/*  File:       ParseLimits.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+/**
+ * Limits on the resources used to parse one document.
+ *
+ * A parser configured with limits stops as soon as one of them is exceeded,
+ * and throws a {@link ParseLimitException}, instead of building the rest of
+ * the tree.  All limits are off by default.  The limits are:
+ *
+ * <ul>
+ * <li>the number of bytes read (after decompression, if any), or the number
+ * of characters for a document given as a string</li>
+ * <li>the number of elements in the document</li>
+ * <li>the number of attributes in the document (all elements together,
+ * including namespace declarations)</li>
+ * <li>the depth of the elements (the root element has depth 1)</li>
+ * <li>the length of each text node, in characters</li>
+ * </ul>
+ *
+ * The limits must not be changed once in use, and can then be shared by
+ * several threads.
+ *
+ * @author agent
+ */
+public class ParseLimits
+{
+    /**
+     * The kinds of limits.
+     */
+    public static enum Kind
+    {
+        BYTES,
+        ELEMENTS,
+        ATTRIBUTES,
+        DEPTH,
+        TEXT_LENGTH
+    }
+
+    /**
+     * Set the maximum number of bytes of a document.
+     *
+     * @param max The maximum number of bytes.
+     */
+    public void setMaxBytes(long max)
+    {
+        myMaxBytes = check(max);
+    }
+
+    /**
+     * Return the maximum number of bytes of a document.
+     *
+     * @return The maximum number of bytes, {@link Long#MAX_VALUE} if unlimited.
+     */
+    public long getMaxBytes()
+    {
+        return myMaxBytes;
+    }
+
+    /**
+     * Set the maximum number of elements in a document.
+     *
+     * @param max The maximum number of elements.
+     */
+    public void setMaxElements(long max)
+    {
+        myMaxElements = check(max);
+    }
+
+    /**
+     * Return the maximum number of elements in a document.
+     *
+     * @return The maximum number of elements, {@link Long#MAX_VALUE} if unlimited.
+     */
+    public long getMaxElements()
+    {
+        return myMaxElements;
+    }
+
+    /**
+     * Set the maximum number of attributes in a document.
+     *
+     * @param max The maximum number of attributes.
+     */
+    public void setMaxAttributes(long max)
+    {
+        myMaxAttributes = check(max);
+    }
+
+    /**
+     * Return the maximum number of attributes in a document.
+     *
+     * @return The maximum number of attributes, {@link Long#MAX_VALUE} if unlimited.
+     */
+    public long getMaxAttributes()
+    {
+        return myMaxAttributes;
+    }
+
+    /**
+     * Set the maximum depth of the elements.
+     *
+     * @param max The maximum depth, the root element has depth 1.
+     */
+    public void setMaxDepth(int max)
+    {
+        myMaxDepth = (int) check(max);
+    }
+
+    /**
+     * Return the maximum depth of the elements.
+     *
+     * @return The maximum depth, {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int getMaxDepth()
+    {
+        return myMaxDepth;
+    }
+
+    /**
+     * Set the maximum length of a text node.
+     *
+     * @param max The maximum number of characters in a text node.
+     */
+    public void setMaxTextLength(int max)
+    {
+        myMaxTextLength = (int) check(max);
+    }
+
+    /**
+     * Return the maximum length of a text node.
+     *
+     * @return The maximum number of characters, {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int getMaxTextLength()
+    {
+        return myMaxTextLength;
+    }
+
+    private static long check(long max)
+    {
+        if ( max < 0 ) {
+            throw new IllegalArgumentException("Negative parse limit: " + max);
+        }
+        return max;
+    }
+
+    private long myMaxBytes = Long.MAX_VALUE;
+    private long myMaxElements = Long.MAX_VALUE;
+    private long myMaxAttributes = Long.MAX_VALUE;
+    private int myMaxDepth = Integer.MAX_VALUE;
+    private int myMaxTextLength = Integer.MAX_VALUE;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
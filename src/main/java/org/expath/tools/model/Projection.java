@@ -0,0 +1,177 @@
+/****************************************************************************/
+/*  File:       Projection.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.namespace.QName;
+
+/**
+ * A projection of a document: which elements to keep when parsing it.
+ *
+ * The elements outside of the projection are skipped while parsing, so they
+ * are never built in memory.  The parser still checks they are well-formed.
+ * A projection is defined by a maximum depth and/or a set of paths:
+ *
+ * <ul>
+ * <li>the root element has depth 1, and the elements deeper than the maximum
+ * depth are skipped (with their text content, comments, etc.)</li>
+ * <li>each path is a sequence of names, the first one matching a child of
+ * the root element, the second one a grandchild, etc.  The elements along a
+ * path are kept, as well as all the descendants of the element at the end of
+ * the path.  All other elements are skipped.</li>
+ * </ul>
+ *
+ * In a step, the namespace URI or the local name can be {@link #WILDCARD}, to
+ * match any namespace or any local name.  The root element is always kept.
+ * When there is no path, all elements within the maximum depth are kept.
+ *
+ * Tree builders use {@link #rootState()} and {@link #childState(long, int,
+ * String, String)} to evaluate the projection while parsing: the state of an
+ * element is computed from the state of its parent, and is 0 if the element
+ * must be skipped.  A projection must not be changed once in use, and can
+ * then be shared by several threads.
+ *
+ * @author agent
+ */
+public class Projection
+{
+    /**
+     * Set the maximum depth of the elements to keep.
+     *
+     * @param depth The maximum depth, the root element has depth 1.
+     */
+    public void setMaxDepth(int depth)
+    {
+        if ( depth < 1 ) {
+            throw new IllegalArgumentException("The maximum depth must be at least 1: " + depth);
+        }
+        myMaxDepth = depth;
+    }
+
+    /**
+     * Return the maximum depth of the elements to keep.
+     *
+     * @return The maximum depth, or {@link Integer#MAX_VALUE} if there is no limit.
+     */
+    public int getMaxDepth()
+    {
+        return myMaxDepth;
+    }
+
+    /**
+     * Add a path to keep, from the root element.
+     *
+     * @param steps The names of the elements on the path, starting with a
+     * child of the root element.  The namespace URI of a name is the empty
+     * string for no namespace.
+     */
+    public void addPath(QName... steps)
+    {
+        if ( myPaths.size() == MAX_PATHS ) {
+            throw new IllegalStateException("A projection cannot have more than " + MAX_PATHS + " paths");
+        }
+        if ( steps.length == 0 ) {
+            throw new IllegalArgumentException("A path must have at least one step");
+        }
+        myPaths.add(steps.clone());
+    }
+
+    /**
+     * Return the state of the root element.
+     *
+     * @return The state of the root element.
+     */
+    public long rootState()
+    {
+        if ( myPaths.isEmpty() ) {
+            return SELECTED;
+        }
+        return (1L << myPaths.size()) - 1;
+    }
+
+    /**
+     * Return the state of an element, given the state of its parent.
+     *
+     * @param parent The state of the parent element.
+     *
+     * @param depth The depth of the element (the root element has depth 1).
+     *
+     * @param ns The namespace URI of the element, the empty string for no
+     * namespace.
+     *
+     * @param local The local name of the element.
+     *
+     * @return The state of the element, or 0 if the element must be skipped.
+     */
+    public long childState(long parent, int depth, String ns, String local)
+    {
+        if ( depth > myMaxDepth || parent == 0 ) {
+            return 0;
+        }
+        if ( (parent & SELECTED) != 0 ) {
+            return SELECTED;
+        }
+        // the step index for the element is depth - 2 (the root is not in paths)
+        int index = depth - 2;
+        long state = 0;
+        for ( int i = 0; i < myPaths.size(); ++i ) {
+            if ( (parent & (1L << i)) == 0 ) {
+                continue;
+            }
+            QName[] path = myPaths.get(i);
+            if ( index < path.length && matches(path[index], ns, local) ) {
+                if ( index == path.length - 1 ) {
+                    return SELECTED;
+                }
+                state |= 1L << i;
+            }
+        }
+        return state;
+    }
+
+    private static boolean matches(QName step, String ns, String local)
+    {
+        String step_ns = step.getNamespaceURI();
+        String step_local = step.getLocalPart();
+        return (WILDCARD.equals(step_ns) || step_ns.equals(ns))
+            && (WILDCARD.equals(step_local) || step_local.equals(local));
+    }
+
+    /** Match any namespace URI or any local name, in a step. */
+    public static final String WILDCARD = "*";
+
+    private int myMaxDepth = Integer.MAX_VALUE;
+    private final List<QName[]> myPaths = new ArrayList<QName[]>();
+
+    private static final int MAX_PATHS = 63;
+    private static final long SELECTED = 1L << 63;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,256 @@
+/****************************************************************************/
+/*  File:       SaxParserPool.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.expath.tools.ToolsException;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+
+/**
+ * A bounded pool of reusable, namespace-aware SAX parsers.
+ *
+ * This is the SAX counterpart of {@link org.expath.tools.model.dom.DomParserPool}:
+ * the parsers are borrowed for the duration of one parse, and given back to
+ * the pool afterwards, instead of creating a new parser for every document.
+ * The pool does not use any thread-local storage.
+ *
+ * If the pool is empty when a parser is needed, a new one is created (this is
+ * a "miss").  If the pool is full when a parser is given back, it is simply
+ * dropped.  The capacity of the default pool can be set with the system
+ * property {@code org.expath.tools.model.sax-parser-pool-size} (an invalid or
+ * negative value is ignored), or the default pool can be replaced with
+ * {@link #setDefault(SaxParserPool)}.
+ *
+ * On Java 9 and later, the parsers report the content of CDATA sections in
+ * chunks, like text, instead of in one piece once the section has ended.
+ *
+ * @author agent
+ */
+public class SaxParserPool
+{
+    /**
+     * The SAX property to set the lexical handler of a parser.
+     */
+    public static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+    /**
+     * Create a new pool.
+     *
+     * @param capacity The maximum number of idle parsers kept in the pool.  A
+     * capacity of 0 disables pooling (a new parser is created for each parse).
+     */
+    public SaxParserPool(int capacity)
+    {
+        if ( capacity < 0 ) {
+            throw new IllegalArgumentException("Negative parser pool capacity: " + capacity);
+        }
+        myCapacity = capacity;
+        myParsers = capacity == 0 ? null : new ArrayBlockingQueue<XMLReader>(capacity);
+    }
+
+    /**
+     * Return the pool used by default by the parsers of the model.
+     *
+     * @return The default pool, never {@code null}.
+     */
+    public static SaxParserPool getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Replace the pool used by default by the parsers of the model.
+     *
+     * @param pool The new default pool, cannot be {@code null}.
+     */
+    public static void setDefault(SaxParserPool pool)
+    {
+        if ( pool == null ) {
+            throw new NullPointerException("Default parser pool is null");
+        }
+        DEFAULT = pool;
+    }
+
+    /**
+     * Return the maximum number of idle parsers kept in the pool.
+     *
+     * @return The capacity of the pool.
+     */
+    public int getCapacity()
+    {
+        return myCapacity;
+    }
+
+    /**
+     * Return the number of idle parsers currently in the pool.
+     *
+     * @return The number of idle parsers.
+     */
+    public int getIdleCount()
+    {
+        return myParsers == null ? 0 : myParsers.size();
+    }
+
+    /**
+     * Return how many times a parser has been reused from this pool.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount()
+    {
+        return myHits.get();
+    }
+
+    /**
+     * Return how many times a new parser had to be created by this pool.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount()
+    {
+        return myMisses.get();
+    }
+
+    /**
+     * Borrow a parser from the pool, or create a new one if the pool is empty.
+     *
+     * The parser must be given back using {@link #release(XMLReader)}, once
+     * the parse is over (successful or not).
+     *
+     * @return The parser.
+     *
+     * @throws ToolsException If there is any error creating a new parser.
+     */
+    public XMLReader acquire()
+            throws ToolsException
+    {
+        XMLReader parser = myParsers == null ? null : myParsers.poll();
+        if ( parser != null ) {
+            myHits.incrementAndGet();
+            return parser;
+        }
+        myMisses.incrementAndGet();
+        try {
+            // JAXP factories are not thread-safe
+            synchronized ( FACTORY ) {
+                parser = FACTORY.newSAXParser().getXMLReader();
+            }
+        }
+        catch ( ParserConfigurationException ex ) {
+            throw new ToolsException("Error instantiating the SAX parser", ex);
+        }
+        catch ( SAXException ex ) {
+            throw new ToolsException("Error instantiating the SAX parser", ex);
+        }
+        try {
+            // report the content of CDATA sections in chunks, like text
+            parser.setProperty(CDATA_CHUNK_SIZE, CHUNK_SIZE);
+        }
+        catch ( SAXNotRecognizedException ex ) {
+            // before Java 9, CDATA sections are reported in one piece
+        }
+        catch ( SAXNotSupportedException ex ) {
+            // before Java 9, CDATA sections are reported in one piece
+        }
+        return parser;
+    }
+
+    /**
+     * Give back a parser to the pool, after having removed its handlers.
+     *
+     * @param parser The parser, borrowed with {@link #acquire()}.
+     */
+    public void release(XMLReader parser)
+    {
+        parser.setContentHandler(null);
+        parser.setErrorHandler(null);
+        try {
+            parser.setProperty(LEXICAL_HANDLER, null);
+        }
+        catch ( SAXNotRecognizedException ex ) {
+            // no lexical handler to remove
+        }
+        catch ( SAXNotSupportedException ex ) {
+            // no lexical handler to remove
+        }
+        if ( myParsers != null ) {
+            myParsers.offer(parser);
+        }
+    }
+
+    /**
+     * Return the capacity of the default pool, given the value of the system property.
+     *
+     * This runs in the static initializer, so it must not fail: an invalid
+     * value would make the parsers unusable in the JVM.
+     */
+    static int defaultCapacity(String value)
+    {
+        if ( value != null ) {
+            try {
+                int capacity = Integer.parseInt(value.trim());
+                if ( capacity >= 0 ) {
+                    return capacity;
+                }
+            }
+            catch ( NumberFormatException ex ) {
+                // ignored, use the default capacity
+            }
+        }
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    private static SAXParserFactory newFactory()
+    {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory;
+    }
+
+    private final int myCapacity;
+    private final BlockingQueue<XMLReader> myParsers;
+    private final AtomicLong myHits = new AtomicLong();
+    private final AtomicLong myMisses = new AtomicLong();
+
+    private static final String POOL_SIZE_PROPERTY = "org.expath.tools.model.sax-parser-pool-size";
+    // the JDK property (since Java 9) to split CDATA sections, and the chunk size
+    private static final String CDATA_CHUNK_SIZE = "jdk.xml.cdataChunkSize";
+    private static final Integer CHUNK_SIZE = 8192;
+    private static final SAXParserFactory FACTORY = newFactory();
+    private static volatile SaxParserPool DEFAULT = new SaxParserPool(defaultCapacity(System.getProperty(POOL_SIZE_PROPERTY)));
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,143 @@
+/****************************************************************************/
+/*  File:       SaxReplay.java                                              */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.expath.tools.ToolsException;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Send the events of a StAX reader to a SAX content handler.
+ *
+ * This is the default way for an {@link Element} to replay itself as SAX
+ * events, from its {@link Element#openStreamReader()} view.  The events of
+ * one element (and its content) are sent, between {@code startDocument()}
+ * and {@code endDocument()}.  The prefix mappings are ended with the element
+ * they are started on.
+ *
+ * @author agent
+ */
+public final class SaxReplay
+{
+    private SaxReplay()
+    {
+        // utility class
+    }
+
+    /**
+     * Send the events of the element the reader is positioned on.
+     *
+     * @param reader The reader, positioned on the start tag of the element (or
+     * on the start of the document just before).
+     *
+     * @param handler The handler to send the events to.
+     *
+     * @throws ToolsException If there is any error reading the events, or in
+     * the handler.
+     */
+    public static void send(XMLStreamReader reader, ContentHandler handler)
+            throws ToolsException
+    {
+        try {
+            int event = reader.getEventType();
+            if ( event == XMLStreamConstants.START_DOCUMENT ) {
+                event = reader.nextTag();
+            }
+            if ( event != XMLStreamConstants.START_ELEMENT ) {
+                throw new ToolsException("The reader is not on a start tag, event: " + event);
+            }
+            handler.startDocument();
+            // the prefixes mapped on each open element
+            List<List<String>> mapped = new ArrayList<List<String>>();
+            int depth = 0;
+            do {
+                if ( event == XMLStreamConstants.START_ELEMENT ) {
+                    List<String> prefixes = new ArrayList<String>();
+                    for ( int i = 0; i < reader.getNamespaceCount(); ++i ) {
+                        String prefix = nonNull(reader.getNamespacePrefix(i));
+                        handler.startPrefixMapping(prefix, nonNull(reader.getNamespaceURI(i)));
+                        prefixes.add(prefix);
+                    }
+                    mapped.add(prefixes);
+                    AttributesImpl attrs = new AttributesImpl();
+                    for ( int i = 0; i < reader.getAttributeCount(); ++i ) {
+                        String local = reader.getAttributeLocalName(i);
+                        String qname = qname(reader.getAttributePrefix(i), local);
+                        attrs.addAttribute(nonNull(reader.getAttributeNamespace(i)), local, qname, "CDATA", reader.getAttributeValue(i));
+                    }
+                    String local = reader.getLocalName();
+                    handler.startElement(nonNull(reader.getNamespaceURI()), local, qname(reader.getPrefix(), local), attrs);
+                    ++depth;
+                }
+                else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                    String local = reader.getLocalName();
+                    handler.endElement(nonNull(reader.getNamespaceURI()), local, qname(reader.getPrefix(), local));
+                    for ( String prefix : mapped.remove(mapped.size() - 1) ) {
+                        handler.endPrefixMapping(prefix);
+                    }
+                    --depth;
+                }
+                else if ( event == XMLStreamConstants.CHARACTERS
+                        || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE ) {
+                    handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+                if ( depth > 0 ) {
+                    event = reader.next();
+                }
+            }
+            while ( depth > 0 );
+            handler.endDocument();
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error reading the events to replay", ex);
+        }
+        catch ( SAXException ex ) {
+            throw new ToolsException("Error replaying the events", ex);
+        }
+    }
+
+    private static String qname(String prefix, String local)
+    {
+        return prefix == null || prefix.isEmpty() ? local : prefix + ":" + local;
+    }
+
+    private static String nonNull(String s)
+    {
+        return s == null ? "" : s;
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
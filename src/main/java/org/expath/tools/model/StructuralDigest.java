@@ -0,0 +1,337 @@
+/****************************************************************************/
+/*  File:       StructuralDigest.java                                       */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.Arrays;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.expath.tools.ToolsException;
+
+/**
+ * A structural digest of element trees, and a deep-equal based on it.
+ *
+ * The digest of an element is a 64-bit hash of its name (namespace URI and
+ * local name), of its attributes, and of its content, where each child
+ * element contributes its own digest (like a Merkle tree).  It does not
+ * depend on the prefixes, on the namespace declarations, on the order of the
+ * attributes, nor on how the text is split in text nodes and CDATA sections.
+ * Comments and processing instructions are ignored.  Two equal trees have
+ * the same digest, and two trees with different digests are different.  A
+ * digest is never 0.
+ *
+ * An instance is a streaming digester: the events of a tree are fed with
+ * {@link #startElement(String, String)}, {@link #attribute(String, String,
+ * String)}, {@link #text(char[], int, int)}, {@link #child(long)} and {@link
+ * #endElement()}.  Because a child only contributes its digest, an
+ * implementation which has memoized the digest of a subtree can feed it with
+ * {@link #child(long)} instead of the events of the subtree.  An instance
+ * is not thread-safe, but the static methods are.
+ *
+ * @author agent
+ */
+public final class StructuralDigest
+{
+    /**
+     * Compute the digest of an element, from its StAX view.
+     *
+     * @param elem The element.
+     *
+     * @return The digest of the element.
+     *
+     * @throws ToolsException If there is any error reading the element.
+     */
+    public static long compute(Element elem)
+            throws ToolsException
+    {
+        StructuralDigest digest = new StructuralDigest();
+        XMLStreamReader reader = elem.openStreamReader();
+        try {
+            long result = 0;
+            for ( int event = reader.getEventType(); event != XMLStreamConstants.END_DOCUMENT; event = reader.next() ) {
+                if ( event == XMLStreamConstants.START_ELEMENT ) {
+                    digest.startElement(nonNull(reader.getNamespaceURI()), reader.getLocalName());
+                    for ( int i = 0; i < reader.getAttributeCount(); ++i ) {
+                        digest.attribute(nonNull(reader.getAttributeNamespace(i)), reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                    }
+                }
+                else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                    result = digest.endElement();
+                }
+                else if ( isText(event) ) {
+                    digest.text(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+            return result;
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error computing the digest of " + elem.getDisplayName(), ex);
+        }
+    }
+
+    /**
+     * Compare two elements structurally.
+     *
+     * The digests are compared first, and only if they are equal, the trees
+     * are compared event by event.  The comparison follows the same rules as
+     * the digest (names, attributes in any order, and text).
+     *
+     * @param a The first element.
+     *
+     * @param b The second element.
+     *
+     * @return {@code true} if the elements are deep-equal.
+     *
+     * @throws ToolsException If there is any error reading the elements.
+     */
+    public static boolean deepEqual(Element a, Element b)
+            throws ToolsException
+    {
+        if ( a == b ) {
+            return true;
+        }
+        if ( a.getDigest() != b.getDigest() ) {
+            return false;
+        }
+        XMLStreamReader x = a.openStreamReader();
+        XMLStreamReader y = b.openStreamReader();
+        StringBuilder tx = new StringBuilder();
+        StringBuilder ty = new StringBuilder();
+        try {
+            int ex = x.getEventType();
+            int ey = y.getEventType();
+            for ( ; ; ) {
+                ex = readText(x, ex, tx);
+                ey = readText(y, ey, ty);
+                if ( ex != ey || ! tx.toString().contentEquals(ty) ) {
+                    return false;
+                }
+                if ( ex == XMLStreamConstants.END_DOCUMENT ) {
+                    return true;
+                }
+                if ( ex == XMLStreamConstants.START_ELEMENT && ! sameStartTag(x, y) ) {
+                    return false;
+                }
+                ex = x.next();
+                ey = y.next();
+            }
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error comparing " + a.getDisplayName() + " and " + b.getDisplayName(), ex);
+        }
+    }
+
+    /**
+     * Start an element.
+     *
+     * @param ns The namespace URI, the empty string for no namespace.
+     *
+     * @param local The local name.
+     */
+    public void startElement(String ns, String local)
+    {
+        flushText();
+        if ( myDepth == myHashes.length ) {
+            myHashes = Arrays.copyOf(myHashes, 2 * myDepth);
+            myAttrs = Arrays.copyOf(myAttrs, 2 * myDepth);
+        }
+        myHashes[myDepth] = combine(combine(ELEMENT_SEED, hash(ns)), hash(local));
+        myAttrs[myDepth] = 0;
+        ++myDepth;
+    }
+
+    /**
+     * Add an attribute to the element just started (in any order).
+     *
+     * @param ns The namespace URI, the empty string for no namespace.
+     *
+     * @param local The local name.
+     *
+     * @param value The value.
+     */
+    public void attribute(String ns, String local, String value)
+    {
+        // a commutative sum, so the order does not matter
+        myAttrs[myDepth - 1] += fmix(combine(combine(hash(ns), hash(local)), hash(value)));
+    }
+
+    /**
+     * Add text to the current element.  Consecutive texts are one text.
+     *
+     * @param chars The characters.
+     *
+     * @param start The start of the text in {@code chars}.
+     *
+     * @param length The length of the text.
+     */
+    public void text(char[] chars, int start, int length)
+    {
+        if ( length == 0 ) {
+            return;
+        }
+        long h = myInText ? myText : FNV_OFFSET;
+        for ( int i = start; i < start + length; ++i ) {
+            h = (h ^ chars[i]) * FNV_PRIME;
+        }
+        myText = h;
+        myInText = true;
+    }
+
+    /**
+     * Add a child element to the current element, by its digest.
+     *
+     * @param digest The digest of the child.
+     */
+    public void child(long digest)
+    {
+        flushText();
+        myHashes[myDepth - 1] = combine(myHashes[myDepth - 1], digest);
+    }
+
+    /**
+     * End the current element, and add it to its parent if any.
+     *
+     * @return The digest of the element.
+     */
+    public long endElement()
+    {
+        flushText();
+        --myDepth;
+        long digest = fmix(combine(myHashes[myDepth], fmix(myAttrs[myDepth] + ATTRS_SEED)));
+        if ( digest == 0 ) {
+            digest = 1;
+        }
+        if ( myDepth > 0 ) {
+            child(digest);
+        }
+        return digest;
+    }
+
+    private void flushText()
+    {
+        if ( myInText ) {
+            myHashes[myDepth - 1] = combine(myHashes[myDepth - 1], fmix(myText ^ TEXT_SEED));
+            myInText = false;
+        }
+    }
+
+    /**
+     * Read the text events from the current one, and return the next other event.
+     */
+    private static int readText(XMLStreamReader reader, int event, StringBuilder buf)
+            throws XMLStreamException
+    {
+        buf.setLength(0);
+        int e = event;
+        while ( isText(e) ) {
+            buf.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            e = reader.next();
+        }
+        return e;
+    }
+
+    private static boolean sameStartTag(XMLStreamReader x, XMLStreamReader y)
+    {
+        if ( ! nonNull(x.getNamespaceURI()).equals(nonNull(y.getNamespaceURI()))
+                || ! x.getLocalName().equals(y.getLocalName())
+                || x.getAttributeCount() != y.getAttributeCount() ) {
+            return false;
+        }
+        for ( int i = 0; i < x.getAttributeCount(); ++i ) {
+            String ns = nonNull(x.getAttributeNamespace(i));
+            String value = null;
+            for ( int j = 0; j < y.getAttributeCount() && value == null; ++j ) {
+                if ( x.getAttributeLocalName(i).equals(y.getAttributeLocalName(j))
+                        && ns.equals(nonNull(y.getAttributeNamespace(j))) ) {
+                    value = y.getAttributeValue(j);
+                }
+            }
+            if ( ! x.getAttributeValue(i).equals(value) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isText(int event)
+    {
+        return event == XMLStreamConstants.CHARACTERS
+            || event == XMLStreamConstants.CDATA
+            || event == XMLStreamConstants.SPACE;
+    }
+
+    private static long hash(String s)
+    {
+        long h = FNV_OFFSET;
+        for ( int i = 0; i < s.length(); ++i ) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return fmix(h);
+    }
+
+    private static long combine(long h, long x)
+    {
+        return fmix(h ^ (x + 0x9E3779B97F4A7C15L + (h << 6) + (h >>> 2)));
+    }
+
+    /**
+     * The finalization step of MurmurHash3, to spread the bits.
+     */
+    private static long fmix(long k)
+    {
+        long h = k;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String nonNull(String s)
+    {
+        return s == null ? "" : s;
+    }
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long ELEMENT_SEED = 0x1L;
+    private static final long ATTRS_SEED = 0x2L;
+    private static final long TEXT_SEED = 0x3L;
+
+    // for each open element, its running hash and the sum of its attributes
+    private long[] myHashes = new long[16];
+    private long[] myAttrs = new long[16];
+    private int myDepth = 0;
+    // the running hash of the current text, if any
+    private long myText = 0;
+    private boolean myInText = false;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,202 @@
+/****************************************************************************/
+/*  File:       TextValue.java                                              */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * A string value made of several chunks of text, without joining them.
+ *
+ * The chunks are typically the text nodes of an element, as stored by the
+ * implementation.  The value is a view: {@link #charAt(int)} finds the chunk
+ * of a position with a binary search on their offsets, and only {@link
+ * #toString()} and {@link #subSequence(int, int)} copy characters.  The
+ * chunks must not change while the value is in use.
+ *
+ * @author agent
+ */
+public final class TextValue
+        implements CharSequence
+{
+    private TextValue(CharSequence[] chunks)
+    {
+        myChunks = chunks;
+        myOffsets = new int[chunks.length + 1];
+        for ( int i = 0; i < chunks.length; ++i ) {
+            myOffsets[i + 1] = myOffsets[i] + chunks[i].length();
+        }
+    }
+
+    /**
+     * Return the concatenation of chunks of text, as a view.
+     *
+     * @param chunks The chunks of text, in order.
+     *
+     * @return The empty string if there is no chunk, the chunk itself if there
+     * is only one, or a view over all of them.
+     */
+    public static CharSequence of(List<? extends CharSequence> chunks)
+    {
+        if ( chunks.isEmpty() ) {
+            return "";
+        }
+        if ( chunks.size() == 1 ) {
+            return chunks.get(0);
+        }
+        return new TextValue(chunks.toArray(new CharSequence[chunks.size()]));
+    }
+
+    /**
+     * Return a reader over a character sequence, without copying it first.
+     *
+     * If {@code text} is a {@link TextValue}, the reader reads its chunks one
+     * after the other.
+     *
+     * @param text The text to read.
+     *
+     * @return The reader.
+     */
+    public static Reader openReader(CharSequence text)
+    {
+        if ( text instanceof TextValue ) {
+            return new ChunkReader(((TextValue) text).myChunks);
+        }
+        return new ChunkReader(new CharSequence[] { text });
+    }
+
+    @Override
+    public int length()
+    {
+        return myOffsets[myChunks.length];
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        if ( index < 0 || index >= length() ) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length());
+        }
+        int low = 0;
+        int high = myChunks.length - 1;
+        while ( low < high ) {
+            int mid = (low + high + 1) >>> 1;
+            if ( myOffsets[mid] <= index ) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return myChunks[low].charAt(index - myOffsets[low]);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        if ( start < 0 || end > length() || start > end ) {
+            throw new IndexOutOfBoundsException("Range: " + start + ".." + end + ", length: " + length());
+        }
+        StringBuilder buf = new StringBuilder(end - start);
+        for ( int i = start; i < end; ++i ) {
+            buf.append(charAt(i));
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder buf = new StringBuilder(length());
+        for ( CharSequence chunk : myChunks ) {
+            buf.append(chunk);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * A reader over chunks of text, one after the other.
+     */
+    private static class ChunkReader
+            extends Reader
+    {
+        public ChunkReader(CharSequence[] chunks)
+        {
+            myChunks = chunks;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len)
+                throws IOException
+        {
+            if ( myChunks == null ) {
+                throw new IOException("Reader closed");
+            }
+            if ( len == 0 ) {
+                return 0;
+            }
+            while ( myChunk < myChunks.length && myPos == myChunks[myChunk].length() ) {
+                ++myChunk;
+                myPos = 0;
+            }
+            if ( myChunk == myChunks.length ) {
+                return -1;
+            }
+            CharSequence chunk = myChunks[myChunk];
+            int count = Math.min(len, chunk.length() - myPos);
+            if ( chunk instanceof String ) {
+                ((String) chunk).getChars(myPos, myPos + count, buf, off);
+            }
+            else {
+                for ( int i = 0; i < count; ++i ) {
+                    buf[off + i] = chunk.charAt(myPos + i);
+                }
+            }
+            myPos += count;
+            return count;
+        }
+
+        @Override
+        public void close()
+        {
+            myChunks = null;
+        }
+
+        private CharSequence[] myChunks;
+        private int myChunk = 0;
+        private int myPos = 0;
+    }
+
+    private final CharSequence[] myChunks;
+    // the offset of each chunk, plus the total length
+    private final int[] myOffsets;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
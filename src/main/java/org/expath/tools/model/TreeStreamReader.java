@@ -0,0 +1,680 @@
+/****************************************************************************/
+/*  File:       TreeStreamReader.java                                       */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A base class for {@link XMLStreamReader} views over in-memory trees.
+ *
+ * A subclass walks its own storage, and reports each event to this class in
+ * {@link #advance()}, with {@link #startElement(String, String, String)} (then
+ * {@link #addNamespace(String, String)} and {@link #addAttribute(String,
+ * String, String, String)}), {@link #endElement()}, {@link #text(String)}
+ * or {@link #text(char[], int, int)}, or {@link #endDocument()}.  This class
+ * implements the rest of the reader: the current event, the attributes, the
+ * namespace bindings in scope, the text, and the convenience methods.
+ *
+ * A view is positioned on the start tag of its element when it is created.
+ * After the end tag of that element, the next event is the end of the
+ * document.  Comments and processing instructions are not reported.
+ *
+ * @author agent
+ */
+public abstract class TreeStreamReader
+        implements XMLStreamReader
+{
+    /**
+     * Report the next event, by calling exactly one of the event methods.
+     *
+     * @throws XMLStreamException If there is any error reading the tree.
+     */
+    protected abstract void advance()
+            throws XMLStreamException;
+
+    /**
+     * Report the start tag of an element.
+     *
+     * @param ns The namespace URI, the empty string for no namespace.
+     *
+     * @param local The local name.
+     *
+     * @param prefix The prefix, the empty string for no prefix.
+     */
+    protected void startElement(String ns, String local, String prefix)
+    {
+        myFrames.add(new Frame(ns, local, prefix));
+        myEvent = XMLStreamConstants.START_ELEMENT;
+        myAttrCount = 0;
+        clearText();
+    }
+
+    /**
+     * Add a namespace declaration to the start tag just reported.
+     *
+     * @param prefix The prefix, the empty string for the default namespace.
+     *
+     * @param uri The namespace URI.
+     */
+    protected void addNamespace(String prefix, String uri)
+    {
+        Frame frame = current();
+        frame.prefixes.add(prefix);
+        frame.uris.add(uri);
+    }
+
+    /**
+     * Add an attribute to the start tag just reported.
+     *
+     * @param ns The namespace URI, the empty string for no namespace.
+     *
+     * @param local The local name.
+     *
+     * @param prefix The prefix, the empty string for no prefix.
+     *
+     * @param value The value.
+     */
+    protected void addAttribute(String ns, String local, String prefix, String value)
+    {
+        int i = myAttrCount * ATTR_SIZE;
+        if ( i == myAttrs.length ) {
+            myAttrs = Arrays.copyOf(myAttrs, 2 * myAttrs.length);
+        }
+        myAttrs[i] = ns;
+        myAttrs[i + 1] = local;
+        myAttrs[i + 2] = prefix;
+        myAttrs[i + 3] = value;
+        ++myAttrCount;
+    }
+
+    /**
+     * Report the end tag of the current element.
+     */
+    protected void endElement()
+    {
+        myEvent = XMLStreamConstants.END_ELEMENT;
+        myAttrCount = 0;
+        clearText();
+    }
+
+    /**
+     * Report a text node.
+     *
+     * @param text The text.
+     */
+    protected void text(String text)
+    {
+        myEvent = XMLStreamConstants.CHARACTERS;
+        myAttrCount = 0;
+        myString = text;
+        myChars = null;
+        myStart = 0;
+        myLength = text.length();
+    }
+
+    /**
+     * Report a text node.
+     *
+     * @param chars The characters, they are not copied.
+     *
+     * @param start The start of the text in {@code chars}.
+     *
+     * @param length The length of the text.
+     */
+    protected void text(char[] chars, int start, int length)
+    {
+        myEvent = XMLStreamConstants.CHARACTERS;
+        myAttrCount = 0;
+        myString = null;
+        myChars = chars;
+        myStart = start;
+        myLength = length;
+    }
+
+    /**
+     * Report the end of the document, after the end tag of the element.
+     */
+    protected void endDocument()
+    {
+        myFrames.clear();
+        myEvent = XMLStreamConstants.END_DOCUMENT;
+        myAttrCount = 0;
+        clearText();
+    }
+
+    @Override
+    public int next()
+            throws XMLStreamException
+    {
+        if ( myEvent == XMLStreamConstants.END_DOCUMENT ) {
+            throw new NoSuchElementException("No more events after the end of the document");
+        }
+        // the element of an end tag goes out of scope with the next event
+        if ( myEvent == XMLStreamConstants.END_ELEMENT ) {
+            myFrames.remove(myFrames.size() - 1);
+        }
+        advance();
+        return myEvent;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return myEvent != XMLStreamConstants.END_DOCUMENT;
+    }
+
+    @Override
+    public int nextTag()
+            throws XMLStreamException
+    {
+        int event = next();
+        while ( event == XMLStreamConstants.CHARACTERS && isWhiteSpace() ) {
+            event = next();
+        }
+        if ( event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT ) {
+            throw new XMLStreamException("Expected a start or end tag, got event " + event);
+        }
+        return event;
+    }
+
+    @Override
+    public String getElementText()
+            throws XMLStreamException
+    {
+        if ( myEvent != XMLStreamConstants.START_ELEMENT ) {
+            throw new XMLStreamException("Not on a start tag");
+        }
+        StringBuilder buf = new StringBuilder();
+        for ( int event = next(); event != XMLStreamConstants.END_ELEMENT; event = next() ) {
+            if ( event != XMLStreamConstants.CHARACTERS ) {
+                throw new XMLStreamException("Element with element content: " + getName());
+            }
+            buf.append(getText());
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public void require(int type, String ns, String local)
+            throws XMLStreamException
+    {
+        if ( type != myEvent ) {
+            throw new XMLStreamException("Expected event " + type + ", got " + myEvent);
+        }
+        if ( ns != null && ! ns.equals(nonNull(getNamespaceURI())) ) {
+            throw new XMLStreamException("Expected namespace " + ns + ", got " + getNamespaceURI());
+        }
+        if ( local != null && ! local.equals(getLocalName()) ) {
+            throw new XMLStreamException("Expected local name " + local + ", got " + getLocalName());
+        }
+    }
+
+    @Override
+    public Object getProperty(String name)
+    {
+        return null;
+    }
+
+    @Override
+    public void close()
+    {
+        // nothing to release
+    }
+
+    @Override
+    public int getEventType()
+    {
+        return myEvent;
+    }
+
+    @Override
+    public boolean isStartElement()
+    {
+        return myEvent == XMLStreamConstants.START_ELEMENT;
+    }
+
+    @Override
+    public boolean isEndElement()
+    {
+        return myEvent == XMLStreamConstants.END_ELEMENT;
+    }
+
+    @Override
+    public boolean isCharacters()
+    {
+        return myEvent == XMLStreamConstants.CHARACTERS;
+    }
+
+    @Override
+    public boolean isWhiteSpace()
+    {
+        if ( myEvent != XMLStreamConstants.CHARACTERS ) {
+            return false;
+        }
+        for ( int i = 0; i < myLength; ++i ) {
+            char c = myString != null ? myString.charAt(i) : myChars[myStart + i];
+            if ( c != ' ' && c != '\t' && c != '\n' && c != '\r' ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasName()
+    {
+        return myEvent == XMLStreamConstants.START_ELEMENT || myEvent == XMLStreamConstants.END_ELEMENT;
+    }
+
+    @Override
+    public QName getName()
+    {
+        Frame frame = named();
+        return new QName(frame.ns, frame.local, frame.prefix);
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return named().local;
+    }
+
+    @Override
+    public String getNamespaceURI()
+    {
+        return nullIfEmpty(named().ns);
+    }
+
+    @Override
+    public String getPrefix()
+    {
+        return named().prefix;
+    }
+
+    @Override
+    public int getAttributeCount()
+    {
+        checkStart();
+        return myAttrCount;
+    }
+
+    @Override
+    public QName getAttributeName(int index)
+    {
+        int i = attr(index);
+        return new QName(myAttrs[i], myAttrs[i + 1], myAttrs[i + 2]);
+    }
+
+    @Override
+    public String getAttributeNamespace(int index)
+    {
+        return nullIfEmpty(myAttrs[attr(index)]);
+    }
+
+    @Override
+    public String getAttributeLocalName(int index)
+    {
+        return myAttrs[attr(index) + 1];
+    }
+
+    @Override
+    public String getAttributePrefix(int index)
+    {
+        return myAttrs[attr(index) + 2];
+    }
+
+    @Override
+    public String getAttributeType(int index)
+    {
+        attr(index);
+        return "CDATA";
+    }
+
+    @Override
+    public String getAttributeValue(int index)
+    {
+        return myAttrs[attr(index) + 3];
+    }
+
+    @Override
+    public String getAttributeValue(String ns, String local)
+    {
+        checkStart();
+        for ( int i = 0; i < myAttrCount * ATTR_SIZE; i += ATTR_SIZE ) {
+            if ( myAttrs[i + 1].equals(local) && (ns == null || ns.equals(myAttrs[i])) ) {
+                return myAttrs[i + 3];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isAttributeSpecified(int index)
+    {
+        attr(index);
+        return true;
+    }
+
+    @Override
+    public int getNamespaceCount()
+    {
+        return named().prefixes.size();
+    }
+
+    @Override
+    public String getNamespacePrefix(int index)
+    {
+        return nullIfEmpty(named().prefixes.get(index));
+    }
+
+    @Override
+    public String getNamespaceURI(int index)
+    {
+        return named().uris.get(index);
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix)
+    {
+        if ( prefix == null ) {
+            throw new IllegalArgumentException("The prefix is null");
+        }
+        if ( XMLConstants.XML_NS_PREFIX.equals(prefix) ) {
+            return XMLConstants.XML_NS_URI;
+        }
+        if ( XMLConstants.XMLNS_ATTRIBUTE.equals(prefix) ) {
+            return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+        }
+        for ( int f = myFrames.size() - 1; f >= 0; --f ) {
+            Frame frame = myFrames.get(f);
+            int i = frame.prefixes.lastIndexOf(prefix);
+            if ( i >= 0 ) {
+                return frame.uris.get(i);
+            }
+        }
+        return prefix.isEmpty() ? XMLConstants.NULL_NS_URI : null;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext()
+    {
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                String uri = TreeStreamReader.this.getNamespaceURI(prefix);
+                return uri == null ? XMLConstants.NULL_NS_URI : uri;
+            }
+            @Override
+            public String getPrefix(String uri) {
+                Iterator<String> prefixes = getPrefixes(uri);
+                return prefixes.hasNext() ? prefixes.next() : null;
+            }
+            @Override
+            public Iterator<String> getPrefixes(String uri) {
+                if ( uri == null ) {
+                    throw new IllegalArgumentException("The namespace URI is null");
+                }
+                List<String> result = new ArrayList<String>();
+                for ( int f = myFrames.size() - 1; f >= 0; --f ) {
+                    Frame frame = myFrames.get(f);
+                    for ( int i = 0; i < frame.prefixes.size(); ++i ) {
+                        String prefix = frame.prefixes.get(i);
+                        if ( frame.uris.get(i).equals(uri) && ! result.contains(prefix)
+                                && uri.equals(TreeStreamReader.this.getNamespaceURI(prefix)) ) {
+                            result.add(prefix);
+                        }
+                    }
+                }
+                return Collections.unmodifiableList(result).iterator();
+            }
+        };
+    }
+
+    @Override
+    public boolean hasText()
+    {
+        return myEvent == XMLStreamConstants.CHARACTERS;
+    }
+
+    @Override
+    public String getText()
+    {
+        checkText();
+        return myString != null ? myString : new String(myChars, myStart, myLength);
+    }
+
+    @Override
+    public char[] getTextCharacters()
+    {
+        checkText();
+        if ( myChars == null ) {
+            myChars = myString.toCharArray();
+        }
+        return myChars;
+    }
+
+    @Override
+    public int getTextCharacters(int source_start, char[] target, int target_start, int length)
+    {
+        checkText();
+        int count = Math.max(0, Math.min(length, myLength - source_start));
+        if ( myString != null ) {
+            myString.getChars(source_start, source_start + count, target, target_start);
+        }
+        else {
+            System.arraycopy(myChars, myStart + source_start, target, target_start, count);
+        }
+        return count;
+    }
+
+    @Override
+    public int getTextStart()
+    {
+        checkText();
+        return myString != null ? 0 : myStart;
+    }
+
+    @Override
+    public int getTextLength()
+    {
+        checkText();
+        return myLength;
+    }
+
+    @Override
+    public String getEncoding()
+    {
+        return null;
+    }
+
+    @Override
+    public Location getLocation()
+    {
+        return new Location() {
+            @Override
+            public int getLineNumber() {
+                return -1;
+            }
+            @Override
+            public int getColumnNumber() {
+                return -1;
+            }
+            @Override
+            public int getCharacterOffset() {
+                return -1;
+            }
+            @Override
+            public String getPublicId() {
+                return null;
+            }
+            @Override
+            public String getSystemId() {
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public String getVersion()
+    {
+        return null;
+    }
+
+    @Override
+    public boolean isStandalone()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean standaloneSet()
+    {
+        return false;
+    }
+
+    @Override
+    public String getCharacterEncodingScheme()
+    {
+        return null;
+    }
+
+    @Override
+    public String getPITarget()
+    {
+        return null;
+    }
+
+    @Override
+    public String getPIData()
+    {
+        return null;
+    }
+
+    private Frame current()
+    {
+        return myFrames.get(myFrames.size() - 1);
+    }
+
+    /**
+     * Return the frame of the current start or end tag.
+     */
+    private Frame named()
+    {
+        if ( ! hasName() ) {
+            throw new IllegalStateException("Not on a start or end tag, event: " + myEvent);
+        }
+        return current();
+    }
+
+    private void checkStart()
+    {
+        if ( myEvent != XMLStreamConstants.START_ELEMENT ) {
+            throw new IllegalStateException("Not on a start tag, event: " + myEvent);
+        }
+    }
+
+    private int attr(int index)
+    {
+        checkStart();
+        if ( index < 0 || index >= myAttrCount ) {
+            throw new IndexOutOfBoundsException("Attribute index: " + index + ", count: " + myAttrCount);
+        }
+        return index * ATTR_SIZE;
+    }
+
+    private void checkText()
+    {
+        if ( myEvent != XMLStreamConstants.CHARACTERS ) {
+            throw new IllegalStateException("Not on a text event, event: " + myEvent);
+        }
+    }
+
+    private void clearText()
+    {
+        myString = null;
+        myChars = null;
+        myStart = 0;
+        myLength = 0;
+    }
+
+    private static String nonNull(String s)
+    {
+        return s == null ? "" : s;
+    }
+
+    private static String nullIfEmpty(String s)
+    {
+        return s == null || s.isEmpty() ? null : s;
+    }
+
+    /**
+     * An element open on the current path, with its namespace declarations.
+     */
+    private static final class Frame
+    {
+        public Frame(String ns, String local, String prefix)
+        {
+            this.ns = ns;
+            this.local = local;
+            this.prefix = prefix;
+        }
+        public final String ns;
+        public final String local;
+        public final String prefix;
+        public final List<String> prefixes = new ArrayList<String>();
+        public final List<String> uris = new ArrayList<String>();
+    }
+
+    /** The number of strings for each attribute: ns, local name, prefix and value. */
+    private static final int ATTR_SIZE = 4;
+
+    private int myEvent = XMLStreamConstants.START_DOCUMENT;
+    private final List<Frame> myFrames = new ArrayList<Frame>();
+    private String[] myAttrs = new String[8 * ATTR_SIZE];
+    private int myAttrCount = 0;
+    // the text, either as a string, or as a range of characters
+    private String myString = null;
+    private char[] myChars = null;
+    private int myStart = 0;
+    private int myLength = 0;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,198 @@
+/****************************************************************************/
+/*  File:       Vocabulary.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+
+/**
+ * The declaration of the structure of an XML vocabulary.
+ *
+ * For each element of the vocabulary, a rule declares which children
+ * elements are allowed, and which attributes are required or optional.  The
+ * attributes are in no namespace.  Once all the rules have been added, the
+ * vocabulary is compiled with {@link #compile()} into a validator, which can
+ * check whole trees.
+ *
+ * The namespaces of the elements declared in a vocabulary are the
+ * namespaces of the vocabulary.  No attribute is allowed in any of them.  A
+ * rule can allow elements in other namespaces (extension elements), except
+ * in no namespace: they are then ignored, with their content.
+ *
+ * A vocabulary must not be changed once compiled.
+ *
+ * @author agent
+ */
+public class Vocabulary
+{
+    /**
+     * Add the rule for an element.
+     *
+     * @param ns The namespace URI of the element, the empty string for no
+     * namespace.
+     *
+     * @param local The local name of the element.
+     *
+     * @return The new rule, to declare the content of the element.
+     */
+    public Rule addElement(String ns, String local)
+    {
+        QName name = new QName(ns, local);
+        for ( Rule r : myRules ) {
+            if ( r.getName().equals(name) ) {
+                throw new IllegalArgumentException("Element already declared: " + name);
+            }
+        }
+        Rule rule = new Rule(name);
+        myRules.add(rule);
+        myNamespaces.add(ns);
+        return rule;
+    }
+
+    /**
+     * Compile the vocabulary into a validator.
+     *
+     * @return The validator.
+     *
+     * @throws ToolsException If a rule allows a child which is not declared.
+     */
+    public VocabularyValidator compile()
+            throws ToolsException
+    {
+        return new VocabularyValidator(this);
+    }
+
+    List<Rule> getRules()
+    {
+        return Collections.unmodifiableList(myRules);
+    }
+
+    Set<String> getNamespaces()
+    {
+        return Collections.unmodifiableSet(myNamespaces);
+    }
+
+    /**
+     * The rule for one element of a vocabulary.
+     */
+    public static class Rule
+    {
+        private Rule(QName name)
+        {
+            myName = name;
+        }
+
+        /**
+         * Return the name of the element.
+         *
+         * @return The name of the element.
+         */
+        public QName getName()
+        {
+            return myName;
+        }
+
+        /**
+         * Allow children elements.
+         *
+         * @param names The names of the children to allow.  They must be
+         * declared in the vocabulary as well, before it is compiled.
+         */
+        public void addChildren(QName... names)
+        {
+            Collections.addAll(myChildren, names);
+        }
+
+        /**
+         * Add required attributes.
+         *
+         * @param names The local names of the required attributes.
+         */
+        public void addRequiredAttributes(String... names)
+        {
+            Collections.addAll(myRequired, names);
+        }
+
+        /**
+         * Add optional attributes.
+         *
+         * @param names The local names of the optional attributes.
+         */
+        public void addOptionalAttributes(String... names)
+        {
+            Collections.addAll(myOptional, names);
+        }
+
+        /**
+         * Allow children elements in other namespaces than the vocabulary.
+         *
+         * @param allow Whether to allow extension elements (not in no namespace).
+         */
+        public void setAllowForeignChildren(boolean allow)
+        {
+            myForeign = allow;
+        }
+
+        Set<QName> getChildren()
+        {
+            return myChildren;
+        }
+
+        Set<String> getRequiredAttributes()
+        {
+            return myRequired;
+        }
+
+        Set<String> getOptionalAttributes()
+        {
+            return myOptional;
+        }
+
+        boolean isAllowForeignChildren()
+        {
+            return myForeign;
+        }
+
+        private final QName myName;
+        private final Set<QName> myChildren = new LinkedHashSet<QName>();
+        private final Set<String> myRequired = new LinkedHashSet<String>();
+        private final Set<String> myOptional = new LinkedHashSet<String>();
+        private boolean myForeign = false;
+    }
+
+    private final List<Rule> myRules = new ArrayList<Rule>();
+    private final Set<String> myNamespaces = new LinkedHashSet<String>();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
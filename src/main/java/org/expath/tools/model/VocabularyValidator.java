@@ -0,0 +1,228 @@
+/****************************************************************************/
+/*  File:       VocabularyValidator.java                                    */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+
+/**
+ * A compiled {@link Vocabulary}, to validate element trees.
+ *
+ * The element names of the vocabulary are indexed by name code, each rule
+ * has the set of its allowed children as a bitset over the rules, and its
+ * attributes as an index of name codes (the required ones first).  A tree is
+ * checked in one depth-first pass, each attribute and each element being
+ * checked once, and the validation stops on the first violation.  The walk
+ * uses an explicit stack, not recursion, as trees can be deep.
+ *
+ * A validator is immutable, so it can be shared freely by several threads.
+ *
+ * @author agent
+ */
+public final class VocabularyValidator
+{
+    VocabularyValidator(Vocabulary vocabulary)
+            throws ToolsException
+    {
+        List<Vocabulary.Rule> rules = vocabulary.getRules();
+        int[] codes = new int[rules.size()];
+        for ( int i = 0; i < codes.length; ++i ) {
+            QName name = rules.get(i).getName();
+            codes[i] = POOL.allocate(name.getNamespaceURI(), name.getLocalPart());
+        }
+        myElements = new ChildIndex(codes);
+        myRules = new Compiled[codes.length];
+        for ( int i = 0; i < codes.length; ++i ) {
+            myRules[i] = compile(rules.get(i));
+        }
+        myNamespaces = new HashSet<String>(vocabulary.getNamespaces());
+    }
+
+    /**
+     * Validate a tree.
+     *
+     * @param root The root of the tree to validate.  It must be an element
+     * declared in the vocabulary.
+     *
+     * @throws ToolsException If the tree is not valid.
+     */
+    public void validate(Element root)
+            throws ToolsException
+    {
+        int rule = myElements.first(root.getNameCode());
+        if ( rule < 0 ) {
+            throw new ToolsException("Element not declared in the vocabulary: " + root.getDisplayName());
+        }
+        checkAttributes(root, rule);
+        // the elements being checked, with the iterators over their children
+        Deque<Frame> stack = new ArrayDeque<Frame>();
+        stack.push(new Frame(root, rule));
+        while ( ! stack.isEmpty() ) {
+            Frame top = stack.peek();
+            if ( ! top.children.hasNext() ) {
+                stack.pop();
+                continue;
+            }
+            Element child = top.children.next();
+            Compiled parent = myRules[top.rule];
+            int c = myElements.first(child.getNameCode());
+            if ( c >= 0 && parent.children.get(c) ) {
+                checkAttributes(child, c);
+                stack.push(new Frame(child, c));
+            }
+            else if ( ! parent.foreign || isVocabulary(child.getNamespaceUri()) ) {
+                throw new ToolsException("Element " + child.getDisplayName() + " not allowed in " + top.elem.getDisplayName());
+            }
+        }
+    }
+
+    private void checkAttributes(Element elem, int index)
+            throws ToolsException
+    {
+        Compiled rule = myRules[index];
+        int seen = 0;
+        for ( Attribute a : elem.attributes() ) {
+            String ns = a.getNamespaceUri();
+            if ( ns.isEmpty() ) {
+                // NO_CODE if not in the pool, then not declared
+                int slot = rule.attributes.first(a.getNameCode());
+                if ( slot < 0 ) {
+                    throw new ToolsException("@" + a.getLocalName() + " not allowed on " + elem.getDisplayName());
+                }
+                if ( slot < rule.required ) {
+                    ++seen;
+                }
+            }
+            else if ( myNamespaces.contains(ns) ) {
+                throw new ToolsException("@{" + ns + "}" + a.getLocalName() + " not allowed on " + elem.getDisplayName());
+            }
+        }
+        if ( seen < rule.required ) {
+            throw new ToolsException("@" + missing(elem, rule) + " required on " + elem.getDisplayName());
+        }
+    }
+
+    /**
+     * Whether a namespace is in the vocabulary, or is no namespace.
+     */
+    private boolean isVocabulary(String ns)
+    {
+        return ns.isEmpty() || myNamespaces.contains(ns);
+    }
+
+    /**
+     * Return the name of the first missing required attribute (in error cases only).
+     */
+    private static String missing(Element elem, Compiled rule)
+    {
+        BitSet present = new BitSet(rule.required);
+        for ( Attribute a : elem.attributes() ) {
+            int slot = rule.attributes.first(a.getNameCode());
+            if ( slot >= 0 && slot < rule.required ) {
+                present.set(slot);
+            }
+        }
+        return POOL.getLocalName(rule.attributes.getCode(present.nextClearBit(0)));
+    }
+
+    private Compiled compile(Vocabulary.Rule rule)
+            throws ToolsException
+    {
+        BitSet children = new BitSet(myRules.length);
+        for ( QName c : rule.getChildren() ) {
+            int index = myElements.first(POOL.allocate(c.getNamespaceURI(), c.getLocalPart()));
+            if ( index < 0 ) {
+                throw new ToolsException("Child " + c + " of " + rule.getName() + " not declared in the vocabulary");
+            }
+            children.set(index);
+        }
+        List<String> names = new ArrayList<String>(rule.getRequiredAttributes());
+        Set<String> optional = new HashSet<String>(rule.getOptionalAttributes());
+        optional.removeAll(names);
+        names.addAll(optional);
+        int[] codes = new int[names.size()];
+        for ( int i = 0; i < codes.length; ++i ) {
+            codes[i] = POOL.allocate("", names.get(i));
+        }
+        return new Compiled(children, new ChildIndex(codes), rule.getRequiredAttributes().size(), rule.isAllowForeignChildren());
+    }
+
+    /**
+     * An element on the stack of the walk, with its rule and its children.
+     */
+    private static final class Frame
+    {
+        public Frame(Element elem, int rule)
+        {
+            this.elem = elem;
+            this.rule = rule;
+            this.children = elem.children().iterator();
+        }
+        public final Element elem;
+        public final int rule;
+        public final Iterator<Element> children;
+    }
+
+    /**
+     * A compiled rule.
+     */
+    private static final class Compiled
+    {
+        public Compiled(BitSet children, ChildIndex attributes, int required, boolean foreign)
+        {
+            this.children = children;
+            this.attributes = attributes;
+            this.required = required;
+            this.foreign = foreign;
+        }
+        // the rules of the allowed children
+        public final BitSet children;
+        // the attributes, the required ones first
+        public final ChildIndex attributes;
+        public final int required;
+        public final boolean foreign;
+    }
+
+    // the index of the rules, by element name code
+    private final ChildIndex myElements;
+    private final Compiled[] myRules;
+    private final Set<String> myNamespaces;
+
+    private static final NamePool POOL = NamePool.getDefault();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,100 @@
+/****************************************************************************/
+/*  File:       ByteBufferInputStream.java                                  */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream reading the remaining bytes of a buffer.
+ *
+ * The buffer is duplicated, so reading from the stream does not change the
+ * position of the original buffer.  This allows to parse the content of a
+ * heap or a memory-mapped buffer without copying it into an array first.
+ *
+ * @author agent
+ */
+class ByteBufferInputStream
+        extends InputStream
+{
+    public ByteBufferInputStream(ByteBuffer buffer)
+    {
+        myBuffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        if ( ! myBuffer.hasRemaining() ) {
+            return -1;
+        }
+        return myBuffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+            throws IOException
+    {
+        if ( len == 0 ) {
+            return 0;
+        }
+        int remaining = myBuffer.remaining();
+        if ( remaining == 0 ) {
+            return -1;
+        }
+        int n = Math.min(len, remaining);
+        myBuffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n)
+            throws IOException
+    {
+        if ( n <= 0 ) {
+            return 0;
+        }
+        int skipped = (int) Math.min(n, myBuffer.remaining());
+        myBuffer.position(myBuffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available()
+            throws IOException
+    {
+        return myBuffer.remaining();
+    }
+
+    private final ByteBuffer myBuffer;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,163 @@
+/****************************************************************************/
+/*  File:       ByteSource.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Random access to a large, read-only sequence of bytes.
+ *
+ * The bytes are stored in one or several buffers (files larger than 2 GB are
+ * mapped in several regions), and are addressed by a {@code long} position.
+ * Reading from a byte source never changes the state of the buffers, so it
+ * can be read from several threads at the same time.
+ *
+ * @author agent
+ */
+class ByteSource
+{
+    private ByteSource(ByteBuffer[] regions, int shift, long size)
+    {
+        myRegions = regions;
+        myShift = shift;
+        myMask = (1L << shift) - 1;
+        mySize = size;
+    }
+
+    /**
+     * Wrap the remaining bytes of a buffer.
+     */
+    public static ByteSource wrap(ByteBuffer buffer)
+    {
+        ByteBuffer[] regions = { buffer.slice() };
+        return new ByteSource(regions, 31, regions[0].remaining());
+    }
+
+    /**
+     * Memory-map a file, in regions of 1 GB.
+     */
+    public static ByteSource map(Path file)
+            throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+            long size = channel.size();
+            int count = (int) ((size + REGION_SIZE - 1) / REGION_SIZE);
+            ByteBuffer[] regions = new ByteBuffer[count];
+            for ( int i = 0; i < count; ++i ) {
+                long start = i * REGION_SIZE;
+                long length = Math.min(REGION_SIZE, size - start);
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            return new ByteSource(regions, REGION_BITS, size);
+        }
+    }
+
+    public long size()
+    {
+        return mySize;
+    }
+
+    /**
+     * Return the byte at {@code pos}, or -1 if {@code pos} is past the end.
+     */
+    public int get(long pos)
+    {
+        if ( pos >= mySize ) {
+            return -1;
+        }
+        return myRegions[(int) (pos >>> myShift)].get((int) (pos & myMask)) & 0xFF;
+    }
+
+    /**
+     * Return true if the bytes at {@code pos} are equal to {@code pattern}.
+     */
+    public boolean startsWith(long pos, byte[] pattern)
+    {
+        for ( int i = 0; i < pattern.length; ++i ) {
+            if ( get(pos + i) != (pattern[i] & 0xFF) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy the bytes between {@code from} (inclusive) and {@code to} (exclusive).
+     */
+    public byte[] copy(long from, long to)
+    {
+        byte[] result = new byte[(int) (to - from)];
+        for ( int i = 0; i < result.length; ++i ) {
+            result[i] = (byte) get(from + i);
+        }
+        return result;
+    }
+
+    /**
+     * Open a stream on the bytes between {@code from} (inclusive) and {@code to}
+     * (exclusive), without copying them.
+     */
+    public InputStream stream(long from, long to)
+    {
+        List<InputStream> streams = new ArrayList<InputStream>();
+        long pos = from;
+        while ( pos < to ) {
+            int index = (int) (pos >>> myShift);
+            long region_end = Math.min(to, ((long) index + 1) << myShift);
+            ByteBuffer slice = myRegions[index].duplicate();
+            slice.limit((int) ((region_end - 1) & myMask) + 1);
+            slice.position((int) (pos & myMask));
+            streams.add(new ByteBufferInputStream(slice));
+            pos = region_end;
+        }
+        if ( streams.size() == 1 ) {
+            return streams.get(0);
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    private final ByteBuffer[] myRegions;
+    private final int myShift;
+    private final long myMask;
+    private final long mySize;
+
+    private static final int REGION_BITS = 30;
+    private static final long REGION_SIZE = 1L << REGION_BITS;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
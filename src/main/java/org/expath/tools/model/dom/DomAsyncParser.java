@@ -0,0 +1,216 @@
+/****************************************************************************/
+/*  File:       DomAsyncParser.java                                         */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+
+/**
+ * Parse documents asynchronously, off the calling thread.
+ *
+ * The documents are parsed by a {@link DomParser} on an executor.  The number
+ * of pending parses (queued or running) is bounded: when the limit is reached,
+ * the returned future fails immediately with a {@link ToolsException}, instead
+ * of letting the queue grow without limit.
+ *
+ * The executor can be any executor (including one creating a virtual thread
+ * per task), or a fixed pool of daemon threads owned by this object and shut
+ * down by {@link #close()}.
+ *
+ * @author agent
+ */
+public class DomAsyncParser
+        implements AutoCloseable
+{
+    /**
+     * Create an async parser with its own pool of threads.
+     *
+     * @param parser The parser to use.
+     *
+     * @param threads The number of threads parsing documents.
+     *
+     * @param capacity The maximum number of pending parses.
+     */
+    public DomAsyncParser(DomParser parser, int threads, int capacity)
+    {
+        this(parser, Executors.newFixedThreadPool(threads, new DaemonThreadFactory()), capacity, true);
+    }
+
+    /**
+     * Create an async parser using an existing executor.
+     *
+     * The executor is not shut down by {@link #close()}.
+     *
+     * @param parser The parser to use.
+     *
+     * @param executor The executor to run the parses on.
+     *
+     * @param capacity The maximum number of pending parses.
+     */
+    public DomAsyncParser(DomParser parser, Executor executor, int capacity)
+    {
+        this(parser, executor, capacity, false);
+    }
+
+    private DomAsyncParser(DomParser parser, Executor executor, int capacity, boolean owned)
+    {
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        myParser = parser;
+        myExecutor = executor;
+        myCapacity = capacity;
+        myPermits = new Semaphore(capacity);
+        myOwned = owned;
+    }
+
+    /**
+     * Parse a string asynchronously.
+     *
+     * @param xml The string containing the document to parse.
+     *
+     * @return The future root element of the document.
+     */
+    public CompletableFuture<Element> parse(final String xml)
+    {
+        return submit(new Task() {
+            @Override
+            public Element parse() throws ToolsException {
+                return myParser.parse(xml);
+            }
+        });
+    }
+
+    /**
+     * Parse an array of bytes asynchronously.
+     *
+     * @param bytes The encoded document to parse.
+     *
+     * @return The future root element of the document.
+     */
+    public CompletableFuture<Element> parse(final byte[] bytes)
+    {
+        return submit(new Task() {
+            @Override
+            public Element parse() throws ToolsException {
+                return myParser.parse(bytes);
+            }
+        });
+    }
+
+    /**
+     * Return the number of parses queued or running.
+     *
+     * @return The number of pending parses.
+     */
+    public int getPendingCount()
+    {
+        return myCapacity - myPermits.availablePermits();
+    }
+
+    /**
+     * Shut down the threads, if they are owned by this object.
+     *
+     * The parses already submitted are completed.
+     */
+    @Override
+    public void close()
+    {
+        if ( myOwned ) {
+            ((ExecutorService) myExecutor).shutdown();
+        }
+    }
+
+    private CompletableFuture<Element> submit(final Task task)
+    {
+        final CompletableFuture<Element> result = new CompletableFuture<Element>();
+        if ( ! myPermits.tryAcquire() ) {
+            result.completeExceptionally(new ToolsException(
+                    "Too many pending parses, the limit is " + myCapacity));
+            return result;
+        }
+        Runnable run = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(task.parse());
+                }
+                catch ( Throwable ex ) {
+                    result.completeExceptionally(ex);
+                }
+                finally {
+                    myPermits.release();
+                }
+            }
+        };
+        try {
+            myExecutor.execute(run);
+        }
+        catch ( RejectedExecutionException ex ) {
+            myPermits.release();
+            result.completeExceptionally(new ToolsException("The parse has been rejected by the executor", ex));
+        }
+        return result;
+    }
+
+    private interface Task
+    {
+        Element parse() throws ToolsException;
+    }
+
+    private static class DaemonThreadFactory
+            implements ThreadFactory
+    {
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread t = new Thread(r, "expath-dom-parser-" + COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+    }
+
+    private final DomParser myParser;
+    private final Executor myExecutor;
+    private final int myCapacity;
+    private final Semaphore myPermits;
+    private final boolean myOwned;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -10,7 +10,9 @@
 package org.expath.tools.model.dom;
 
 import org.expath.tools.ToolsException;
-import org.expath.tools.model.Attribute;
+import org.expath.tools.model.AbstractAttribute;
+import org.expath.tools.model.NamePool;
+import org.expath.tools.model.NamespaceBindings;
 import org.w3c.dom.Attr;
 
 /**
@@ -19,17 +21,25 @@ import org.w3c.dom.Attr;
  * @author Florent Georges
  */
 public class DomAttribute
-        implements Attribute
+        extends AbstractAttribute
 {
     public DomAttribute(Attr attr)
+    {
+        this(attr, null);
+    }
+
+    DomAttribute(Attr attr, DomElement owner)
     {
         myAttr = attr;
+        myOwner = owner;
     }
 
     @Override
     public String getLocalName()
     {
-        return myAttr.getName();
+        // getName() is the qualified name, for namespace-aware nodes
+        String local = myAttr.getLocalName();
+        return local == null ? myAttr.getName() : local;
     }
 
     @Override
@@ -40,33 +50,45 @@ public class DomAttribute
     }
 
     @Override
-    public String getValue()
+    public int getNameCode()
     {
-        return myAttr.getValue();
+        // racy single-check, like in DomElement: stored plus one, so the
+        // default 0 means "not computed", and NO_CODE is not cached
+        int code = myNameCode - 1;
+        if ( code < 0 ) {
+            code = NamePool.getDefault().getCode(getNamespaceUri(), getLocalName());
+            if ( code != NamePool.NO_CODE ) {
+                myNameCode = code + 1;
+            }
+        }
+        return code;
     }
 
     @Override
-    public boolean getBoolean()
-            throws ToolsException
+    public String getValue()
     {
-        String value = getValue();
-        if ( "1".equals(value) ) {
-            return true;
-        }
-        else {
-            return Boolean.parseBoolean(value);
-        }
+        return myAttr.getValue();
     }
 
     @Override
-    public int getInteger()
+    protected NamespaceBindings getNamespaceBindings()
             throws ToolsException
     {
-        String value = getValue();
-        return Integer.parseInt(value);
+        if ( myOwner != null ) {
+            return myOwner.getNamespaceBindings();
+        }
+        org.w3c.dom.Element owner = myAttr.getOwnerElement();
+        if ( owner == null ) {
+            throw new ToolsException("No owner element to resolve the QName: " + getValue());
+        }
+        return new DomElement(owner).getNamespaceBindings();
     }
 
     private final Attr myAttr;
+    // the wrapper of the owner element, if known
+    private final DomElement myOwner;
+    // the name code plus one, 0 if not computed yet
+    private int myNameCode;
 }
 
 
@@ -87,5 +109,5 @@ public class DomAttribute
 /*                                                                          */
 /*  The Initial Developer of the Original Code is Florent Georges.          */
 /*                                                                          */
-/*  Contributor(s): none.                                                   */
+/*  Contributor(s): agent.                                                  */
 /* ------------------------------------------------------------------------ */
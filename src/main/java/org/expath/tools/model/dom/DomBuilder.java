@@ -0,0 +1,315 @@
+/****************************************************************************/
+/*  File:       DomBuilder.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.XMLConstants;
+import org.expath.tools.model.ParseLimitChecker;
+import org.expath.tools.model.ParseLimitException;
+import org.expath.tools.model.ParseLimits;
+import org.expath.tools.model.Projection;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Build a DOM tree from SAX events, for a {@link DomParser} with options.
+ *
+ * The projection, the whitespace stripping and the limits of the parser are
+ * applied while receiving the events, so the nodes skipped or stripped are
+ * never added to the tree.  All the elements and text are passed to a {@link
+ * ParseLimitChecker} first, including the root element and the content of
+ * the skipped elements.  A violation of a limit is thrown as a {@link
+ * SAXException} wrapping a {@link ParseLimitException}.
+ *
+ * The tree is the same as the one built by a DOM parser: namespace
+ * declarations are kept as attributes, entities are expanded, and comments,
+ * processing instructions and CDATA sections are kept (except for the ones in
+ * the DTD, and no document type node is built).
+ *
+ * @author agent
+ */
+class DomBuilder
+        extends DefaultHandler
+        implements LexicalHandler
+{
+    public DomBuilder(DomParser parser, Document doc)
+    {
+        ParseLimits limits = parser.getLimits();
+        myParser = parser;
+        myDoc = doc;
+        myCurrent = doc;
+        myProjection = parser.getProjection();
+        myChecker = limits == null ? null : new ParseLimitChecker(limits);
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri)
+    {
+        ++myDeclared;
+        if ( mySkipped > 0 ) {
+            return;
+        }
+        myPendingNs.add(prefix);
+        myPendingNs.add(uri);
+    }
+
+    @Override
+    public void startElement(String uri, String local, String qname, Attributes attrs)
+            throws SAXException
+    {
+        int declared = myDeclared;
+        myDeclared = 0;
+        if ( myChecker != null ) {
+            try {
+                // count namespace declarations, they are attributes in DOM
+                myChecker.startElement(attrs.getLength() + declared);
+            }
+            catch ( ParseLimitException ex ) {
+                throw new SAXException(ex);
+            }
+        }
+        if ( mySkipped > 0 ) {
+            ++mySkipped;
+            return;
+        }
+        flushText();
+        int depth = myDepth + 1;
+        long state = 0;
+        if ( myProjection != null ) {
+            state = depth == 1
+                ? myProjection.rootState()
+                : myProjection.childState(myStates[myDepth - 1], depth, uri, local);
+            if ( state == 0 ) {
+                myPendingNs.clear();
+                mySkipped = 1;
+                return;
+            }
+        }
+        org.w3c.dom.Element elem = myDoc.createElementNS(uri.isEmpty() ? null : uri, qname);
+        for ( int i = 0; i < myPendingNs.size(); i += 2 ) {
+            String prefix = myPendingNs.get(i);
+            String name = prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+            elem.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, name, myPendingNs.get(i + 1));
+        }
+        myPendingNs.clear();
+        boolean preserve = myDepth > 0 && myPreserve[myDepth - 1];
+        for ( int i = 0; i < attrs.getLength(); ++i ) {
+            String attr_uri = attrs.getURI(i);
+            String value = attrs.getValue(i);
+            elem.setAttributeNS(attr_uri.isEmpty() ? null : attr_uri, attrs.getQName(i), value);
+            if ( XMLConstants.XML_NS_URI.equals(attr_uri) && "space".equals(attrs.getLocalName(i)) ) {
+                preserve = "preserve".equals(value);
+            }
+        }
+        myCurrent.appendChild(elem);
+        myCurrent = elem;
+        if ( myDepth == myStates.length ) {
+            myStates = Arrays.copyOf(myStates, 2 * myDepth);
+            myPreserve = Arrays.copyOf(myPreserve, 2 * myDepth);
+        }
+        myStates[myDepth] = state;
+        myPreserve[myDepth] = preserve;
+        ++myDepth;
+    }
+
+    @Override
+    public void endElement(String uri, String local, String qname)
+            throws SAXException
+    {
+        if ( myChecker != null ) {
+            myChecker.endElement();
+        }
+        if ( mySkipped > 0 ) {
+            --mySkipped;
+            return;
+        }
+        flushText();
+        myCurrent = myCurrent.getParentNode();
+        --myDepth;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+            throws SAXException
+    {
+        if ( myChecker != null ) {
+            try {
+                myChecker.text(length);
+            }
+            catch ( ParseLimitException ex ) {
+                throw new SAXException(ex);
+            }
+        }
+        if ( mySkipped > 0 || myDepth == 0 ) {
+            return;
+        }
+        myText.append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length)
+            throws SAXException
+    {
+        characters(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data)
+    {
+        if ( myInDtd ) {
+            return;
+        }
+        endText();
+        if ( mySkipped > 0 ) {
+            return;
+        }
+        flushText();
+        myCurrent.appendChild(myDoc.createProcessingInstruction(target, data));
+    }
+
+    @Override
+    public void comment(char[] ch, int start, int length)
+    {
+        if ( myInDtd ) {
+            return;
+        }
+        endText();
+        if ( mySkipped > 0 ) {
+            return;
+        }
+        flushText();
+        myCurrent.appendChild(myDoc.createComment(new String(ch, start, length)));
+    }
+
+    @Override
+    public void startCDATA()
+    {
+        endText();
+        if ( mySkipped > 0 ) {
+            return;
+        }
+        flushText();
+        myInCdata = true;
+    }
+
+    @Override
+    public void endCDATA()
+    {
+        endText();
+        if ( mySkipped > 0 ) {
+            return;
+        }
+        // CDATA sections are never stripped
+        myCurrent.appendChild(myDoc.createCDATASection(myText.toString()));
+        myText.setLength(0);
+        myInCdata = false;
+    }
+
+    @Override
+    public void startDTD(String name, String public_id, String system_id)
+    {
+        myInDtd = true;
+    }
+
+    @Override
+    public void endDTD()
+    {
+        myInDtd = false;
+    }
+
+    @Override
+    public void startEntity(String name)
+    {
+        // entities are expanded
+    }
+
+    @Override
+    public void endEntity(String name)
+    {
+        // entities are expanded
+    }
+
+    private void endText()
+    {
+        if ( myChecker != null ) {
+            myChecker.endText();
+        }
+    }
+
+    private void flushText()
+    {
+        if ( myText.length() == 0 || myInCdata ) {
+            return;
+        }
+        String text = myText.toString();
+        myText.setLength(0);
+        if ( myPreserve[myDepth - 1] || ! isWhitespace(text) || ! myParser.stripWhitespaceIn(myCurrent) ) {
+            myCurrent.appendChild(myDoc.createTextNode(text));
+        }
+    }
+
+    private static boolean isWhitespace(String text)
+    {
+        for ( int i = 0; i < text.length(); ++i ) {
+            char c = text.charAt(i);
+            if ( c != ' ' && c != '\n' && c != '\r' && c != '\t' ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final DomParser myParser;
+    private final Document myDoc;
+    private final Projection myProjection;
+    private final ParseLimitChecker myChecker;
+    // the element being built (or the document, before and after the root)
+    private Node myCurrent;
+    // the projection state and xml:space of the open elements
+    private long[] myStates = new long[16];
+    private boolean[] myPreserve = new boolean[16];
+    private int myDepth = 0;
+    // the depth within a skipped element, 0 if not in a skipped element
+    private int mySkipped = 0;
+    // the prefixes and URIs of the bindings stored for the next element
+    private final List<String> myPendingNs = new ArrayList<String>();
+    // the number of bindings declared for the next element, even if skipped
+    private int myDeclared = 0;
+    private final StringBuilder myText = new StringBuilder();
+    private boolean myInCdata = false;
+    private boolean myInDtd = false;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,100 @@
+/****************************************************************************/
+/*  File:       DomChildren.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.expath.tools.model.Element;
+
+/**
+ * A lazy view of the children elements of a {@link DomElement}.
+ *
+ * Nothing is computed when the view is created.  The iterator walks the
+ * chain of wrappers cached on the elements themselves, so iterating several
+ * times over the same children does not create any new wrapper.
+ *
+ * @author agent
+ */
+class DomChildren
+        implements Iterable<Element>
+{
+    /**
+     * Create a view of the children of {@code parent}.
+     *
+     * @param ns The namespace of the children to keep, or {@code null} for all.
+     */
+    public DomChildren(DomElement parent, String ns)
+    {
+        myParent = parent;
+        myNs = ns;
+    }
+
+    @Override
+    public Iterator<Element> iterator()
+    {
+        return new Iterator<Element>() {
+            @Override
+            public boolean hasNext() {
+                return myNext != null;
+            }
+            @Override
+            public Element next() {
+                DomElement next = myNext;
+                if ( next == null ) {
+                    throw new NoSuchElementException();
+                }
+                myNext = matching(next.nextSiblingElement());
+                return next;
+            }
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("DOM elements are read-only");
+            }
+            private DomElement myNext = matching(myParent.firstChildElement());
+        };
+    }
+
+    /**
+     * Return {@code elem} or its first following sibling in the namespace, if any.
+     */
+    private DomElement matching(DomElement elem)
+    {
+        if ( myNs != null ) {
+            while ( elem != null && ! myNs.equals(elem.getNamespaceUri()) ) {
+                elem = elem.nextSiblingElement();
+            }
+        }
+        return elem;
+    }
+
+    private final DomElement myParent;
+    private final String myNs;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -9,26 +9,33 @@
 
 package org.expath.tools.model.dom;
 
-import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamReader;
 import org.expath.tools.ToolsException;
 import org.expath.tools.model.Attribute;
+import org.expath.tools.model.AttributeChecker;
+import org.expath.tools.model.ChildIndex;
 import org.expath.tools.model.Element;
+import org.expath.tools.model.NamePool;
+import org.expath.tools.model.NamespaceBindings;
 import org.expath.tools.model.Sequence;
+import org.expath.tools.model.StructuralDigest;
+import org.expath.tools.model.TextValue;
 import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 /**
  * Trivial, in-memory implementation, for test purposes.
@@ -41,34 +48,48 @@ public class DomElement
     public static Element parseString(String xml)
             throws ToolsException
     {
-        try {
-            // the input source
-            Reader reader = new StringReader(xml);
-            InputSource source = new InputSource(reader);
-            // the DOM builder
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            // parse
-            Document doc = builder.parse(source);
-            // the root element
-            org.w3c.dom.Element root = doc.getDocumentElement();
-            return new DomElement(root);
-        }
-        catch ( ParserConfigurationException ex ) {
-            throw new ToolsException("Error instantiating the DOM parser", ex);
-        }
-        catch ( SAXException ex ) {
-            throw new ToolsException("Error parsing the XML string", ex);
-        }
-        catch ( IOException ex ) {
-            throw new ToolsException("Error parsing the XML string", ex);
-        }
+        return PARSER.parse(xml);
+    }
+
+    public static Element parseBytes(byte[] bytes)
+            throws ToolsException
+    {
+        return PARSER.parse(bytes);
+    }
+
+    public static Element parseBuffer(ByteBuffer buffer)
+            throws ToolsException
+    {
+        return PARSER.parse(buffer);
+    }
+
+    public static Element parseStream(InputStream in)
+            throws ToolsException
+    {
+        return PARSER.parse(in);
+    }
+
+    public static Element parseChannel(ReadableByteChannel channel)
+            throws ToolsException
+    {
+        return PARSER.parse(channel);
+    }
+
+    public static Element parseFile(Path file)
+            throws ToolsException
+    {
+        return PARSER.parse(file);
     }
 
     public DomElement(org.w3c.dom.Element elem)
+    {
+        this(elem, null);
+    }
+
+    private DomElement(org.w3c.dom.Element elem, DomElement parent)
     {
         myElem = elem;
+        myParent = parent;
     }
 
     @Override
@@ -84,6 +105,23 @@ public class DomElement
         return ns == null ? "" : ns;
     }
 
+    @Override
+    public int getNameCode()
+    {
+        // racy single-check: all threads compute the same code, stored plus
+        // one so the default 0 means "not computed" (a wrapper can be seen
+        // through a racy cache before its field initializers); NO_CODE is not
+        // cached, as the name can be added to the pool later
+        int code = myNameCode - 1;
+        if ( code < 0 ) {
+            code = NamePool.getDefault().getCode(getNamespaceUri(), getLocalName());
+            if ( code != NamePool.NO_CODE ) {
+                myNameCode = code + 1;
+            }
+        }
+        return code;
+    }
+
     @Override
     public String getDisplayName()
     {
@@ -97,14 +135,26 @@ public class DomElement
         return myElem.getAttribute(local_name);
     }
 
+    @Override
+    public String getAttribute(String ns, String local_name)
+    {
+        Attr attr = myElem.getAttributeNodeNS(ns.isEmpty() ? null : ns, local_name);
+        return attr == null ? null : attr.getValue();
+    }
+
     @Override
     public Iterable<Attribute> attributes()
     {
-        List<Attribute> attrs = new ArrayList<Attribute>();
-        NamedNodeMap map = myElem.getAttributes();
-        for ( int i = 0; i < map.getLength(); ++i ) {
-            Attr a = (Attr) map.item(i);
-            attrs.add(new DomAttribute(a));
+        // racy single-check: all threads build equivalent lists
+        List<Attribute> attrs = myAttributes;
+        if ( attrs == null ) {
+            NamedNodeMap map = myElem.getAttributes();
+            Attribute[] array = new Attribute[map.getLength()];
+            for ( int i = 0; i < array.length; ++i ) {
+                array[i] = new DomAttribute((Attr) map.item(i), this);
+            }
+            attrs = Collections.unmodifiableList(Arrays.asList(array));
+            myAttributes = attrs;
         }
         return attrs;
     }
@@ -112,85 +162,340 @@ public class DomElement
     @Override
     public boolean hasNoNsChild()
     {
-        throw new UnsupportedOperationException("Not supported yet.");
+        for ( DomElement c = firstChildElement(); c != null; c = c.nextSiblingElement() ) {
+            if ( c.getNamespaceUri().isEmpty() ) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public Iterable<Element> children()
     {
-        List<Element> children = new ArrayList<Element>();
-        NodeList list = myElem.getChildNodes();
-        for ( int i = 0; i < list.getLength(); ++i ) {
-            Node n = list.item(i);
-            if ( n.getNodeType() == Node.ELEMENT_NODE ) {
-                org.w3c.dom.Element e = (org.w3c.dom.Element) n;
-                children.add(new DomElement(e));
-            }
-        }
-        return children;
+        return new DomChildren(this, null);
     }
 
     @Override
     public Iterable<Element> children(String ns)
     {
-        List<Element> children = new ArrayList<Element>();
-        NodeList list = myElem.getChildNodes();
-        for ( int i = 0; i < list.getLength(); ++i ) {
-            Node n = list.item(i);
-            if ( n.getNodeType() == Node.ELEMENT_NODE && ns.equals(n.getNamespaceURI()) ) {
-                org.w3c.dom.Element e = (org.w3c.dom.Element) n;
-                children.add(new DomElement(e));
+        return new DomChildren(this, ns);
+    }
+
+    @Override
+    public Element child(String ns, String local)
+    {
+        Children index = index();
+        int pos = index.find(index.names.first(key(ns, local)), ns, local);
+        return pos < 0 ? null : index.elements[pos];
+    }
+
+    @Override
+    public Iterable<Element> children(final String ns, final String local)
+    {
+        final Children index = index();
+        final int first = index.find(index.names.first(key(ns, local)), ns, local);
+        return new Iterable<Element>() {
+            @Override
+            public Iterator<Element> iterator() {
+                return new Iterator<Element>() {
+                    @Override
+                    public boolean hasNext() {
+                        return myPos >= 0;
+                    }
+                    @Override
+                    public Element next() {
+                        if ( myPos < 0 ) {
+                            throw new NoSuchElementException();
+                        }
+                        DomElement next = index.elements[myPos];
+                        myPos = index.find(index.names.next(myPos), ns, local);
+                        return next;
+                    }
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("DOM elements are read-only");
+                    }
+                    private int myPos = first;
+                };
             }
-        }
-        return children;
+        };
+    }
+
+    @Override
+    public int childCount()
+    {
+        return index().elements.length;
     }
 
     @Override
     public void noOtherNCNameAttribute(String[] names, String[] forbidden_ns)
             throws ToolsException
     {
-        throw new UnsupportedOperationException("Not supported yet.");
+        AttributeChecker.forArrays(names, forbidden_ns).check(this);
     }
 
     @Override
     public Sequence getContent()
     {
-        NodeList children = myElem.getChildNodes();
+        NodeList children = new DomNodeList(myElem);
         return new DomSequence(children);
     }
 
+    @Override
+    public CharSequence getStringValue()
+    {
+        // the data of the text nodes, in document order (not recursive, trees can be deep)
+        List<CharSequence> chunks = new ArrayList<CharSequence>();
+        Node n = myElem.getFirstChild();
+        while ( n != null ) {
+            short type = n.getNodeType();
+            if ( type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE ) {
+                chunks.add(n.getNodeValue());
+            }
+            if ( type == Node.ELEMENT_NODE && n.getFirstChild() != null ) {
+                n = n.getFirstChild();
+            }
+            else {
+                while ( n != myElem && n.getNextSibling() == null ) {
+                    n = n.getParentNode();
+                }
+                n = n == myElem ? null : n.getNextSibling();
+            }
+        }
+        return TextValue.of(chunks);
+    }
+
+    @Override
+    public XMLStreamReader openStreamReader()
+    {
+        return new DomStreamReader(this);
+    }
+
+    /**
+     * Return the structural digest of the element, memoized in this wrapper.
+     */
+    @Override
+    public long getDigest()
+            throws ToolsException
+    {
+        // racy but benign, a Long is immutable
+        Long digest = myDigest;
+        if ( digest == null ) {
+            digest = StructuralDigest.compute(this);
+            myDigest = digest;
+        }
+        return digest;
+    }
+
     @Override
     public QName parseQName(String value)
             throws ToolsException
     {
-        int colon = value.indexOf(':');
-        // ':' not found
-        if ( colon < 0 ) {
-            String ns = myElem.lookupNamespaceURI(null);
-            // no default namespace
-            if ( ns == null ) {
-                return new QName(value);
+        return getNamespaceBindings().parseQName(value);
+    }
+
+    @Override
+    public List<QName> parseQNames(CharSequence value)
+            throws ToolsException
+    {
+        return getNamespaceBindings().parseQNames(value);
+    }
+
+    /**
+     * Return the namespace bindings in scope on this element.
+     *
+     * The snapshot is computed once, from the snapshot of the parent wrapper
+     * when the element has been reached from it, and cached like the wrappers.
+     *
+     * @return The bindings in scope.
+     */
+    public NamespaceBindings getNamespaceBindings()
+    {
+        NamespaceBindings bindings = myBindings;
+        if ( bindings == null ) {
+            if ( myParent != null ) {
+                bindings = declare(myParent.getNamespaceBindings(), myElem);
             }
             else {
-                return new QName(ns, value);
+                List<org.w3c.dom.Element> ancestors = new ArrayList<org.w3c.dom.Element>();
+                for ( Node n = myElem; n != null && n.getNodeType() == Node.ELEMENT_NODE; n = n.getParentNode() ) {
+                    ancestors.add((org.w3c.dom.Element) n);
+                }
+                bindings = NamespaceBindings.EMPTY;
+                for ( int i = ancestors.size() - 1; i >= 0; --i ) {
+                    bindings = declare(bindings, ancestors.get(i));
+                }
             }
+            myBindings = bindings;
         }
-        // ':' found
-        else {
-            String prefix = value.substring(0, colon);
-            String ns = myElem.lookupNamespaceURI(prefix);
-            // no namespace for prefix
-            if ( ns == null ) {
-                throw new ToolsException("No namespace in scope for prefix of QName: " + value);
+        return bindings;
+    }
+
+    /**
+     * Add the namespace declarations on {@code elem} to {@code bindings}.
+     */
+    private static NamespaceBindings declare(NamespaceBindings bindings, org.w3c.dom.Element elem)
+    {
+        List<String> prefixes = new ArrayList<String>();
+        List<String> uris = new ArrayList<String>();
+        NamedNodeMap attrs = elem.getAttributes();
+        for ( int i = 0; i < attrs.getLength(); ++i ) {
+            Node attr = attrs.item(i);
+            if ( XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI()) ) {
+                String prefix = XMLConstants.XMLNS_ATTRIBUTE.equals(attr.getPrefix()) ? attr.getLocalName() : "";
+                prefixes.add(prefix);
+                uris.add(attr.getNodeValue());
             }
-            else {
-                String local = value.substring(colon + 1);
-                return new QName(ns, local);
+        }
+        // the name of the element binds its prefix, even without declaration
+        // (e.g. in a tree built without namespace declaration attributes)
+        String ns = elem.getNamespaceURI();
+        String prefix = elem.getPrefix() == null ? "" : elem.getPrefix();
+        if ( ns != null && ! prefixes.contains(prefix) && ! ns.equals(bindings.getNamespaceUri(prefix)) ) {
+            prefixes.add(prefix);
+            uris.add(ns);
+        }
+        if ( prefixes.isEmpty() ) {
+            return bindings;
+        }
+        return bindings.extend(prefixes.toArray(new String[prefixes.size()]), uris.toArray(new String[uris.size()]));
+    }
+
+    /**
+     * Return the index of the children, built on first use.
+     *
+     * The index uses the cached wrappers, and is cached the same way as them.
+     * It is keyed by a hash of the names, not by codes in the name pool, as
+     * the names of a document are not added to the pool.  Different names can
+     * have the same key, so the names of the children found are checked.
+     */
+    private Children index()
+    {
+        Children index = myIndex;
+        if ( index == null ) {
+            List<DomElement> list = new ArrayList<DomElement>();
+            for ( DomElement c = firstChildElement(); c != null; c = c.nextSiblingElement() ) {
+                list.add(c);
+            }
+            DomElement[] elements = list.toArray(new DomElement[list.size()]);
+            int[] codes = new int[elements.length];
+            for ( int i = 0; i < codes.length; ++i ) {
+                codes[i] = key(elements[i].getNamespaceUri(), elements[i].getLocalName());
+            }
+            index = new Children(elements, new ChildIndex(codes));
+            myIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * The children wrappers of an element, and their index by name.
+     */
+    private static final class Children
+    {
+        public Children(DomElement[] elements, ChildIndex names)
+        {
+            this.elements = elements;
+            this.names = names;
+        }
+        /**
+         * Return the first position from {@code pos} on its chain with the name, or -1.
+         */
+        public int find(int pos, String ns, String local)
+        {
+            int p = pos;
+            while ( p >= 0 && ! ( elements[p].getLocalName().equals(local)
+                                    && elements[p].getNamespaceUri().equals(ns) ) ) {
+                p = names.next(p);
+            }
+            return p;
+        }
+        public final DomElement[] elements;
+        public final ChildIndex names;
+    }
+
+    /**
+     * The key of a name in the index of the children, a non-negative hash.
+     */
+    private static int key(String ns, String local)
+    {
+        return (ns.hashCode() * 31 + local.hashCode()) & 0x7FFFFFFF;
+    }
+
+    org.w3c.dom.Element getUnderlyingElement()
+    {
+        return myElem;
+    }
+
+    /**
+     * Return the wrapper of the first child element, or {@code null}.
+     *
+     * The wrapper is created the first time, then cached.  The cache is racy
+     * but benign: the wrappers are immutable (but for their own caches), so if
+     * several threads create one at the same time, they are equivalent.
+     */
+    DomElement firstChildElement()
+    {
+        DomElement first = myFirstChild;
+        if ( first == null ) {
+            first = wrapFrom(myElem.getFirstChild(), this);
+            myFirstChild = first;
+        }
+        return first == NONE ? null : first;
+    }
+
+    /**
+     * Return the wrapper of the next sibling element, or {@code null}.
+     *
+     * Cached the same way as {@link #firstChildElement()}.
+     */
+    DomElement nextSiblingElement()
+    {
+        DomElement next = myNextSibling;
+        if ( next == null ) {
+            next = wrapFrom(myElem.getNextSibling(), myParent);
+            myNextSibling = next;
+        }
+        return next == NONE ? null : next;
+    }
+
+    /**
+     * Wrap the first element from {@code node} on the sibling axis, or return NONE.
+     */
+    private static DomElement wrapFrom(Node node, DomElement parent)
+    {
+        // use the sibling axis, not the NodeList cache, so shared trees can be
+        // read from several threads
+        for ( Node n = node; n != null; n = n.getNextSibling() ) {
+            if ( n.getNodeType() == Node.ELEMENT_NODE ) {
+                return new DomElement((org.w3c.dom.Element) n, parent);
             }
         }
+        return NONE;
     }
 
     private final org.w3c.dom.Element myElem;
+    // the wrapper this one has been reached from, if any
+    private final DomElement myParent;
+    // The caches below are racy single-checks, without volatile.  They are
+    // safe because they only hold objects which are safely published by
+    // their final fields (the wrappers, unmodifiable lists, NamespaceBindings,
+    // Children, Long), and their default values mean "not computed yet".
+    // lazily created wrappers, NONE when there is none
+    private DomElement myFirstChild;
+    private DomElement myNextSibling;
+    private List<Attribute> myAttributes;
+    // the name code plus one, 0 if not computed yet
+    private int myNameCode;
+    private NamespaceBindings myBindings;
+    private Children myIndex;
+    private Long myDigest;
+
+    /** Marker for "no such element", to cache negative results. */
+    private static final DomElement NONE = new DomElement(null);
+
+    private static final DomParser PARSER = new DomParser();
 }
 
 
@@ -211,5 +516,5 @@ public class DomElement
 /*                                                                          */
 /*  The Initial Developer of the Original Code is Florent Georges.          */
 /*                                                                          */
-/*  Contributor(s): none.                                                   */
+/*  Contributor(s): agent.                                                  */
 /* ------------------------------------------------------------------------ */
@@ -0,0 +1,70 @@
+/****************************************************************************/
+/*  File:       DomNodeList.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * A snapshot of the children of a node.
+ *
+ * Contrary to the live list returned by {@link Node#getChildNodes()}, which
+ * maintains a cache within the document, this list can be read from several
+ * threads at the same time.
+ *
+ * @author agent
+ */
+class DomNodeList
+        implements NodeList
+{
+    public DomNodeList(Node parent)
+    {
+        for ( Node n = parent.getFirstChild(); n != null; n = n.getNextSibling() ) {
+            myNodes.add(n);
+        }
+    }
+
+    @Override
+    public Node item(int index)
+    {
+        return index < 0 || index >= myNodes.size() ? null : myNodes.get(index);
+    }
+
+    @Override
+    public int getLength()
+    {
+        return myNodes.size();
+    }
+
+    private final List<Node> myNodes = new ArrayList<Node>();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,334 @@
+/****************************************************************************/
+/*  File:       DomParseCache.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.expath.tools.model.Element;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * A cache of parsed elements, keyed by the content of their input.
+ *
+ * When the same document is parsed again and again, a copy of the tree parsed
+ * the first time is returned instead.  The inputs are identified by a 64-bit hash
+ * of their content, and then compared with the content of the cached entry,
+ * so a hash collision can never return the wrong element.
+ *
+ * The cache is bounded by the estimated size of the cached entries (both the
+ * input and the DOM tree), and the least recently used entries are evicted
+ * first.
+ *
+ * A DOM tree is mutable, and is not safe to be read by several threads at
+ * once, so the cache keeps its own tree for each entry, which is never handed
+ * out.  Each hit returns a new deep copy of it, owned by the caller, which
+ * can then use it freely (including through {@link
+ * DomElement#getUnderlyingElement()}).  Copying a tree is still much cheaper
+ * than decoding and parsing the input again.
+ *
+ * A cache must not be shared between parsers using different options, as
+ * they would parse the same input into different trees.
+ *
+ * @author agent
+ */
+public class DomParseCache
+{
+    /**
+     * Create a new cache.
+     *
+     * @param max_size The maximum total estimated size of the entries, in bytes.
+     */
+    public DomParseCache(long max_size)
+    {
+        if ( max_size <= 0 ) {
+            throw new IllegalArgumentException("The maximum size must be positive: " + max_size);
+        }
+        myMaxSize = max_size;
+    }
+
+    /**
+     * Return the maximum total estimated size of the entries, in bytes.
+     *
+     * @return The maximum size of the cache.
+     */
+    public long getMaxSize()
+    {
+        return myMaxSize;
+    }
+
+    /**
+     * Return the current total estimated size of the entries, in bytes.
+     *
+     * @return The size of the cache.
+     */
+    public synchronized long getSize()
+    {
+        return mySize;
+    }
+
+    /**
+     * Return the number of entries currently in the cache.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int getEntryCount()
+    {
+        return myEntries.size();
+    }
+
+    /**
+     * Return how many times an element has been found in the cache.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return myHits;
+    }
+
+    /**
+     * Return how many times an element has not been found in the cache.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return myMisses;
+    }
+
+    /**
+     * Return how many entries have been evicted from the cache.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return myEvictions;
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public synchronized void clear()
+    {
+        myEntries.clear();
+        mySize = 0;
+    }
+
+    Element get(String xml)
+    {
+        return get(hash(xml), xml, null);
+    }
+
+    Element get(ByteBuffer bytes)
+    {
+        return get(hash(bytes), null, bytes);
+    }
+
+    void put(String xml, Element elem)
+    {
+        put(hash(xml), xml, elem, 2L * xml.length());
+    }
+
+    void put(ByteBuffer bytes, Element elem)
+    {
+        byte[] copy = new byte[bytes.remaining()];
+        bytes.duplicate().get(copy);
+        put(hash(bytes), copy, elem, copy.length);
+    }
+
+    private Element get(long hash, String xml, ByteBuffer bytes)
+    {
+        Entry entry;
+        synchronized ( this ) {
+            entry = myEntries.get(hash);
+            if ( entry == null || ! (xml != null ? xml.equals(entry.input) : sameBytes(bytes, entry.input)) ) {
+                ++myMisses;
+                return null;
+            }
+            ++myHits;
+        }
+        // copy outside of the cache lock, one copy at a time of the same tree
+        Document copy;
+        synchronized ( entry ) {
+            copy = (Document) entry.document.cloneNode(true);
+        }
+        return new DomElement(copy.getDocumentElement());
+    }
+
+    private void put(long hash, Object input, Element elem, long input_size)
+    {
+        org.w3c.dom.Element root = ((DomElement) elem).getUnderlyingElement();
+        long size = ENTRY_SIZE + input_size + estimateSize(root);
+        if ( size > myMaxSize ) {
+            return;
+        }
+        // the caller keeps the parsed tree, the cache keeps its own copy
+        Document copy = (Document) root.getOwnerDocument().cloneNode(true);
+        synchronized ( this ) {
+            Entry old = myEntries.put(hash, new Entry(input, copy, size));
+            if ( old != null ) {
+                mySize -= old.size;
+            }
+            mySize += size;
+            Iterator<Entry> it = myEntries.values().iterator();
+            while ( mySize > myMaxSize && it.hasNext() ) {
+                mySize -= it.next().size;
+                it.remove();
+                ++myEvictions;
+            }
+        }
+    }
+
+    private static boolean sameBytes(ByteBuffer bytes, Object input)
+    {
+        return input instanceof byte[] && ByteBuffer.wrap((byte[]) input).equals(bytes);
+    }
+
+    /**
+     * Estimate the memory retained by a DOM tree, in bytes.
+     */
+    private static long estimateSize(Node root)
+    {
+        long size = 0;
+        Node node = root;
+        while ( node != null ) {
+            if ( node.getNodeType() == Node.ELEMENT_NODE ) {
+                size += ELEMENT_SIZE;
+                NamedNodeMap attrs = node.getAttributes();
+                for ( int i = 0; i < attrs.getLength(); ++i ) {
+                    size += ATTRIBUTE_SIZE + 2L * attrs.item(i).getNodeValue().length();
+                }
+            }
+            else {
+                String value = node.getNodeValue();
+                size += NODE_SIZE + (value == null ? 0 : 2L * value.length());
+            }
+            // next node in document order, within root
+            Node next = node.getFirstChild();
+            while ( next == null && node != root ) {
+                next = node.getNextSibling();
+                node = node.getParentNode();
+            }
+            node = next;
+        }
+        return size;
+    }
+
+    /**
+     * A 64-bit hash of the characters of a string.
+     */
+    static long hash(String xml)
+    {
+        long h = SEED ^ xml.length();
+        int i = 0;
+        for ( ; i + 4 <= xml.length(); i += 4 ) {
+            long word = xml.charAt(i)
+                | ((long) xml.charAt(i + 1) << 16)
+                | ((long) xml.charAt(i + 2) << 32)
+                | ((long) xml.charAt(i + 3) << 48);
+            h = mix(h, word);
+        }
+        for ( ; i < xml.length(); ++i ) {
+            h = mix(h, xml.charAt(i));
+        }
+        return finish(h);
+    }
+
+    /**
+     * A 64-bit hash of the remaining bytes of a buffer.
+     */
+    static long hash(ByteBuffer bytes)
+    {
+        ByteBuffer buf = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        long h = SEED ^ buf.remaining();
+        while ( buf.remaining() >= 8 ) {
+            h = mix(h, buf.getLong());
+        }
+        while ( buf.hasRemaining() ) {
+            h = mix(h, buf.get() & 0xFF);
+        }
+        return finish(h);
+    }
+
+    private static long mix(long h, long word)
+    {
+        h ^= Long.rotateLeft(word * PRIME_1, 31) * PRIME_2;
+        return Long.rotateLeft(h, 27) * PRIME_1 + PRIME_3;
+    }
+
+    private static long finish(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static class Entry
+    {
+        public Entry(Object input, Document document, long size)
+        {
+            this.input = input;
+            this.document = document;
+            this.size = size;
+        }
+        public final Object input;
+        // never handed out, only copied, when locked
+        public final Document document;
+        public final long size;
+    }
+
+    private final long myMaxSize;
+    private final Map<Long, Entry> myEntries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+    private long mySize = 0;
+    private long myHits = 0;
+    private long myMisses = 0;
+    private long myEvictions = 0;
+
+    // rough estimates of the memory used by each object, in bytes
+    private static final long ENTRY_SIZE = 128;
+    private static final long ELEMENT_SIZE = 96;
+    private static final long ATTRIBUTE_SIZE = 88;
+    private static final long NODE_SIZE = 64;
+
+    private static final long SEED = 0x27D4EB2F165667C5L;
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,699 @@
+/****************************************************************************/
+/*  File:       DomParser.java                                              */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.LimitedInputStream;
+import org.expath.tools.model.ParseLimitException;
+import org.expath.tools.model.ParseLimits;
+import org.expath.tools.model.Projection;
+import org.expath.tools.model.SaxParserPool;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.ls.LSException;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSParser;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Parse documents into {@link DomElement} objects.
+ *
+ * The parsers are borrowed from a {@link DomParserPool}, so the same object
+ * can be used concurrently by several threads.  When whitespace stripping, a
+ * projection or limits are set, the document is parsed instead with a SAX
+ * parser borrowed from the default {@link SaxParserPool}, and the tree is
+ * built from its events (see {@link DomBuilder}).
+ *
+ * Except for strings, the inputs are given to the parser as raw bytes, and
+ * the encoding is detected from the byte order mark or the XML declaration.
+ * They are never decoded into an intermediate string first.  Inputs compressed
+ * with gzip or zlib are decompressed on the fly (see {@link #setDecompress(boolean)}).
+ *
+ * The options must be set before the parser is used for the first time, and
+ * not changed while it is used by other threads.
+ *
+ * @author agent
+ */
+public class DomParser
+{
+    /**
+     * Create a parser using the default pool.
+     */
+    public DomParser()
+    {
+        this(null);
+    }
+
+    /**
+     * Create a parser using a specific pool.
+     *
+     * @param pool The pool to borrow parsers from, or {@code null} to use the
+     * default pool at the time of each parse.
+     */
+    public DomParser(DomParserPool pool)
+    {
+        myPool = pool;
+    }
+
+    /**
+     * Set whether to strip all whitespace-only text nodes.
+     *
+     * When set, whitespace-only text nodes are dropped while parsing, unless
+     * they are in the scope of {@code xml:space="preserve"}.  This does not
+     * apply to CDATA sections.
+     *
+     * @param strip {@code true} to strip whitespace everywhere in the document.
+     */
+    public void setStripWhitespace(boolean strip)
+    {
+        myStripAll = strip;
+    }
+
+    /**
+     * Return whether all whitespace-only text nodes are stripped.
+     *
+     * @return {@code true} if whitespace is stripped everywhere in the document.
+     */
+    public boolean isStripWhitespace()
+    {
+        return myStripAll;
+    }
+
+    /**
+     * Set the projection of the documents (by default the entire documents are kept).
+     *
+     * The elements outside of the projection are skipped while parsing, so the
+     * time and memory needed depend on the part of the documents actually used.
+     *
+     * @param projection The projection to apply, or {@code null} to keep the
+     * entire documents.
+     */
+    public void setProjection(Projection projection)
+    {
+        myProjection = projection;
+    }
+
+    /**
+     * Return the projection of the documents.
+     *
+     * @return The projection, or {@code null} if the entire documents are kept.
+     */
+    public Projection getProjection()
+    {
+        return myProjection;
+    }
+
+    /**
+     * Set the limits on the resources used to parse each document.
+     *
+     * When a limit is exceeded, the parse is stopped right away and a {@link
+     * ParseLimitException} is thrown.  The elements and text skipped by the
+     * projection or stripped are counted as well.  For a document given as a
+     * string, the limit on bytes applies to its number of characters.
+     *
+     * @param limits The limits to apply, or {@code null} for no limit.
+     */
+    public void setLimits(ParseLimits limits)
+    {
+        myLimits = limits;
+    }
+
+    /**
+     * Return the limits on the resources used to parse each document.
+     *
+     * @return The limits, or {@code null} if there is no limit.
+     */
+    public ParseLimits getLimits()
+    {
+        return myLimits;
+    }
+
+    /**
+     * Set the cache of parsed elements (by default there is no cache).
+     *
+     * The cache is used for the inputs given as strings, byte arrays or byte
+     * buffers.  When there is a cache, the same input is parsed only once, and
+     * each parse returns a new copy of the cached tree.  The elements in
+     * the cache depend on the options of the parser (whitespace stripping,
+     * projection, limits), so a cache must not be shared by differently configured
+     * parsers.
+     *
+     * @param cache The cache to use, or {@code null} to disable caching.
+     */
+    public void setCache(DomParseCache cache)
+    {
+        myCache = cache;
+    }
+
+    /**
+     * Return the cache of parsed elements.
+     *
+     * @return The cache, or {@code null} if there is no cache.
+     */
+    public DomParseCache getCache()
+    {
+        return myCache;
+    }
+
+    /**
+     * Set whether to detect and decompress compressed inputs (on by default).
+     *
+     * When set, inputs given as bytes are decompressed on the fly if they start
+     * with a gzip or a zlib ("deflate") header.  They are inflated while being
+     * parsed, without any intermediate buffer for the decompressed document.
+     * The inflaters are pooled.  This does not apply to strings.
+     *
+     * @param decompress {@code true} to decompress compressed inputs.
+     */
+    public void setDecompress(boolean decompress)
+    {
+        myDecompress = decompress;
+    }
+
+    /**
+     * Return whether compressed inputs are detected and decompressed.
+     *
+     * @return {@code true} if compressed inputs are decompressed.
+     */
+    public boolean isDecompress()
+    {
+        return myDecompress;
+    }
+
+    /**
+     * Strip the whitespace-only text nodes, children of specific elements.
+     *
+     * The whitespace-only text nodes which are children of an element with
+     * this name are dropped while parsing, unless they are in the scope of
+     * {@code xml:space="preserve"}.  This is not needed if whitespace is
+     * stripped everywhere (see {@link #setStripWhitespace(boolean)}).
+     *
+     * @param ns The namespace URI of the element, the empty string for no
+     * namespace.
+     *
+     * @param local The local name of the element.
+     */
+    public void addStripWhitespaceElement(String ns, String local)
+    {
+        Set<String> names = myStripElements.get(ns);
+        if ( names == null ) {
+            names = new HashSet<String>();
+            myStripElements.put(ns, names);
+        }
+        names.add(local);
+    }
+
+    /**
+     * Parse a string.
+     *
+     * @param xml The string containing the document to parse.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(String xml)
+            throws ToolsException
+    {
+        if ( myCache == null ) {
+            return parse(input(xml), "Error parsing the XML string");
+        }
+        Element elem = myCache.get(xml);
+        if ( elem == null ) {
+            elem = parse(input(xml), "Error parsing the XML string");
+            myCache.put(xml, elem);
+        }
+        return elem;
+    }
+
+    /**
+     * Parse an array of bytes.
+     *
+     * @param bytes The encoded document to parse.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(byte[] bytes)
+            throws ToolsException
+    {
+        return parse(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Parse the remaining bytes of a buffer.
+     *
+     * The position of the buffer is not changed.  The buffer can be a direct
+     * or a memory-mapped buffer, its content is not copied.
+     *
+     * @param buffer The encoded document to parse.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(ByteBuffer buffer)
+            throws ToolsException
+    {
+        if ( myCache == null ) {
+            return parse(new ByteBufferInputStream(buffer));
+        }
+        Element elem = myCache.get(buffer);
+        if ( elem == null ) {
+            elem = parse(new ByteBufferInputStream(buffer));
+            myCache.put(buffer, elem);
+        }
+        return elem;
+    }
+
+    /**
+     * Parse a stream of bytes.
+     *
+     * @param in The stream to read the encoded document from.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(InputStream in)
+            throws ToolsException
+    {
+        return parse(input(in), "Error parsing the XML document");
+    }
+
+    /**
+     * Parse the bytes read from a channel.
+     *
+     * @param channel The channel to read the encoded document from.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(ReadableByteChannel channel)
+            throws ToolsException
+    {
+        return parse(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Parse a file.
+     *
+     * The file is memory-mapped, so its content is not copied on the heap
+     * (except for files larger than 2 GB, which are read as a stream).  The
+     * URI of the file is used as the base URI of the document.
+     *
+     * @param file The file to parse.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error reading or parsing the
+     * document.
+     */
+    public Element parse(Path file)
+            throws ToolsException
+    {
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+            long size = channel.size();
+            InputStream in;
+            if ( size > Integer.MAX_VALUE ) {
+                in = Channels.newInputStream(channel);
+            }
+            else {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                in = new ByteBufferInputStream(buffer);
+            }
+            LSInput input = input(in);
+            input.setSystemId(file.toUri().toString());
+            return parse(input, "Error parsing the XML file: " + file);
+        }
+        catch ( IOException ex ) {
+            throw new ToolsException("Error reading the XML file: " + file, ex);
+        }
+    }
+
+    /**
+     * Parse a batch of strings, in parallel on the common fork-join pool.
+     *
+     * @param xmls The strings containing the documents to parse.
+     *
+     * @return The root elements of the documents, in the same order.
+     *
+     * @throws ToolsException If there is any error parsing one of the
+     * documents.
+     */
+    public List<Element> parseAll(Collection<String> xmls)
+            throws ToolsException
+    {
+        return parseAll(xmls, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a batch of strings, in parallel on a specific executor.
+     *
+     * The batch is split in as many slices as there are workers, and each
+     * slice is parsed with one parser, borrowed once for the whole slice.
+     *
+     * @param xmls The strings containing the documents to parse.
+     *
+     * @param executor The executor to run the workers.
+     *
+     * @return The root elements of the documents, in the same order.
+     *
+     * @throws ToolsException If there is any error parsing one of the
+     * documents.
+     */
+    public List<Element> parseAll(Collection<String> xmls, Executor executor)
+            throws ToolsException
+    {
+        List<LSInput> inputs = new ArrayList<LSInput>(xmls.size());
+        for ( String xml : xmls ) {
+            inputs.add(input(xml));
+        }
+        return parseAll(inputs, "Error parsing the XML string", executor);
+    }
+
+    /**
+     * Parse a batch of byte arrays, in parallel on the common fork-join pool.
+     *
+     * @param documents The encoded documents to parse.
+     *
+     * @return The root elements of the documents, in the same order.
+     *
+     * @throws ToolsException If there is any error parsing one of the
+     * documents.
+     */
+    public List<Element> parseAllBytes(Collection<byte[]> documents)
+            throws ToolsException
+    {
+        return parseAllBytes(documents, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a batch of byte arrays, in parallel on a specific executor.
+     *
+     * The batch is split in as many slices as there are workers, and each
+     * slice is parsed with one parser, borrowed once for the whole slice.
+     *
+     * @param documents The encoded documents to parse.
+     *
+     * @param executor The executor to run the workers.
+     *
+     * @return The root elements of the documents, in the same order.
+     *
+     * @throws ToolsException If there is any error parsing one of the
+     * documents.
+     */
+    public List<Element> parseAllBytes(Collection<byte[]> documents, Executor executor)
+            throws ToolsException
+    {
+        List<LSInput> inputs = new ArrayList<LSInput>(documents.size());
+        for ( byte[] bytes : documents ) {
+            inputs.add(input(new ByteBufferInputStream(ByteBuffer.wrap(bytes))));
+        }
+        return parseAll(inputs, "Error parsing the XML document", executor);
+    }
+
+    private LSInput input(String xml)
+            throws ToolsException
+    {
+        if ( myLimits != null && xml.length() > myLimits.getMaxBytes() ) {
+            throw new ParseLimitException(ParseLimits.Kind.BYTES, myLimits.getMaxBytes());
+        }
+        LSInput input = pool().createInput();
+        input.setCharacterStream(new StringReader(xml));
+        return input;
+    }
+
+    private LSInput input(InputStream in)
+            throws ToolsException
+    {
+        LSInput input = pool().createInput();
+        input.setByteStream(in);
+        return input;
+    }
+
+    private Element parse(LSInput input, String error)
+            throws ToolsException
+    {
+        if ( isBuilt() ) {
+            return parse(null, input, error);
+        }
+        DomParserPool pool = pool();
+        LSParser parser = pool.acquire();
+        try {
+            return parse(parser, input, error);
+        }
+        finally {
+            pool.release(parser);
+        }
+    }
+
+    /**
+     * Parse an input, with {@code parser}, or with SAX if {@code parser} is null.
+     */
+    private Element parse(LSParser parser, LSInput input, String error)
+            throws ToolsException
+    {
+        InputStream in = input.getByteStream();
+        Reader reader = input.getCharacterStream();
+        InflatingInputStream inflating = null;
+        LimitedInputStream limited = null;
+        try {
+            if ( in != null ) {
+                InputStream stream = in;
+                if ( myDecompress ) {
+                    stream = InflatingInputStream.open(in);
+                    if ( stream instanceof InflatingInputStream ) {
+                        inflating = (InflatingInputStream) stream;
+                    }
+                }
+                if ( myLimits != null && myLimits.getMaxBytes() != Long.MAX_VALUE ) {
+                    // count the bytes after decompression, the ones which are parsed
+                    limited = new LimitedInputStream(stream, myLimits.getMaxBytes());
+                    stream = limited;
+                }
+                input.setByteStream(stream);
+            }
+            Document doc = parser == null
+                ? build(input, limited, error)
+                : parser.parse(input);
+            return new DomElement(doc.getDocumentElement());
+        }
+        catch ( IOException ex ) {
+            throw new ToolsException("Error decompressing the XML document", ex);
+        }
+        catch ( LSException ex ) {
+            throw new ToolsException(error, ex);
+        }
+        finally {
+            if ( inflating != null ) {
+                inflating.release();
+            }
+            input.setByteStream(in);
+            input.setCharacterStream(reader);
+        }
+    }
+
+    /**
+     * Parse an input with a SAX parser, building the tree with a {@link DomBuilder}.
+     */
+    private Document build(LSInput input, LimitedInputStream limited, String error)
+            throws ToolsException
+    {
+        InputSource source = new InputSource();
+        source.setByteStream(input.getByteStream());
+        source.setCharacterStream(input.getCharacterStream());
+        source.setSystemId(input.getSystemId());
+        Document doc = pool().createDocument();
+        doc.setDocumentURI(input.getSystemId());
+        DomBuilder builder = new DomBuilder(this, doc);
+        SaxParserPool pool = SaxParserPool.getDefault();
+        XMLReader reader = pool.acquire();
+        try {
+            reader.setContentHandler(builder);
+            reader.setErrorHandler(builder);
+            reader.setProperty(SaxParserPool.LEXICAL_HANDLER, builder);
+            reader.parse(source);
+            return doc;
+        }
+        catch ( SAXException ex ) {
+            if ( ex.getException() instanceof ParseLimitException ) {
+                throw (ParseLimitException) ex.getException();
+            }
+            throw new ToolsException(error, ex);
+        }
+        catch ( IOException ex ) {
+            if ( limited != null && limited.getViolation() != null ) {
+                throw limited.getViolation();
+            }
+            throw new ToolsException(error, ex);
+        }
+        finally {
+            pool.release(reader);
+        }
+    }
+
+    /**
+     * Parse a batch of inputs, each worker using its own parser for a slice.
+     */
+    private List<Element> parseAll(final List<LSInput> inputs, final String error, Executor executor)
+            throws ToolsException
+    {
+        final int size = inputs.size();
+        final Element[] result = new Element[size];
+        int workers = Math.min(size, parallelism(executor));
+        if ( workers <= 1 ) {
+            parseSlice(inputs, result, 0, size, error);
+            return Arrays.asList(result);
+        }
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[workers];
+        for ( int w = 0; w < workers; ++w ) {
+            final int from = (int) ((long) w * size / workers);
+            final int to = (int) ((long) (w + 1) * size / workers);
+            tasks[w] = CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        parseSlice(inputs, result, from, to, error);
+                    }
+                    catch ( ToolsException ex ) {
+                        throw new CompletionException(ex);
+                    }
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(tasks).join();
+        }
+        catch ( CompletionException ex ) {
+            Throwable cause = ex.getCause();
+            if ( cause instanceof ToolsException ) {
+                throw (ToolsException) cause;
+            }
+            throw new ToolsException(error, cause);
+        }
+        return Arrays.asList(result);
+    }
+
+    private void parseSlice(List<LSInput> inputs, Element[] result, int from, int to, String error)
+            throws ToolsException
+    {
+        if ( isBuilt() ) {
+            for ( int i = from; i < to; ++i ) {
+                result[i] = parse(null, inputs.get(i), error);
+            }
+            return;
+        }
+        DomParserPool pool = pool();
+        LSParser parser = pool.acquire();
+        try {
+            for ( int i = from; i < to; ++i ) {
+                result[i] = parse(parser, inputs.get(i), error);
+            }
+        }
+        finally {
+            pool.release(parser);
+        }
+    }
+
+    private static int parallelism(Executor executor)
+    {
+        if ( executor instanceof ForkJoinPool ) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Return true if the trees must be built from SAX events, to apply the options.
+     */
+    private boolean isBuilt()
+    {
+        return myStripAll || ! myStripElements.isEmpty() || myProjection != null || myLimits != null;
+    }
+
+    /**
+     * Return true if whitespace-only text nodes must be stripped in {@code parent}.
+     */
+    boolean stripWhitespaceIn(Node parent)
+    {
+        if ( myStripAll ) {
+            return true;
+        }
+        if ( parent == null || parent.getNodeType() != Node.ELEMENT_NODE ) {
+            return false;
+        }
+        String ns = parent.getNamespaceURI();
+        Set<String> names = myStripElements.get(ns == null ? "" : ns);
+        return names != null && names.contains(parent.getLocalName());
+    }
+
+    private DomParserPool pool()
+    {
+        return myPool == null ? DomParserPool.getDefault() : myPool;
+    }
+
+    private final DomParserPool myPool;
+    private Projection myProjection = null;
+    private ParseLimits myLimits = null;
+    private DomParseCache myCache = null;
+    private boolean myDecompress = true;
+    private boolean myStripAll = false;
+    private final Map<String, Set<String>> myStripElements = new HashMap<String, Set<String>>();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
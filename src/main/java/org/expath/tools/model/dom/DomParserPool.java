@@ -0,0 +1,253 @@
+/****************************************************************************/
+/*  File:       DomParserPool.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.expath.tools.ToolsException;
+import org.w3c.dom.DOMConfiguration;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSParser;
+
+/**
+ * A bounded pool of reusable DOM parsers.
+ *
+ * The DOM implementation is looked up only once, and the parsers created from
+ * it are given back to the pool after each parse, instead of creating a new
+ * factory and a new parser for every document.  The pool does not use any
+ * thread-local storage: a parser is borrowed for the duration of one parse,
+ * so the pool can be used the same way from platform and virtual threads.
+ *
+ * If the pool is empty when a parser is needed, a new one is created (this is
+ * a "miss").  If the pool is full when a parser is given back, it is simply
+ * dropped.  The capacity of the default pool can be set with the system
+ * property {@code org.expath.tools.model.dom.parser-pool-size} (an invalid
+ * or negative value is ignored), or the default pool can be replaced with
+ * {@link #setDefault(DomParserPool)}.
+ *
+ * @author agent
+ */
+public class DomParserPool
+{
+    /**
+     * Create a new pool.
+     *
+     * @param capacity The maximum number of idle parsers kept in the pool.  A
+     * capacity of 0 disables pooling (a new parser is created for each parse).
+     */
+    public DomParserPool(int capacity)
+    {
+        if ( capacity < 0 ) {
+            throw new IllegalArgumentException("Negative parser pool capacity: " + capacity);
+        }
+        myCapacity = capacity;
+        myParsers = capacity == 0 ? null : new ArrayBlockingQueue<LSParser>(capacity);
+    }
+
+    /**
+     * Return the pool used by default by the DOM model.
+     *
+     * @return The default pool, never {@code null}.
+     */
+    public static DomParserPool getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Replace the pool used by default by the DOM model.
+     *
+     * @param pool The new default pool, cannot be {@code null}.
+     */
+    public static void setDefault(DomParserPool pool)
+    {
+        if ( pool == null ) {
+            throw new NullPointerException("Default parser pool is null");
+        }
+        DEFAULT = pool;
+    }
+
+    /**
+     * Return the maximum number of idle parsers kept in this pool.
+     *
+     * @return The capacity of the pool.
+     */
+    public int getCapacity()
+    {
+        return myCapacity;
+    }
+
+    /**
+     * Return the number of parsers currently idle in this pool.
+     *
+     * @return The number of idle parsers.
+     */
+    public int getIdleCount()
+    {
+        return myParsers == null ? 0 : myParsers.size();
+    }
+
+    /**
+     * Return how many times a parser has been reused from this pool.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount()
+    {
+        return myHits.get();
+    }
+
+    /**
+     * Return how many times a new parser had to be created by this pool.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount()
+    {
+        return myMisses.get();
+    }
+
+    /**
+     * Borrow a parser from the pool, or create a new one if the pool is empty.
+     *
+     * The parser must be given back using {@link #release(LSParser)}.
+     */
+    LSParser acquire()
+            throws ToolsException
+    {
+        LSParser parser = myParsers == null ? null : myParsers.poll();
+        if ( parser != null ) {
+            myHits.incrementAndGet();
+            return parser;
+        }
+        myMisses.incrementAndGet();
+        parser = getImplementation().createLSParser(DOMImplementationLS.MODE_SYNCHRONOUS, null);
+        DOMConfiguration config = parser.getDomConfig();
+        // same as the defaults of a namespace-aware DocumentBuilder
+        config.setParameter("namespaces", Boolean.TRUE);
+        config.setParameter("entities", Boolean.FALSE);
+        config.setParameter("cdata-sections", Boolean.TRUE);
+        return parser;
+    }
+
+    /**
+     * Give back a parser to the pool, after having reset it.
+     */
+    void release(LSParser parser)
+    {
+        if ( myParsers == null || parser.getBusy() ) {
+            return;
+        }
+        parser.setFilter(null);
+        myParsers.offer(parser);
+    }
+
+    /**
+     * Create a new, empty input for the parsers of this pool.
+     */
+    LSInput createInput()
+            throws ToolsException
+    {
+        return getImplementation().createLSInput();
+    }
+
+    /**
+     * Create a new, empty document, to be built from SAX events.
+     */
+    Document createDocument()
+            throws ToolsException
+    {
+        // the implementation of Load and Save is the DOM implementation itself
+        DOMImplementation impl = (DOMImplementation) getImplementation();
+        Document doc = impl.createDocument(null, null, null);
+        doc.setStrictErrorChecking(false);
+        return doc;
+    }
+
+    private static DOMImplementationLS getImplementation()
+            throws ToolsException
+    {
+        DOMImplementationLS impl = IMPLEMENTATION;
+        if ( impl == null ) {
+            try {
+                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                DOMImplementation dom = factory.newDocumentBuilder().getDOMImplementation();
+                impl = (DOMImplementationLS) dom.getFeature("LS", "3.0");
+                if ( impl == null ) {
+                    throw new ToolsException("The DOM implementation does not support DOM Load and Save: " + dom);
+                }
+                IMPLEMENTATION = impl;
+            }
+            catch ( ParserConfigurationException ex ) {
+                throw new ToolsException("Error instantiating the DOM parser", ex);
+            }
+        }
+        return impl;
+    }
+
+    /**
+     * Return the capacity of the default pool, given the value of the system property.
+     *
+     * This runs in the static initializer, so it must not fail: an invalid
+     * value would make the whole DOM model unusable in the JVM.
+     */
+    static int defaultCapacity(String value)
+    {
+        if ( value != null ) {
+            try {
+                int capacity = Integer.parseInt(value.trim());
+                if ( capacity >= 0 ) {
+                    return capacity;
+                }
+            }
+            catch ( NumberFormatException ex ) {
+                // ignored, use the default capacity
+            }
+        }
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    private final int myCapacity;
+    private final BlockingQueue<LSParser> myParsers;
+    private final AtomicLong myHits = new AtomicLong();
+    private final AtomicLong myMisses = new AtomicLong();
+
+    private static final String POOL_SIZE_PROPERTY = "org.expath.tools.model.dom.parser-pool-size";
+    private static volatile DOMImplementationLS IMPLEMENTATION = null;
+    private static volatile DomParserPool DEFAULT = new DomParserPool(defaultCapacity(System.getProperty(POOL_SIZE_PROPERTY)));
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,358 @@
+/****************************************************************************/
+/*  File:       DomSplitParser.java                                         */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+
+/**
+ * Parse huge documents in parallel, cut at the boundaries of top-level elements.
+ *
+ * This is meant for documents the root element of which contains a lot of
+ * similar children.  The content of the root element is cut in segments (of
+ * about {@link #setSegmentSize(long)} bytes), and the segments are parsed in
+ * parallel on an executor.  The children of the root element are returned in
+ * document order, by the iterator {@link Elements}, while the following
+ * segments are being parsed.  At most {@link #setMaxPendingSegments(int)} segments are
+ * parsed ahead, so the whole document is never in memory at the same time.
+ *
+ * Each segment is parsed within a copy of the start tag of the root element
+ * (and within the prolog, including the document type declaration if any), so
+ * the namespace bindings of the root element are in scope in all segments.
+ * The parent of each returned element is such a copy of the root element,
+ * containing only the elements of the same segment.  Only encodings
+ * compatible with ASCII are supported (UTF-8, ISO-8859-*, etc.)
+ *
+ * @author agent
+ */
+public class DomSplitParser
+{
+    /**
+     * Create a split parser using a default DOM parser.
+     */
+    public DomSplitParser()
+    {
+        this(new DomParser());
+    }
+
+    /**
+     * Create a split parser using a specific DOM parser, for each segment.
+     *
+     * @param parser The parser to use for each segment (with its own options).
+     */
+    public DomSplitParser(DomParser parser)
+    {
+        myParser = parser;
+        myExecutor = ForkJoinPool.commonPool();
+        myMaxPending = 2 * ForkJoinPool.commonPool().getParallelism();
+    }
+
+    /**
+     * Set the executor to parse the segments on (by default the common fork-join pool).
+     *
+     * @param executor The executor.
+     */
+    public void setExecutor(Executor executor)
+    {
+        myExecutor = executor;
+    }
+
+    /**
+     * Set the minimal size of each segment, in bytes (by default 1 MB).
+     *
+     * @param size The size of a segment.
+     */
+    public void setSegmentSize(long size)
+    {
+        if ( size <= 0 ) {
+            throw new IllegalArgumentException("The segment size must be positive: " + size);
+        }
+        mySegmentSize = size;
+    }
+
+    /**
+     * Set the maximum number of segments parsed ahead.
+     *
+     * @param max The maximum number of segments parsed or waiting to be read.
+     */
+    public void setMaxPendingSegments(int max)
+    {
+        if ( max <= 0 ) {
+            throw new IllegalArgumentException("The maximum of pending segments must be positive: " + max);
+        }
+        myMaxPending = max;
+    }
+
+    /**
+     * Parse an array of bytes.
+     *
+     * @param bytes The encoded document to parse.
+     *
+     * @return The children of the root element.
+     *
+     * @throws ToolsException If there is any error scanning the prolog.
+     */
+    public Elements parse(byte[] bytes)
+            throws ToolsException
+    {
+        return parse(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Parse the remaining bytes of a buffer.
+     *
+     * @param buffer The encoded document to parse, its position is not changed.
+     *
+     * @return The children of the root element.
+     *
+     * @throws ToolsException If there is any error scanning the prolog.
+     */
+    public Elements parse(ByteBuffer buffer)
+            throws ToolsException
+    {
+        return new Elements(ByteSource.wrap(buffer));
+    }
+
+    /**
+     * Parse a file, which is memory-mapped (even if larger than 2 GB).
+     *
+     * @param file The file to parse.
+     *
+     * @return The children of the root element.
+     *
+     * @throws ToolsException If there is any error reading the file or scanning
+     * the prolog.
+     */
+    public Elements parse(Path file)
+            throws ToolsException
+    {
+        try {
+            return new Elements(ByteSource.map(file));
+        }
+        catch ( IOException ex ) {
+            throw new ToolsException("Error reading the XML file: " + file, ex);
+        }
+    }
+
+    /**
+     * The children of the root element, in document order.
+     *
+     * This is an iterator, and also an iterable returning itself (so it can
+     * be iterated only once), to be used in a for-each loop within a
+     * try-with-resources statement, or through {@link #stream()}.  An error
+     * parsing a segment is thrown as an {@link IllegalStateException}, the
+     * cause of which is the {@link ToolsException}.
+     */
+    public class Elements
+            implements Iterator<Element>, Iterable<Element>, AutoCloseable
+    {
+        private Elements(ByteSource source)
+                throws ToolsException
+        {
+            mySource = source;
+            myScanner = new DomSplitScanner(source, mySegmentSize);
+        }
+
+        /**
+         * Return this iterator, it can be called only once.
+         */
+        @Override
+        public Iterator<Element> iterator()
+        {
+            if ( myIterated ) {
+                throw new IllegalStateException("The elements of a split parse can be iterated only once");
+            }
+            myIterated = true;
+            return this;
+        }
+
+        /**
+         * Return the elements as a sequential stream, closing this object when closed.
+         *
+         * @return The stream of the children of the root element.
+         */
+        public Stream<Element> stream()
+        {
+            return StreamSupport.stream(spliterator(), false).onClose(new Runnable() {
+                @Override
+                public void run() {
+                    close();
+                }
+            });
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            try {
+                while ( myCurrent == null || ! myCurrent.hasNext() ) {
+                    fill();
+                    CompletableFuture<List<Element>> segment = myPending.poll();
+                    if ( segment == null ) {
+                        return false;
+                    }
+                    myCurrent = join(segment).iterator();
+                }
+                return true;
+            }
+            catch ( ToolsException ex ) {
+                close();
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        }
+
+        @Override
+        public Element next()
+        {
+            if ( ! hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            Element next = myCurrent.next();
+            try {
+                fill();
+            }
+            catch ( ToolsException ex ) {
+                close();
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+            return next;
+        }
+
+        /**
+         * Stop parsing, and cancel the segments not parsed yet.
+         */
+        @Override
+        public void close()
+        {
+            for ( CompletableFuture<List<Element>> segment : myPending ) {
+                segment.cancel(false);
+            }
+            myPending.clear();
+            myExhausted = true;
+        }
+
+        private List<Element> join(CompletableFuture<List<Element>> segment)
+                throws ToolsException
+        {
+            try {
+                return segment.join();
+            }
+            catch ( CompletionException ex ) {
+                Throwable cause = ex.getCause();
+                if ( cause instanceof ToolsException ) {
+                    throw (ToolsException) cause;
+                }
+                throw new ToolsException("Error parsing a segment", cause);
+            }
+        }
+
+        private void fill()
+                throws ToolsException
+        {
+            while ( ! myExhausted && myPending.size() < myMaxPending ) {
+                long[] segment = myScanner.nextSegment();
+                if ( segment == null ) {
+                    myExhausted = true;
+                    return;
+                }
+                myPending.add(submit(segment[0], segment[1]));
+            }
+        }
+
+        private CompletableFuture<List<Element>> submit(final long from, final long to)
+        {
+            final CompletableFuture<List<Element>> result = new CompletableFuture<List<Element>>();
+            myExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if ( result.isDone() ) {
+                        return;
+                    }
+                    try {
+                        result.complete(parseSegment(from, to));
+                    }
+                    catch ( Throwable ex ) {
+                        result.completeExceptionally(ex);
+                    }
+                }
+            });
+            return result;
+        }
+
+        private List<Element> parseSegment(long from, long to)
+                throws ToolsException
+        {
+            List<InputStream> parts = new ArrayList<InputStream>(3);
+            parts.add(new ByteArrayInputStream(myScanner.getPrefix()));
+            parts.add(mySource.stream(from, to));
+            parts.add(new ByteArrayInputStream(myScanner.getSuffix()));
+            InputStream in = new SequenceInputStream(Collections.enumeration(parts));
+            Element root = myParser.parse(in);
+            List<Element> children = new ArrayList<Element>();
+            for ( Element child : root.children() ) {
+                children.add(child);
+            }
+            return children;
+        }
+
+        private final ByteSource mySource;
+        private final DomSplitScanner myScanner;
+        private final Deque<CompletableFuture<List<Element>>> myPending
+                = new ArrayDeque<CompletableFuture<List<Element>>>();
+        private Iterator<Element> myCurrent;
+        private boolean myExhausted = false;
+        private boolean myIterated = false;
+    }
+
+    private final DomParser myParser;
+    private Executor myExecutor;
+    private long mySegmentSize = 1024 * 1024;
+    private int myMaxPending;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,324 @@
+/****************************************************************************/
+/*  File:       DomSplitScanner.java                                        */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.nio.charset.Charset;
+import org.expath.tools.ToolsException;
+
+/**
+ * Find the boundaries between the children of the root element of a document.
+ *
+ * This is not a parser, it only recognizes enough of the XML syntax to find
+ * where the top-level child elements start and end: comments, processing
+ * instructions, CDATA sections, quoted attribute values and the document
+ * type declaration.  The document itself is checked later, when the segments
+ * are parsed.  Only encodings compatible with ASCII are supported (UTF-8,
+ * ISO-8859-*, etc.)
+ *
+ * The content of the root element is cut in segments, each of them being a
+ * sequence of complete child elements (with the text, comments, etc. around
+ * them), of at least the requested size (except the last one).  Each segment
+ * can be parsed on its own, between the prefix (everything in the document up
+ * to the end of the start tag of the root element, including the namespace
+ * declarations) and the suffix (the end tag of the root element).
+ *
+ * The end tag of the root element must match its start tag, and only
+ * whitespace, comments and processing instructions can follow it, as the
+ * segments alone cannot detect such errors.
+ *
+ * @author agent
+ */
+class DomSplitScanner
+{
+    public DomSplitScanner(ByteSource source, long segment_size)
+            throws ToolsException
+    {
+        mySource = source;
+        mySegmentSize = segment_size;
+        scanProlog();
+    }
+
+    /**
+     * The bytes of the document up to the end of the root element start tag.
+     */
+    public byte[] getPrefix()
+    {
+        return myPrefix;
+    }
+
+    /**
+     * The end tag of the root element.
+     */
+    public byte[] getSuffix()
+    {
+        return mySuffix;
+    }
+
+    /**
+     * Return the start (inclusive) and end (exclusive) positions of the next
+     * segment, or {@code null} if there is no more segment.
+     */
+    public long[] nextSegment()
+            throws ToolsException
+    {
+        long start = myPos;
+        int depth = 0;
+        boolean elements = false;
+        while ( ! myDone ) {
+            long lt = find('<', myPos);
+            int next = mySource.get(lt + 1);
+            if ( next == '/' ) {
+                myPos = tagEnd(lt + 2);
+                if ( depth == 0 ) {
+                    // the end tag of the root element
+                    checkRootEnd(lt + 2);
+                    checkEpilog(myPos);
+                    myDone = true;
+                    if ( elements ) {
+                        return new long[] { start, lt };
+                    }
+                }
+                else if ( --depth == 0 && myPos - start >= mySegmentSize ) {
+                    return new long[] { start, myPos };
+                }
+            }
+            else if ( next == '!' ) {
+                if ( mySource.startsWith(lt, COMMENT_START) ) {
+                    myPos = skipPast(lt + COMMENT_START.length, COMMENT_END);
+                }
+                else if ( mySource.startsWith(lt, CDATA_START) ) {
+                    myPos = skipPast(lt + CDATA_START.length, CDATA_END);
+                }
+                else {
+                    throw new ToolsException("Unexpected markup at offset " + lt);
+                }
+            }
+            else if ( next == '?' ) {
+                myPos = skipPast(lt + 2, PI_END);
+            }
+            else {
+                myPos = tagEnd(lt + 1);
+                if ( mySource.get(myPos - 2) != '/' ) {
+                    ++depth;
+                }
+                else if ( depth == 0 ) {
+                    elements = true;
+                    if ( myPos - start >= mySegmentSize ) {
+                        return new long[] { start, myPos };
+                    }
+                }
+                if ( depth == 1 ) {
+                    elements = true;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void scanProlog()
+            throws ToolsException
+    {
+        int first = mySource.get(0);
+        if ( first == 0 || first == 0xFE || first == 0xFF ) {
+            throw new ToolsException("Split parsing only supports ASCII-compatible encodings");
+        }
+        long pos = mySource.startsWith(0, UTF8_BOM) ? UTF8_BOM.length : 0;
+        for ( ;; ) {
+            pos = skipSpaces(pos);
+            if ( mySource.get(pos) != '<' ) {
+                throw new ToolsException("Content is not allowed in prolog, at offset " + pos);
+            }
+            if ( mySource.startsWith(pos, COMMENT_START) ) {
+                pos = skipPast(pos + COMMENT_START.length, COMMENT_END);
+            }
+            else if ( mySource.startsWith(pos, DOCTYPE_START) ) {
+                pos = doctypeEnd(pos + DOCTYPE_START.length);
+            }
+            else if ( mySource.get(pos + 1) == '?' ) {
+                pos = skipPast(pos + 2, PI_END);
+            }
+            else {
+                break;
+            }
+        }
+        // the root element start tag
+        long name_start = pos + 1;
+        long name_end = name_start;
+        for ( int c = mySource.get(name_end); c > ' ' && c != '/' && c != '>'; c = mySource.get(name_end) ) {
+            ++name_end;
+        }
+        myPos = tagEnd(name_start);
+        myDone = mySource.get(myPos - 2) == '/';
+        myPrefix = mySource.copy(0, myPos);
+        myRootName = mySource.copy(name_start, name_end);
+        String name = new String(myRootName, ASCII);
+        mySuffix = ("</" + name + ">").getBytes(ASCII);
+        if ( myDone ) {
+            checkEpilog(myPos);
+        }
+    }
+
+    /**
+     * Check the name in an end tag at depth 0 is the name of the root element.
+     */
+    private void checkRootEnd(long name_start)
+            throws ToolsException
+    {
+        long end = name_start + myRootName.length;
+        int after = mySource.get(end);
+        boolean space = after == ' ' || after == '\t' || after == '\r' || after == '\n';
+        if ( ! mySource.startsWith(name_start, myRootName) || ( after != '>' && ! space ) ) {
+            throw new ToolsException("The end tag at offset " + (name_start - 2)
+                    + " does not match the root element: " + new String(myRootName, ASCII));
+        }
+    }
+
+    /**
+     * Check there are only whitespace, comments and PIs from {@code pos} to the end.
+     */
+    private void checkEpilog(long pos)
+            throws ToolsException
+    {
+        for ( pos = skipSpaces(pos); mySource.get(pos) >= 0; pos = skipSpaces(pos) ) {
+            if ( mySource.startsWith(pos, COMMENT_START) ) {
+                pos = skipPast(pos + COMMENT_START.length, COMMENT_END);
+            }
+            else if ( mySource.startsWith(pos, PI_START) ) {
+                pos = skipPast(pos + PI_START.length, PI_END);
+            }
+            else {
+                throw new ToolsException("Content is not allowed after the root element, at offset " + pos);
+            }
+        }
+    }
+
+    /**
+     * Return the position of the next {@code c}, starting at {@code pos}.
+     */
+    private long find(char c, long pos)
+            throws ToolsException
+    {
+        for ( int b = mySource.get(pos); b != c; b = mySource.get(++pos) ) {
+            if ( b < 0 ) {
+                throw new ToolsException("Unexpected end of document, looking for '" + c + "'");
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Return the position right after the next occurrence of {@code pattern}.
+     */
+    private long skipPast(long pos, byte[] pattern)
+            throws ToolsException
+    {
+        for ( ;; ) {
+            pos = find((char) pattern[0], pos);
+            if ( mySource.startsWith(pos, pattern) ) {
+                return pos + pattern.length;
+            }
+            ++pos;
+        }
+    }
+
+    /**
+     * Return the position right after the end of the tag, skipping quoted values.
+     */
+    private long tagEnd(long pos)
+            throws ToolsException
+    {
+        for ( int b = mySource.get(pos); b != '>'; b = mySource.get(++pos) ) {
+            if ( b == '"' || b == '\'' ) {
+                pos = find((char) b, pos + 1);
+            }
+            else if ( b < 0 ) {
+                throw new ToolsException("Unexpected end of document, in a tag");
+            }
+        }
+        return pos + 1;
+    }
+
+    /**
+     * Return the position right after the end of the document type declaration.
+     */
+    private long doctypeEnd(long pos)
+            throws ToolsException
+    {
+        int brackets = 0;
+        for ( int b = mySource.get(pos); b != '>' || brackets > 0; b = mySource.get(pos) ) {
+            if ( b == '"' || b == '\'' ) {
+                pos = find((char) b, pos + 1) + 1;
+            }
+            else if ( b == '<' && mySource.startsWith(pos, COMMENT_START) ) {
+                pos = skipPast(pos + COMMENT_START.length, COMMENT_END);
+            }
+            else if ( b < 0 ) {
+                throw new ToolsException("Unexpected end of document, in the document type declaration");
+            }
+            else {
+                if ( b == '[' ) {
+                    ++brackets;
+                }
+                else if ( b == ']' ) {
+                    --brackets;
+                }
+                ++pos;
+            }
+        }
+        return pos + 1;
+    }
+
+    private long skipSpaces(long pos)
+    {
+        for ( int b = mySource.get(pos); b == ' ' || b == '\t' || b == '\r' || b == '\n'; b = mySource.get(pos) ) {
+            ++pos;
+        }
+        return pos;
+    }
+
+    private final ByteSource mySource;
+    private final long mySegmentSize;
+    private long myPos;
+    private boolean myDone;
+    private byte[] myPrefix;
+    private byte[] myRootName;
+    private byte[] mySuffix;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+    private static final byte[] COMMENT_START = "<!--".getBytes(ASCII);
+    private static final byte[] COMMENT_END = "-->".getBytes(ASCII);
+    private static final byte[] CDATA_START = "<![CDATA[".getBytes(ASCII);
+    private static final byte[] CDATA_END = "]]>".getBytes(ASCII);
+    private static final byte[] DOCTYPE_START = "<!DOCTYPE".getBytes(ASCII);
+    private static final byte[] PI_START = "<?".getBytes(ASCII);
+    private static final byte[] PI_END = "?>".getBytes(ASCII);
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,161 @@
+/****************************************************************************/
+/*  File:       DomStreamReader.java                                        */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import javax.xml.XMLConstants;
+import org.expath.tools.model.NamespaceBindings;
+import org.expath.tools.model.TreeStreamReader;
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * A StAX view over a {@link DomElement}.
+ *
+ * The reader walks the DOM nodes on the sibling axis, like the wrappers do.
+ * Text and CDATA section nodes are reported as characters, comments and
+ * processing instructions are skipped.
+ *
+ * @author agent
+ */
+class DomStreamReader
+        extends TreeStreamReader
+{
+    public DomStreamReader(DomElement elem)
+    {
+        myTop = elem.getUnderlyingElement();
+        myNode = myTop;
+        startElement(myTop);
+        // declare all the bindings in scope on the top element
+        NamespaceBindings bindings = elem.getNamespaceBindings();
+        for ( String prefix : bindings.getPrefixes() ) {
+            addNamespace(prefix, bindings.getNamespaceUri(prefix));
+        }
+        addAttributes(myTop, false);
+        myStarted = true;
+    }
+
+    @Override
+    protected void advance()
+    {
+        if ( myStarted ) {
+            Node child = reportable(myNode.getFirstChild());
+            if ( child != null ) {
+                report(child);
+            }
+            else {
+                endElement();
+                myStarted = false;
+            }
+        }
+        else if ( myNode == myTop ) {
+            endDocument();
+        }
+        else {
+            Node next = reportable(myNode.getNextSibling());
+            if ( next != null ) {
+                report(next);
+            }
+            else {
+                myNode = myNode.getParentNode();
+                endElement();
+            }
+        }
+    }
+
+    /**
+     * Report a node, the start tag of an element or a text node.
+     */
+    private void report(Node node)
+    {
+        myNode = node;
+        if ( node.getNodeType() == Node.ELEMENT_NODE ) {
+            startElement(node);
+            addAttributes(node, true);
+            myStarted = true;
+        }
+        else {
+            text(node.getNodeValue());
+            myStarted = false;
+        }
+    }
+
+    private void startElement(Node elem)
+    {
+        String ns = elem.getNamespaceURI();
+        String prefix = elem.getPrefix();
+        startElement(ns == null ? "" : ns, elem.getLocalName(), prefix == null ? "" : prefix);
+    }
+
+    /**
+     * Add the attributes, and the namespace declarations if {@code declare}.
+     */
+    private void addAttributes(Node elem, boolean declare)
+    {
+        NamedNodeMap attrs = elem.getAttributes();
+        for ( int i = 0; i < attrs.getLength(); ++i ) {
+            Attr attr = (Attr) attrs.item(i);
+            String ns = attr.getNamespaceURI();
+            if ( XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(ns) ) {
+                if ( declare ) {
+                    String prefix = XMLConstants.XMLNS_ATTRIBUTE.equals(attr.getPrefix()) ? attr.getLocalName() : "";
+                    addNamespace(prefix, attr.getValue());
+                }
+            }
+            else {
+                String prefix = attr.getPrefix();
+                String local = attr.getLocalName() == null ? attr.getName() : attr.getLocalName();
+                addAttribute(ns == null ? "" : ns, local, prefix == null ? "" : prefix, attr.getValue());
+            }
+        }
+    }
+
+    /**
+     * Return {@code node} or its first following sibling to report, or null.
+     */
+    private static Node reportable(Node node)
+    {
+        Node n = node;
+        while ( n != null ) {
+            short type = n.getNodeType();
+            if ( type == Node.ELEMENT_NODE || type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE ) {
+                return n;
+            }
+            n = n.getNextSibling();
+        }
+        return null;
+    }
+
+    private final Node myTop;
+    // the current node, and whether the current event is its start tag
+    private Node myNode;
+    private boolean myStarted;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,241 @@
+/****************************************************************************/
+/*  File:       InflatingInputStream.java                                   */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Decompress a gzip or zlib ("deflate") stream, using pooled inflaters.
+ *
+ * Use {@link #open(InputStream)} to detect whether a stream is compressed,
+ * from its first two bytes.  This is not ambiguous for XML documents: they
+ * cannot start with the magic number of gzip, nor with a zlib header.
+ *
+ * The inflater is given back to the pool by {@link #release()}, which does
+ * not close the underlying stream, or by {@link #close()}, which does.
+ *
+ * @author agent
+ */
+class InflatingInputStream
+        extends InflaterInputStream
+{
+    private InflatingInputStream(InputStream in, boolean gzip)
+    {
+        super(in, acquire(gzip), BUFFER_SIZE);
+        myGzip = gzip;
+        myCrc = gzip ? new CRC32() : null;
+    }
+
+    /**
+     * Return a decompressing stream if {@code in} is compressed.
+     *
+     * @return Either a new {@link InflatingInputStream} or a stream returning
+     * the same bytes as {@code in}.
+     */
+    public static InputStream open(InputStream in)
+            throws IOException
+    {
+        PushbackInputStream peek = new PushbackInputStream(in, 2);
+        int b0 = peek.read();
+        int b1 = b0 < 0 ? -1 : peek.read();
+        if ( b1 >= 0 ) {
+            peek.unread(b1);
+        }
+        if ( b0 >= 0 ) {
+            peek.unread(b0);
+        }
+        if ( b0 == 0x1F && b1 == 0x8B ) {
+            skipGzipHeader(peek);
+            return new InflatingInputStream(peek, true);
+        }
+        // CM = 8 (deflate), CINFO <= 7, no preset dictionary, and valid check bits
+        if ( b1 >= 0 && (b0 & 0x0F) == 8 && (b0 >> 4) <= 7 && (b1 & 0x20) == 0 && ((b0 << 8) | b1) % 31 == 0 ) {
+            return new InflatingInputStream(peek, false);
+        }
+        return peek;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+            throws IOException
+    {
+        if ( myInflater == null ) {
+            throw new IOException("Stream released");
+        }
+        int n = super.read(b, off, len);
+        if ( myGzip ) {
+            if ( n > 0 ) {
+                myCrc.update(b, off, n);
+            }
+            else if ( n < 0 && ! myTrailerChecked ) {
+                checkTrailer();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Give back the inflater to the pool, without closing the underlying stream.
+     */
+    public void release()
+    {
+        Inflater inflater = myInflater;
+        if ( inflater != null ) {
+            myInflater = null;
+            inflater.reset();
+            BlockingQueue<Inflater> pool = myGzip ? GZIP_POOL : ZLIB_POOL;
+            if ( ! pool.offer(inflater) ) {
+                inflater.end();
+            }
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        release();
+        super.close();
+    }
+
+    private static Inflater acquire(boolean gzip)
+    {
+        Inflater inflater = (gzip ? GZIP_POOL : ZLIB_POOL).poll();
+        return inflater != null ? inflater : new Inflater(gzip);
+    }
+
+    private static void skipGzipHeader(InputStream in)
+            throws IOException
+    {
+        // ID1, ID2, CM, FLG, MTIME (4 bytes), XFL, OS
+        byte[] header = new byte[10];
+        readFully(in, header, 10);
+        if ( header[2] != 8 ) {
+            throw new ZipException("Unsupported gzip compression method: " + header[2]);
+        }
+        int flags = header[3] & 0xFF;
+        if ( (flags & FEXTRA) != 0 ) {
+            int length = readByte(in) | (readByte(in) << 8);
+            for ( int i = 0; i < length; ++i ) {
+                readByte(in);
+            }
+        }
+        if ( (flags & FNAME) != 0 ) {
+            while ( readByte(in) != 0 ) {
+                // skip the file name
+            }
+        }
+        if ( (flags & FCOMMENT) != 0 ) {
+            while ( readByte(in) != 0 ) {
+                // skip the comment
+            }
+        }
+        if ( (flags & FHCRC) != 0 ) {
+            readByte(in);
+            readByte(in);
+        }
+    }
+
+    /**
+     * Check the CRC-32 and the size in the gzip trailer.
+     *
+     * The trailer follows the compressed data, so part of it (or all of it)
+     * might already be in the input buffer, not consumed by the inflater.
+     */
+    private void checkTrailer()
+            throws IOException
+    {
+        myTrailerChecked = true;
+        byte[] trailer = new byte[8];
+        int remaining = Math.min(inf.getRemaining(), 8);
+        System.arraycopy(buf, len - inf.getRemaining(), trailer, 0, remaining);
+        for ( int i = remaining; i < 8; ++i ) {
+            trailer[i] = (byte) readByte(in);
+        }
+        long crc = readInt(trailer, 0);
+        long size = readInt(trailer, 4);
+        if ( crc != myCrc.getValue() ) {
+            throw new ZipException("Corrupt gzip stream (invalid CRC)");
+        }
+        if ( size != (inf.getBytesWritten() & 0xFFFFFFFFL) ) {
+            throw new ZipException("Corrupt gzip stream (invalid size)");
+        }
+    }
+
+    private static long readInt(byte[] b, int off)
+    {
+        return (b[off] & 0xFFL)
+            | ((b[off + 1] & 0xFFL) << 8)
+            | ((b[off + 2] & 0xFFL) << 16)
+            | ((b[off + 3] & 0xFFL) << 24);
+    }
+
+    private static int readByte(InputStream in)
+            throws IOException
+    {
+        int b = in.read();
+        if ( b < 0 ) {
+            throw new EOFException("Unexpected end of gzip stream");
+        }
+        return b;
+    }
+
+    private static void readFully(InputStream in, byte[] b, int len)
+            throws IOException
+    {
+        for ( int i = 0; i < len; ++i ) {
+            b[i] = (byte) readByte(in);
+        }
+    }
+
+    private Inflater myInflater = inf;
+    private final boolean myGzip;
+    private final CRC32 myCrc;
+    private boolean myTrailerChecked = false;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+    private static final BlockingQueue<Inflater> GZIP_POOL = new ArrayBlockingQueue<Inflater>(POOL_SIZE);
+    private static final BlockingQueue<Inflater> ZLIB_POOL = new ArrayBlockingQueue<Inflater>(POOL_SIZE);
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
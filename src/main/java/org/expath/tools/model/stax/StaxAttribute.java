@@ -0,0 +1,80 @@
+/****************************************************************************/
+/*  File:       StaxAttribute.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.stax;
+
+import org.expath.tools.model.AbstractAttribute;
+import org.expath.tools.model.NamespaceBindings;
+
+/**
+ * An attribute of a {@link StaxElement}, copied from the start tag.
+ *
+ * @author agent
+ */
+public final class StaxAttribute
+        extends AbstractAttribute
+{
+    StaxAttribute(String ns, String local, String value, NamespaceBindings bindings)
+    {
+        myNs = ns;
+        myLocal = local;
+        myValue = value;
+        myBindings = bindings;
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return myLocal;
+    }
+
+    @Override
+    public String getNamespaceUri()
+    {
+        return myNs;
+    }
+
+    @Override
+    public String getValue()
+    {
+        return myValue;
+    }
+
+    @Override
+    protected NamespaceBindings getNamespaceBindings()
+    {
+        return myBindings;
+    }
+
+    private final String myNs;
+    private final String myLocal;
+    private final String myValue;
+    private final NamespaceBindings myBindings;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,123 @@
+/****************************************************************************/
+/*  File:       StaxCursor.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.stax;
+
+import java.util.Arrays;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * The position of a StAX reader, shared by all the elements of a document.
+ *
+ * The cursor tracks the depth of the reader, and which element is open at
+ * each level of the current path.  An element can only be read while it is
+ * open, that is while the reader has not passed its end tag yet.
+ *
+ * @author agent
+ */
+class StaxCursor
+{
+    /**
+     * Create a cursor for a reader positioned on the start tag of the root element.
+     */
+    public StaxCursor(XMLStreamReader reader)
+    {
+        myReader = reader;
+        myDepth = 1;
+    }
+
+    public XMLStreamReader getReader()
+    {
+        return myReader;
+    }
+
+    /**
+     * Return the number of elements open on the current event.
+     */
+    public int getDepth()
+    {
+        return myDepth;
+    }
+
+    /**
+     * Record the element created for the current start tag.
+     */
+    public void setOpen(StaxElement elem)
+    {
+        myOpen[myDepth] = elem;
+    }
+
+    /**
+     * Return true if the reader has not passed the end tag of {@code elem} yet.
+     */
+    public boolean isOpen(StaxElement elem)
+    {
+        int depth = elem.getDepth();
+        return myDepth >= depth && myOpen[depth] == elem;
+    }
+
+    /**
+     * Move the reader to the next event, and return it.
+     */
+    public int next()
+            throws XMLStreamException
+    {
+        int event = myReader.next();
+        if ( event == XMLStreamConstants.START_ELEMENT ) {
+            ++myDepth;
+            if ( myDepth == myOpen.length ) {
+                myOpen = Arrays.copyOf(myOpen, 2 * myDepth);
+            }
+            myOpen[myDepth] = null;
+        }
+        else if ( event == XMLStreamConstants.END_ELEMENT ) {
+            myOpen[myDepth] = null;
+            --myDepth;
+        }
+        return event;
+    }
+
+    /**
+     * Skip events until the reader is back at {@code depth}.
+     */
+    public void skipTo(int depth)
+            throws XMLStreamException
+    {
+        while ( myDepth > depth ) {
+            next();
+        }
+    }
+
+    private final XMLStreamReader myReader;
+    private int myDepth;
+    private StaxElement[] myOpen = new StaxElement[16];
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
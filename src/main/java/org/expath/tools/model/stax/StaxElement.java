@@ -0,0 +1,814 @@
+/****************************************************************************/
+/*  File:       StaxElement.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.stax;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Attribute;
+import org.expath.tools.model.AttributeChecker;
+import org.expath.tools.model.AttributeSlots;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.NamePool;
+import org.expath.tools.model.NamespaceBindings;
+import org.expath.tools.model.Sequence;
+import org.expath.tools.model.tiny.TinyBuilder;
+import org.expath.tools.model.tiny.TinyElement;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * A streaming element, reading its content from a StAX reader on demand.
+ *
+ * Only the elements on the current path are in memory, so a document can
+ * be read top to bottom with a memory bounded by its depth, not its size.
+ * The name, the attributes and the namespace bindings of an element are
+ * always available.  Its children can be read only once, in document order:
+ * the iterables returned by {@link #children()} and {@link #children(String)}
+ * read the stream while iterating, and moving to the next child skips what
+ * has not been read from the current one.  So do {@link #child(String,
+ * String)}, {@link #children(String, String)} and {@link #childCount()}, which
+ * read the children as well.  Reading the children of an element twice, or
+ * once the stream has passed its end tag, throws an {@link
+ * IllegalStateException} telling which method has read them first.
+ *
+ * The methods which need the entire content ({@link #getContent()},
+ * {@link #getStringValue()}, {@link #getDigest()} and {@link #hasNoNsChild()}) first buffer the subtree of the element as a
+ * {@link TinyElement}, and then every method is answered from this buffer.
+ * Only the subtree of that element is buffered, and only if its children
+ * have not been read yet.
+ *
+ * Streaming elements are not thread-safe.
+ *
+ * @author agent
+ */
+public final class StaxElement
+        implements Element
+{
+    /**
+     * Create the root element of a document, from a StAX reader.
+     *
+     * @param reader The reader, positioned before or on the start tag of the
+     * root element.  The element reads from it while it is used.
+     *
+     * @return The root element.
+     *
+     * @throws ToolsException If there is any error reading the stream.
+     */
+    public static StaxElement open(XMLStreamReader reader)
+            throws ToolsException
+    {
+        try {
+            if ( reader.getEventType() != XMLStreamConstants.START_ELEMENT ) {
+                reader.nextTag();
+            }
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error reading the root element", ex);
+        }
+        StaxCursor cursor = new StaxCursor(reader);
+        StaxElement root = new StaxElement(cursor, null);
+        cursor.setOpen(root);
+        return root;
+    }
+
+    /**
+     * Create an element from the start tag the reader of the cursor is positioned on.
+     */
+    private StaxElement(StaxCursor cursor, StaxElement parent)
+    {
+        XMLStreamReader reader = cursor.getReader();
+        myCursor = cursor;
+        myParent = parent;
+        myDepth = cursor.getDepth();
+        myNs = nonNull(reader.getNamespaceURI());
+        myLocal = reader.getLocalName();
+        myPrefix = nonNull(reader.getPrefix());
+        int count = reader.getAttributeCount();
+        myAttrs = new String[count * ATTR_SIZE];
+        for ( int i = 0, j = 0; i < count; ++i, j += ATTR_SIZE ) {
+            myAttrs[j] = nonNull(reader.getAttributeNamespace(i));
+            myAttrs[j + 1] = reader.getAttributeLocalName(i);
+            myAttrs[j + 2] = nonNull(reader.getAttributePrefix(i));
+            myAttrs[j + 3] = reader.getAttributeValue(i);
+        }
+        int ns_count = reader.getNamespaceCount();
+        String[] prefixes = new String[ns_count];
+        String[] uris = new String[ns_count];
+        for ( int i = 0; i < ns_count; ++i ) {
+            prefixes[i] = nonNull(reader.getNamespacePrefix(i));
+            uris[i] = nonNull(reader.getNamespaceURI(i));
+        }
+        NamespaceBindings in_scope = parent == null ? NamespaceBindings.EMPTY : parent.myBindings;
+        myBindings = in_scope.extend(prefixes, uris);
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return myLocal;
+    }
+
+    @Override
+    public String getNamespaceUri()
+    {
+        return myNs;
+    }
+
+    @Override
+    public String getDisplayName()
+    {
+        return myPrefix.isEmpty() ? myLocal : myPrefix + ":" + myLocal;
+    }
+
+    @Override
+    public String getAttribute(String local_name)
+    {
+        for ( int i = 0; i < myAttrs.length; i += ATTR_SIZE ) {
+            if ( myAttrs[i].isEmpty() && myAttrs[i + 1].equals(local_name) ) {
+                return myAttrs[i + 3];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Iterable<Attribute> attributes()
+    {
+        // kept, so the typed values cached by the attributes are kept as well
+        if ( myAttributes == null ) {
+            List<Attribute> attrs = new ArrayList<Attribute>(myAttrs.length / ATTR_SIZE);
+            for ( int i = 0; i < myAttrs.length; i += ATTR_SIZE ) {
+                attrs.add(new StaxAttribute(myAttrs[i], myAttrs[i + 1], myAttrs[i + 3], myBindings));
+            }
+            myAttributes = Collections.unmodifiableList(attrs);
+        }
+        return myAttributes;
+    }
+
+    @Override
+    public boolean hasNoNsChild()
+            throws ToolsException
+    {
+        return buffer().hasNoNsChild();
+    }
+
+    @Override
+    public Iterable<Element> children()
+    {
+        return children(null);
+    }
+
+    @Override
+    public Iterable<Element> children(String ns)
+    {
+        if ( myBuffer != null ) {
+            return ns == null ? myBuffer.children() : myBuffer.children(ns);
+        }
+        return stream(ns, "children()");
+    }
+
+    /**
+     * Return the first child with a given name.
+     *
+     * Unless the element has been buffered, this reads the children from the
+     * stream up to the first match, so they cannot be read again afterwards.
+     */
+    @Override
+    public Element child(String ns, String local)
+    {
+        if ( myBuffer != null ) {
+            return myBuffer.child(ns, local);
+        }
+        for ( Element c : stream(ns, "child()") ) {
+            if ( c.getLocalName().equals(local) ) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Iterate through the children elements with a specific name.
+     *
+     * Unless the element has been buffered, this reads the children from the
+     * stream while iterating, skipping the other ones, like {@link
+     * #children(String)}.
+     */
+    @Override
+    public Iterable<Element> children(String ns, final String local)
+    {
+        if ( myBuffer != null ) {
+            return myBuffer.children(ns, local);
+        }
+        final Iterable<Element> children = stream(ns, "children()");
+        return new Iterable<Element>() {
+            @Override
+            public Iterator<Element> iterator() {
+                final Iterator<Element> all = children.iterator();
+                return new Iterator<Element>() {
+                    @Override
+                    public boolean hasNext() {
+                        // only move the stream when asked, the caller might read the current child
+                        while ( myNext == null && all.hasNext() ) {
+                            Element c = all.next();
+                            if ( c.getLocalName().equals(local) ) {
+                                myNext = c;
+                            }
+                        }
+                        return myNext != null;
+                    }
+                    @Override
+                    public Element next() {
+                        if ( ! hasNext() ) {
+                            throw new NoSuchElementException();
+                        }
+                        Element next = myNext;
+                        myNext = null;
+                        return next;
+                    }
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("Streaming elements are read-only");
+                    }
+                    private Element myNext = null;
+                };
+            }
+        };
+    }
+
+    /**
+     * Return the number of children elements.
+     *
+     * Unless the element has been buffered, this reads all the children from
+     * the stream, so they cannot be read again afterwards.
+     */
+    @Override
+    public int childCount()
+    {
+        if ( myBuffer != null ) {
+            return myBuffer.childCount();
+        }
+        int count = 0;
+        for ( Element c : stream(null, "childCount()") ) {
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Read the children from the stream, {@code method} being the caller, for error messages.
+     */
+    private Iterable<Element> stream(final String ns, String method)
+    {
+        start(method);
+        return new Iterable<Element>() {
+            @Override
+            public Iterator<Element> iterator() {
+                if ( myIterated ) {
+                    throw new IllegalStateException("The children of " + getDisplayName() + " can be iterated only once");
+                }
+                myIterated = true;
+                return new Children(ns);
+            }
+            private boolean myIterated = false;
+        };
+    }
+
+    @Override
+    public void getAttributes(AttributeSlots slots, String[] out)
+    {
+        if ( out.length < slots.size() ) {
+            throw new IllegalArgumentException("Output array too small: " + out.length + " < " + slots.size());
+        }
+        Arrays.fill(out, 0, slots.size(), null);
+        for ( int i = 0; i < myAttrs.length; i += ATTR_SIZE ) {
+            // a name not in the pool is NO_CODE, which is in no slot
+            int slot = slots.getSlot(POOL.getCode(myAttrs[i], myAttrs[i + 1]));
+            if ( slot >= 0 ) {
+                out[slot] = myAttrs[i + 3];
+            }
+        }
+    }
+
+    @Override
+    public void noOtherNCNameAttribute(String[] names, String[] forbidden_ns)
+            throws ToolsException
+    {
+        noOtherNCNameAttribute(AttributeChecker.forArrays(names, forbidden_ns));
+    }
+
+    @Override
+    public void noOtherNCNameAttribute(AttributeChecker checker)
+            throws ToolsException
+    {
+        for ( int i = 0; i < myAttrs.length; i += ATTR_SIZE ) {
+            String ns = myAttrs[i];
+            String local = myAttrs[i + 1];
+            if ( ! checker.isAllowed(ns, local) ) {
+                String name = ns.isEmpty() ? local : myAttrs[i + 2] + ":" + local;
+                throw new ToolsException("@" + name + " not allowed on " + getDisplayName());
+            }
+        }
+    }
+
+    @Override
+    public Sequence getContent()
+            throws ToolsException
+    {
+        return buffer().getContent();
+    }
+
+    @Override
+    public CharSequence getStringValue()
+            throws ToolsException
+    {
+        return buffer().getStringValue();
+    }
+
+    /**
+     * Return a reader over the string value of the element.
+     *
+     * Unless the element has been buffered, the reader reads the text from
+     * the stream, while the caller reads from it, so the text is never kept
+     * in memory.  Like for {@link #children()}, this is only possible once,
+     * and only if the content of this element has not been read yet.
+     */
+    @Override
+    public Reader openTextReader()
+            throws ToolsException
+    {
+        if ( myBuffer != null ) {
+            return myBuffer.openTextReader();
+        }
+        start("openTextReader()");
+        return new TextReader();
+    }
+
+    /**
+     * Return a StAX view of the element and its content.
+     *
+     * Unless the element has been buffered, the view reads the events from
+     * the underlying stream, so the element is never kept in memory.  Like
+     * for {@link #children()}, this is only possible once, and only if the
+     * content of this element has not been read yet.  This is also used by
+     * {@link #replay(org.xml.sax.ContentHandler)}.
+     */
+    @Override
+    public XMLStreamReader openStreamReader()
+            throws ToolsException
+    {
+        if ( myBuffer != null ) {
+            return myBuffer.openStreamReader();
+        }
+        start("openStreamReader()");
+        return new SubtreeReader();
+    }
+
+    @Override
+    public long getDigest()
+            throws ToolsException
+    {
+        return buffer().getDigest();
+    }
+
+    @Override
+    public QName parseQName(String value)
+            throws ToolsException
+    {
+        return myBindings.parseQName(value);
+    }
+
+    @Override
+    public List<QName> parseQNames(CharSequence value)
+            throws ToolsException
+    {
+        return myBindings.parseQNames(value);
+    }
+
+    /**
+     * Return the namespace bindings in scope on this element.
+     *
+     * @return The bindings in scope.
+     */
+    public NamespaceBindings getNamespaceBindings()
+    {
+        return myBindings;
+    }
+
+    /**
+     * Read the entire subtree of this element, and keep it in memory.
+     *
+     * Once buffered, the element can be read any number of times.  This is
+     * only possible if its children have not been read yet.
+     *
+     * @return The buffered copy of this element.
+     *
+     * @throws ToolsException If there is any error reading the stream.
+     *
+     * @throws IllegalStateException If the children of this element have
+     * already been read, or the stream has passed the end of this element.
+     */
+    public TinyElement buffer()
+            throws ToolsException
+    {
+        if ( myBuffer != null ) {
+            return myBuffer;
+        }
+        start("buffer()");
+        TinyBuilder builder = new TinyBuilder();
+        try {
+            List<String> bindings = inScopeBindings();
+            for ( int i = 0; i < bindings.size(); i += 2 ) {
+                builder.startPrefixMapping(bindings.get(i), bindings.get(i + 1));
+            }
+            builder.startElement(myNs, myLocal, getDisplayName(), attributes(myAttrs));
+            XMLStreamReader reader = myCursor.getReader();
+            for ( ; ; ) {
+                int event = myCursor.next();
+                if ( event == XMLStreamConstants.START_ELEMENT ) {
+                    for ( int i = 0; i < reader.getNamespaceCount(); ++i ) {
+                        builder.startPrefixMapping(nonNull(reader.getNamespacePrefix(i)), nonNull(reader.getNamespaceURI(i)));
+                    }
+                    builder.startElement(nonNull(reader.getNamespaceURI()), reader.getLocalName(), qname(reader), attributes(reader));
+                }
+                else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                    if ( myCursor.getDepth() < myDepth ) {
+                        break;
+                    }
+                    builder.endElement(nonNull(reader.getNamespaceURI()), reader.getLocalName(), qname(reader));
+                }
+                else if ( event == XMLStreamConstants.CHARACTERS
+                        || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE ) {
+                    builder.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+            builder.endElement(myNs, myLocal, getDisplayName());
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error reading the content of " + getDisplayName(), ex);
+        }
+        catch ( SAXException ex ) {
+            throw new ToolsException("Error buffering the content of " + getDisplayName(), ex);
+        }
+        myBuffer = builder.getTree().getRoot();
+        return myBuffer;
+    }
+
+    int getDepth()
+    {
+        return myDepth;
+    }
+
+    /**
+     * Check the children of this element can be read, and mark them as read by {@code method}.
+     */
+    private void start(String method)
+    {
+        if ( myStartedBy != null ) {
+            throw new IllegalStateException("The content of " + getDisplayName()
+                + " can be read only once, it has already been read by " + myStartedBy);
+        }
+        if ( ! myCursor.isOpen(this) || myCursor.getDepth() != myDepth ) {
+            throw new IllegalStateException("The stream has already passed the content of " + getDisplayName());
+        }
+        myStartedBy = method;
+    }
+
+    /**
+     * Return the bindings in scope, as a list of prefixes and URIs.
+     */
+    private List<String> inScopeBindings()
+    {
+        List<String> result = new ArrayList<String>();
+        for ( String prefix : myBindings.getPrefixes() ) {
+            result.add(prefix);
+            result.add(myBindings.getNamespaceUri(prefix));
+        }
+        return result;
+    }
+
+    private static AttributesImpl attributes(String[] attrs)
+    {
+        AttributesImpl result = new AttributesImpl();
+        for ( int i = 0; i < attrs.length; i += ATTR_SIZE ) {
+            String qname = attrs[i + 2].isEmpty() ? attrs[i + 1] : attrs[i + 2] + ":" + attrs[i + 1];
+            result.addAttribute(attrs[i], attrs[i + 1], qname, "CDATA", attrs[i + 3]);
+        }
+        return result;
+    }
+
+    private static AttributesImpl attributes(XMLStreamReader reader)
+    {
+        AttributesImpl result = new AttributesImpl();
+        for ( int i = 0; i < reader.getAttributeCount(); ++i ) {
+            String prefix = nonNull(reader.getAttributePrefix(i));
+            String local = reader.getAttributeLocalName(i);
+            String qname = prefix.isEmpty() ? local : prefix + ":" + local;
+            result.addAttribute(nonNull(reader.getAttributeNamespace(i)), local, qname, "CDATA", reader.getAttributeValue(i));
+        }
+        return result;
+    }
+
+    private static String qname(XMLStreamReader reader)
+    {
+        String prefix = nonNull(reader.getPrefix());
+        return prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static String nonNull(String s)
+    {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Iterate over the children of this element, reading the stream.
+     */
+    private class Children
+            implements Iterator<Element>
+    {
+        public Children(String ns)
+        {
+            myFilter = ns;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if ( myNext != null ) {
+                return true;
+            }
+            if ( myDone ) {
+                return false;
+            }
+            if ( ! myCursor.isOpen(StaxElement.this) ) {
+                throw new IllegalStateException("The stream has already passed the content of " + getDisplayName());
+            }
+            try {
+                for ( ; ; ) {
+                    // skip what has not been read from the previous child
+                    myCursor.skipTo(myDepth);
+                    int event = myCursor.next();
+                    if ( event == XMLStreamConstants.START_ELEMENT ) {
+                        String ns = nonNull(myCursor.getReader().getNamespaceURI());
+                        if ( myFilter == null || myFilter.equals(ns) ) {
+                            myNext = new StaxElement(myCursor, StaxElement.this);
+                            myCursor.setOpen(myNext);
+                            return true;
+                        }
+                    }
+                    else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                        myDone = true;
+                        return false;
+                    }
+                }
+            }
+            catch ( XMLStreamException ex ) {
+                throw new IllegalStateException("Error reading the content of " + getDisplayName(), ex);
+            }
+        }
+
+        @Override
+        public Element next()
+        {
+            if ( ! hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            Element next = myNext;
+            myNext = null;
+            return next;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException("Streaming elements are read-only");
+        }
+
+        private final String myFilter;
+        private StaxElement myNext = null;
+        private boolean myDone = false;
+    }
+
+    /**
+     * Read the text descendants of this element, from the stream.
+     */
+    private class TextReader
+            extends Reader
+    {
+        @Override
+        public int read(char[] buf, int off, int len)
+                throws IOException
+        {
+            if ( len == 0 ) {
+                return 0;
+            }
+            try {
+                XMLStreamReader reader = myCursor.getReader();
+                // move to the next text event with characters left, if needed
+                while ( myPos == myLength ) {
+                    if ( myDone ) {
+                        return -1;
+                    }
+                    int event = myCursor.next();
+                    if ( event == XMLStreamConstants.END_ELEMENT && myCursor.getDepth() < myDepth ) {
+                        myDone = true;
+                    }
+                    else if ( event == XMLStreamConstants.CHARACTERS
+                            || event == XMLStreamConstants.CDATA
+                            || event == XMLStreamConstants.SPACE ) {
+                        myPos = 0;
+                        myLength = reader.getTextLength();
+                    }
+                }
+                int count = reader.getTextCharacters(myPos, buf, off, Math.min(len, myLength - myPos));
+                myPos += count;
+                return count;
+            }
+            catch ( XMLStreamException ex ) {
+                throw new IOException("Error reading the text of " + getDisplayName(), ex);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            // the rest of the element is skipped by the next read on the stream
+        }
+
+        // the position in the current text event, and its length
+        private int myPos = 0;
+        private int myLength = 0;
+        private boolean myDone = false;
+    }
+
+    /**
+     * A view of the stream, limited to the subtree of this element.
+     *
+     * The events are read through the cursor, so the other elements of the
+     * document see the stream moving.  All the bindings in scope are declared
+     * on the start tag of this element, and comments and processing
+     * instructions are skipped, like the views over trees.
+     */
+    private class SubtreeReader
+            extends StreamReaderDelegate
+    {
+        public SubtreeReader()
+        {
+            super(myCursor.getReader());
+            myPrefixes = myBindings.getPrefixes();
+        }
+
+        @Override
+        public int next()
+                throws XMLStreamException
+        {
+            if ( myEnded ) {
+                throw new NoSuchElementException("No more events after the end of " + getDisplayName());
+            }
+            if ( ! myTop && super.getEventType() == XMLStreamConstants.END_ELEMENT && myCursor.getDepth() < myDepth ) {
+                myEnded = true;
+                return XMLStreamConstants.END_DOCUMENT;
+            }
+            myTop = false;
+            int event = myCursor.next();
+            while ( event == XMLStreamConstants.COMMENT || event == XMLStreamConstants.PROCESSING_INSTRUCTION ) {
+                event = myCursor.next();
+            }
+            return event;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return ! myEnded;
+        }
+
+        @Override
+        public int getEventType()
+        {
+            return myEnded ? XMLStreamConstants.END_DOCUMENT : super.getEventType();
+        }
+
+        @Override
+        public int nextTag()
+                throws XMLStreamException
+        {
+            int event = next();
+            while ( (event == XMLStreamConstants.CHARACTERS && isWhiteSpace()) || event == XMLStreamConstants.SPACE ) {
+                event = next();
+            }
+            if ( event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT ) {
+                throw new XMLStreamException("Expected a start or end tag, got event " + event);
+            }
+            return event;
+        }
+
+        @Override
+        public String getElementText()
+                throws XMLStreamException
+        {
+            if ( getEventType() != XMLStreamConstants.START_ELEMENT ) {
+                throw new XMLStreamException("Not on a start tag");
+            }
+            StringBuilder buf = new StringBuilder();
+            for ( int event = next(); event != XMLStreamConstants.END_ELEMENT; event = next() ) {
+                if ( event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_DOCUMENT ) {
+                    throw new XMLStreamException("Element with element content: " + getName());
+                }
+                buf.append(getText());
+            }
+            return buf.toString();
+        }
+
+        @Override
+        public int getNamespaceCount()
+        {
+            return myTop ? myPrefixes.length : super.getNamespaceCount();
+        }
+
+        @Override
+        public String getNamespacePrefix(int index)
+        {
+            if ( myTop ) {
+                return myPrefixes[index].isEmpty() ? null : myPrefixes[index];
+            }
+            return super.getNamespacePrefix(index);
+        }
+
+        @Override
+        public String getNamespaceURI(int index)
+        {
+            return myTop ? myBindings.getNamespaceUri(myPrefixes[index]) : super.getNamespaceURI(index);
+        }
+
+        @Override
+        public void close()
+        {
+            // the underlying reader is still used by the rest of the document
+        }
+
+        // the prefixes in scope on this element
+        private final String[] myPrefixes;
+        // whether the current event is the start tag of this element, or the end of the view
+        private boolean myTop = true;
+        private boolean myEnded = false;
+    }
+
+    /** The number of strings for each attribute: ns, local name, prefix and value. */
+    private static final int ATTR_SIZE = 4;
+    private static final NamePool POOL = NamePool.getDefault();
+
+    private final StaxCursor myCursor;
+    private final StaxElement myParent;
+    private final int myDepth;
+    private final String myNs;
+    private final String myLocal;
+    private final String myPrefix;
+    private final String[] myAttrs;
+    private final NamespaceBindings myBindings;
+    // the method which has read the content, or null if not read yet
+    private String myStartedBy = null;
+    private TinyElement myBuffer = null;
+    private List<Attribute> myAttributes = null;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
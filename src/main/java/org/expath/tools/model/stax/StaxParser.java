@@ -0,0 +1,113 @@
+/****************************************************************************/
+/*  File:       StaxParser.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.stax;
+
+import java.io.InputStream;
+import java.io.Reader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.expath.tools.ToolsException;
+
+/**
+ * Open documents as {@link StaxElement} objects, streaming their content.
+ *
+ * Nothing is read but the start tag of the root element when a document is
+ * opened, the rest is read on demand, while the elements are used.  So the
+ * input must stay open as long as the elements are used, and it is up to the
+ * caller to close it afterwards.
+ *
+ * @author agent
+ */
+public class StaxParser
+{
+    /**
+     * Open a document from an input stream.
+     *
+     * The encoding is detected from the byte order mark or the XML declaration.
+     *
+     * @param in The stream to read the encoded document from.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error reading the root element.
+     */
+    public StaxElement parse(InputStream in)
+            throws ToolsException
+    {
+        try {
+            XMLStreamReader reader;
+            // the factory is configured once, but creating readers is not
+            // required to be thread-safe
+            synchronized ( FACTORY ) {
+                reader = FACTORY.createXMLStreamReader(in);
+            }
+            return StaxElement.open(reader);
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error opening the XML document", ex);
+        }
+    }
+
+    /**
+     * Open a document from a character stream.
+     *
+     * @param in The stream to read the document from.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error reading the root element.
+     */
+    public StaxElement parse(Reader in)
+            throws ToolsException
+    {
+        try {
+            XMLStreamReader reader;
+            synchronized ( FACTORY ) {
+                reader = FACTORY.createXMLStreamReader(in);
+            }
+            return StaxElement.open(reader);
+        }
+        catch ( XMLStreamException ex ) {
+            throw new ToolsException("Error opening the XML document", ex);
+        }
+    }
+
+    private static XMLInputFactory newFactory()
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    private static final XMLInputFactory FACTORY = newFactory();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
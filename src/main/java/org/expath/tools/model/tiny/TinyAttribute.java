@@ -0,0 +1,101 @@
+/****************************************************************************/
+/*  File:       TinyAttribute.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import org.expath.tools.model.AbstractAttribute;
+import org.expath.tools.model.NamespaceBindings;
+
+/**
+ * A read-only attribute, a view over an attribute in a {@link TinyTree}.
+ *
+ * @author agent
+ */
+public final class TinyAttribute
+        extends AbstractAttribute
+{
+    TinyAttribute(TinyTree tree, int node, int attr)
+    {
+        myTree = tree;
+        myNode = node;
+        myAttr = attr;
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return myTree.attrLocalName(myAttr);
+    }
+
+    @Override
+    public String getNamespaceUri()
+    {
+        return myTree.attrNamespaceUri(myAttr);
+    }
+
+    @Override
+    public int getNameCode()
+    {
+        return myTree.attrNameCode(myAttr);
+    }
+
+    @Override
+    public String getValue()
+    {
+        return myTree.attrValue(myAttr);
+    }
+
+    @Override
+    protected NamespaceBindings getNamespaceBindings()
+    {
+        return myTree.bindings(myNode);
+    }
+
+    /**
+     * The typed values are cached in the tree, as attribute objects are only
+     * views created on demand.
+     */
+    @Override
+    protected Object getTypedValue()
+    {
+        return myTree.typedValue(myAttr);
+    }
+
+    @Override
+    protected void setTypedValue(Object value)
+    {
+        myTree.typedValue(myAttr, value);
+    }
+
+    private final TinyTree myTree;
+    // the element of the attribute
+    private final int myNode;
+    private final int myAttr;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
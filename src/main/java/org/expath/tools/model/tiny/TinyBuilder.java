@@ -0,0 +1,393 @@
+/****************************************************************************/
+/*  File:       TinyBuilder.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import org.expath.tools.model.ParseLimitChecker;
+import org.expath.tools.model.ParseLimitException;
+import org.expath.tools.model.ParseLimits;
+import org.expath.tools.model.Projection;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Build a {@link TinyTree} from SAX events.
+ *
+ * A builder can be used as the content handler of any SAX parser, or fed
+ * with events from any other source.  It builds one tree, which is returned
+ * by {@link #getTree()} once the events for the root element have been
+ * received.  The prefix mappings for an element must be sent before the
+ * element itself, like SAX parsers do.
+ *
+ * The nodes are appended to growable arrays, in document order, and the
+ * final (trimmed) arrays are given to the tree once the document has been
+ * parsed.  The projection and the limits of the parser are applied while
+ * receiving the events, so skipped elements are never stored (but they are
+ * counted by the {@link ParseLimitChecker}).  A violation of a limit is thrown
+ * as a {@link SAXException} wrapping a {@link ParseLimitException}.
+ *
+ * @author agent
+ */
+public class TinyBuilder
+        extends DefaultHandler
+{
+    /**
+     * Create a builder keeping all the nodes received.
+     */
+    public TinyBuilder()
+    {
+        myProjection = null;
+        myChecker = null;
+        myStrip = false;
+    }
+
+    /**
+     * Create a builder applying the options of a parser.
+     */
+    TinyBuilder(TinyParser parser)
+    {
+        ParseLimits limits = parser.getLimits();
+        myProjection = parser.getProjection();
+        myChecker = limits == null ? null : new ParseLimitChecker(limits);
+        myStrip = parser.isStripWhitespace();
+    }
+
+    /**
+     * Return the tree, once the document has been parsed.
+     *
+     * @return The tree.
+     */
+    public TinyTree getTree()
+    {
+        if ( mySize == 0 || myDepth > 0 ) {
+            throw new IllegalStateException("The root element has not been built yet");
+        }
+        int n = mySize;
+        myAttrStarts[n] = myAttrCount;
+        myNsStarts[n] = myNsCount;
+        myTextStarts[n] = myChars.length();
+        char[] chars = new char[myChars.length()];
+        myChars.getChars(0, chars.length, chars, 0);
+        return new TinyTree(n,
+            Arrays.copyOf(myKinds, n),
+            Arrays.copyOf(myNames, n),
+            Arrays.copyOf(myPrefixes, n),
+            Arrays.copyOf(myParents, n),
+            Arrays.copyOf(myNexts, n),
+            Arrays.copyOf(myAttrStarts, n + 1),
+            Arrays.copyOf(myAttrNames, myAttrCount),
+            Arrays.copyOf(myAttrPrefixes, myAttrCount),
+            Arrays.copyOf(myAttrValues, myAttrCount),
+            Arrays.copyOf(myNsStarts, n + 1),
+            Arrays.copyOf(myNsPrefixes, myNsCount),
+            Arrays.copyOf(myNsUris, myNsCount),
+            Arrays.copyOf(myTextStarts, n + 1),
+            chars,
+            myPrefixTable.toArray(new String[myPrefixTable.size()]),
+            myNameUris.toArray(new String[myNameUris.size()]),
+            myNameLocals.toArray(new String[myNameLocals.size()]),
+            myNameCodes);
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri)
+    {
+        ++myDeclared;
+        if ( mySkipped > 0 ) {
+            return;
+        }
+        if ( myNsCount == myNsPrefixes.length ) {
+            myNsPrefixes = Arrays.copyOf(myNsPrefixes, 2 * myNsCount);
+            myNsUris = Arrays.copyOf(myNsUris, 2 * myNsCount);
+        }
+        myNsPrefixes[myNsCount] = prefix;
+        myNsUris[myNsCount] = uri;
+        ++myNsCount;
+        ++myPendingNs;
+    }
+
+    @Override
+    public void startElement(String uri, String local, String qname, Attributes attrs)
+            throws SAXException
+    {
+        int declared = myDeclared;
+        myDeclared = 0;
+        if ( myChecker != null ) {
+            try {
+                // count namespace declarations, like the DOM parser does
+                myChecker.startElement(attrs.getLength() + declared);
+            }
+            catch ( ParseLimitException ex ) {
+                throw new SAXException(ex);
+            }
+        }
+        if ( mySkipped > 0 ) {
+            ++mySkipped;
+            return;
+        }
+        flushText();
+        int depth = myDepth + 1;
+        long state = 0;
+        if ( myProjection != null ) {
+            state = depth == 1
+                ? myProjection.rootState()
+                : myProjection.childState(myStates[myDepth - 1], depth, uri, local);
+            if ( state == 0 ) {
+                // drop the bindings declared on the skipped element
+                myNsCount -= myPendingNs;
+                myPendingNs = 0;
+                mySkipped = 1;
+                return;
+            }
+        }
+        int node = newNode(TinyTree.ELEMENT);
+        myNames[node] = nameCode(uri, local);
+        myPrefixes[node] = prefixCode(qname);
+        myPendingNs = 0;
+        boolean preserve = myDepth > 0 && myPreserve[myDepth - 1];
+        for ( int i = 0; i < attrs.getLength(); ++i ) {
+            String attr_uri = attrs.getURI(i);
+            String attr_local = attrs.getLocalName(i);
+            String value = attrs.getValue(i);
+            if ( myAttrCount == myAttrNames.length ) {
+                myAttrNames = Arrays.copyOf(myAttrNames, 2 * myAttrCount);
+                myAttrPrefixes = Arrays.copyOf(myAttrPrefixes, 2 * myAttrCount);
+                myAttrValues = Arrays.copyOf(myAttrValues, 2 * myAttrCount);
+            }
+            myAttrNames[myAttrCount] = nameCode(attr_uri, attr_local);
+            myAttrPrefixes[myAttrCount] = prefixCode(attrs.getQName(i));
+            myAttrValues[myAttrCount] = value;
+            ++myAttrCount;
+            if ( XMLConstants.XML_NS_URI.equals(attr_uri) && "space".equals(attr_local) ) {
+                preserve = "preserve".equals(value);
+            }
+        }
+        if ( myDepth == myOpen.length ) {
+            myOpen = Arrays.copyOf(myOpen, 2 * myDepth);
+            myLast = Arrays.copyOf(myLast, 2 * myDepth);
+            myStates = Arrays.copyOf(myStates, 2 * myDepth);
+            myPreserve = Arrays.copyOf(myPreserve, 2 * myDepth);
+        }
+        myOpen[myDepth] = node;
+        myLast[myDepth] = -1;
+        myStates[myDepth] = state;
+        myPreserve[myDepth] = preserve;
+        ++myDepth;
+    }
+
+    @Override
+    public void endElement(String uri, String local, String qname)
+            throws SAXException
+    {
+        if ( myChecker != null ) {
+            myChecker.endElement();
+        }
+        if ( mySkipped > 0 ) {
+            --mySkipped;
+            return;
+        }
+        flushText();
+        --myDepth;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+            throws SAXException
+    {
+        if ( myChecker != null ) {
+            try {
+                myChecker.text(length);
+            }
+            catch ( ParseLimitException ex ) {
+                throw new SAXException(ex);
+            }
+        }
+        if ( mySkipped > 0 || myDepth == 0 ) {
+            return;
+        }
+        myText.append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length)
+            throws SAXException
+    {
+        characters(ch, start, length);
+    }
+
+    private void flushText()
+    {
+        if ( myText.length() == 0 ) {
+            return;
+        }
+        if ( ! myStrip || myPreserve[myDepth - 1] || ! isWhitespace(myText) ) {
+            newNode(TinyTree.TEXT);
+            myChars.append(myText);
+        }
+        myText.setLength(0);
+    }
+
+    /**
+     * Append a new node, child of the current element, and return its index.
+     */
+    private int newNode(byte kind)
+    {
+        int node = mySize;
+        if ( node + 1 >= myKinds.length ) {
+            int capacity = 2 * myKinds.length;
+            myKinds = Arrays.copyOf(myKinds, capacity);
+            myNames = Arrays.copyOf(myNames, capacity);
+            myPrefixes = Arrays.copyOf(myPrefixes, capacity);
+            myParents = Arrays.copyOf(myParents, capacity);
+            myNexts = Arrays.copyOf(myNexts, capacity);
+            myAttrStarts = Arrays.copyOf(myAttrStarts, capacity);
+            myNsStarts = Arrays.copyOf(myNsStarts, capacity);
+            myTextStarts = Arrays.copyOf(myTextStarts, capacity);
+        }
+        myKinds[node] = kind;
+        myNames[node] = -1;
+        myPrefixes[node] = 0;
+        myNexts[node] = -1;
+        myAttrStarts[node] = myAttrCount;
+        // the pending bindings are the ones of the next element
+        myNsStarts[node] = myNsCount - myPendingNs;
+        myTextStarts[node] = myChars.length();
+        if ( myDepth == 0 ) {
+            myParents[node] = -1;
+        }
+        else {
+            myParents[node] = myOpen[myDepth - 1];
+            int previous = myLast[myDepth - 1];
+            if ( previous >= 0 ) {
+                myNexts[previous] = node;
+            }
+            myLast[myDepth - 1] = node;
+        }
+        ++mySize;
+        return node;
+    }
+
+    /**
+     * Return the code of a name in the name table of the tree, adding it if needed.
+     */
+    private int nameCode(String uri, String local)
+    {
+        String ns = uri == null ? "" : uri;
+        Map<String, Integer> locals = myNameCodes.get(ns);
+        if ( locals == null ) {
+            locals = new HashMap<String, Integer>();
+            myNameCodes.put(ns, locals);
+        }
+        Integer code = locals.get(local);
+        if ( code == null ) {
+            code = myNameLocals.size();
+            myNameUris.add(ns);
+            myNameLocals.add(local);
+            locals.put(local, code);
+        }
+        return code;
+    }
+
+    private int prefixCode(String qname)
+    {
+        int colon = qname.indexOf(':');
+        if ( colon < 0 ) {
+            return 0;
+        }
+        String prefix = qname.substring(0, colon);
+        Integer code = myPrefixCodes.get(prefix);
+        if ( code == null ) {
+            code = myPrefixTable.size();
+            myPrefixTable.add(prefix);
+            myPrefixCodes.put(prefix, code);
+        }
+        return code;
+    }
+
+    private static boolean isWhitespace(CharSequence text)
+    {
+        for ( int i = 0; i < text.length(); ++i ) {
+            char c = text.charAt(i);
+            if ( c != ' ' && c != '\n' && c != '\r' && c != '\t' ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final Projection myProjection;
+    private final ParseLimitChecker myChecker;
+    private final boolean myStrip;
+    // the nodes, see TinyTree
+    private int mySize = 0;
+    private byte[] myKinds = new byte[64];
+    private int[] myNames = new int[64];
+    private int[] myPrefixes = new int[64];
+    private int[] myParents = new int[64];
+    private int[] myNexts = new int[64];
+    private int[] myAttrStarts = new int[64];
+    private int[] myNsStarts = new int[64];
+    private int[] myTextStarts = new int[64];
+    private int myAttrCount = 0;
+    private int[] myAttrNames = new int[16];
+    private int[] myAttrPrefixes = new int[16];
+    private String[] myAttrValues = new String[16];
+    private int myNsCount = 0;
+    private String[] myNsPrefixes = new String[8];
+    private String[] myNsUris = new String[8];
+    private final StringBuilder myChars = new StringBuilder();
+    // the name table, and the codes by namespace URI then local name
+    private final List<String> myNameUris = new ArrayList<String>();
+    private final List<String> myNameLocals = new ArrayList<String>();
+    private final Map<String, Map<String, Integer>> myNameCodes = new HashMap<String, Map<String, Integer>>();
+    // the prefix table (the prefix 0 is the empty prefix)
+    private final Map<String, Integer> myPrefixCodes = new HashMap<String, Integer>();
+    private final List<String> myPrefixTable = new ArrayList<String>(Arrays.asList(""));
+    // the stack of open elements, with their last child, projection state and xml:space
+    private int[] myOpen = new int[16];
+    private int[] myLast = new int[16];
+    private long[] myStates = new long[16];
+    private boolean[] myPreserve = new boolean[16];
+    private int myDepth = 0;
+    // the depth within a skipped element, 0 if not in a skipped element
+    private int mySkipped = 0;
+    // the number of bindings stored for the next element
+    private int myPendingNs = 0;
+    // the number of bindings declared for the next element, even if skipped
+    private int myDeclared = 0;
+    private final StringBuilder myText = new StringBuilder();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
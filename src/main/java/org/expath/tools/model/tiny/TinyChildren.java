@@ -0,0 +1,100 @@
+/****************************************************************************/
+/*  File:       TinyChildren.java                                           */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.expath.tools.model.Element;
+
+/**
+ * A lazy view of the children elements of a node in a {@link TinyTree}.
+ *
+ * The iterator walks the sibling indexes of the tree, and creates the
+ * element views only for the children actually returned.
+ *
+ * @author agent
+ */
+class TinyChildren
+        implements Iterable<Element>
+{
+    /**
+     * Create a view of the children of {@code node}.
+     *
+     * @param ns The namespace of the children to keep, or {@code null} for all.
+     */
+    public TinyChildren(TinyTree tree, int node, String ns)
+    {
+        myTree = tree;
+        myNode = node;
+        myNs = ns;
+    }
+
+    @Override
+    public Iterator<Element> iterator()
+    {
+        return new Iterator<Element>() {
+            @Override
+            public boolean hasNext() {
+                return myNext >= 0;
+            }
+            @Override
+            public Element next() {
+                int next = myNext;
+                if ( next < 0 ) {
+                    throw new NoSuchElementException();
+                }
+                myNext = matching(myTree.nextSibling(next));
+                return new TinyElement(myTree, next);
+            }
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Tiny trees are read-only");
+            }
+            private int myNext = matching(myTree.firstChild(myNode));
+        };
+    }
+
+    /**
+     * Return {@code node} or its first following sibling element in the namespace, or -1.
+     */
+    private int matching(int node)
+    {
+        int n = node;
+        while ( n >= 0 && ! (myTree.isElement(n) && (myNs == null || myNs.equals(myTree.namespaceUri(n)))) ) {
+            n = myTree.nextSibling(n);
+        }
+        return n;
+    }
+
+    private final TinyTree myTree;
+    private final int myNode;
+    private final String myNs;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,343 @@
+/****************************************************************************/
+/*  File:       TinyElement.java                                            */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Attribute;
+import org.expath.tools.model.AttributeChecker;
+import org.expath.tools.model.AttributeSlots;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.NamePool;
+import org.expath.tools.model.NamespaceBindings;
+import org.expath.tools.model.Sequence;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * A read-only element, a view over a node in a {@link TinyTree}.
+ *
+ * Comments and processing instructions are not kept in the tree, neither are
+ * namespace declarations as attributes (they are only used to resolve QNames
+ * and to serialize).
+ *
+ * @author agent
+ */
+public final class TinyElement
+        implements Element
+{
+    TinyElement(TinyTree tree, int node)
+    {
+        myTree = tree;
+        myNode = node;
+    }
+
+    @Override
+    public String getLocalName()
+    {
+        return myTree.localName(myNode);
+    }
+
+    @Override
+    public String getNamespaceUri()
+    {
+        return myTree.namespaceUri(myNode);
+    }
+
+    @Override
+    public int getNameCode()
+    {
+        return myTree.nameCode(myNode);
+    }
+
+    @Override
+    public String getDisplayName()
+    {
+        String prefix = myTree.prefix(myNode);
+        String local = myTree.localName(myNode);
+        return prefix.isEmpty() ? local : prefix + ":" + local;
+    }
+
+    @Override
+    public String getAttribute(String local_name)
+    {
+        for ( int a = myTree.attrStart(myNode); a < myTree.attrEnd(myNode); ++a ) {
+            if ( myTree.attrNamespaceUri(a).isEmpty() && myTree.attrLocalName(a).equals(local_name) ) {
+                return myTree.attrValue(a);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getAttribute(String ns, String local_name)
+    {
+        int code = myTree.treeCode(ns, local_name);
+        if ( code < 0 ) {
+            return null;
+        }
+        for ( int a = myTree.attrStart(myNode); a < myTree.attrEnd(myNode); ++a ) {
+            if ( myTree.attrTreeCode(a) == code ) {
+                return myTree.attrValue(a);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void getAttributes(AttributeSlots slots, String[] out)
+    {
+        if ( out.length < slots.size() ) {
+            throw new IllegalArgumentException("Output array too small: " + out.length + " < " + slots.size());
+        }
+        Arrays.fill(out, 0, slots.size(), null);
+        for ( int a = myTree.attrStart(myNode); a < myTree.attrEnd(myNode); ++a ) {
+            int slot = slots.getSlot(myTree.attrNameCode(a));
+            if ( slot >= 0 ) {
+                out[slot] = myTree.attrValue(a);
+            }
+        }
+    }
+
+    @Override
+    public Iterable<Attribute> attributes()
+    {
+        // a view over the range of the attributes, they are created while iterating
+        final int start = myTree.attrStart(myNode);
+        final int end = myTree.attrEnd(myNode);
+        return new Iterable<Attribute>() {
+            @Override
+            public Iterator<Attribute> iterator() {
+                return new Iterator<Attribute>() {
+                    @Override
+                    public boolean hasNext() {
+                        return myPos < end;
+                    }
+                    @Override
+                    public Attribute next() {
+                        if ( myPos >= end ) {
+                            throw new NoSuchElementException();
+                        }
+                        return new TinyAttribute(myTree, myNode, myPos++);
+                    }
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("Tiny trees are read-only");
+                    }
+                    private int myPos = start;
+                };
+            }
+        };
+    }
+
+    @Override
+    public boolean hasNoNsChild()
+    {
+        for ( int n = myTree.firstChild(myNode); n >= 0; n = myTree.nextSibling(n) ) {
+            if ( myTree.isElement(n) && myTree.namespaceUri(n).isEmpty() ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterable<Element> children()
+    {
+        return new TinyChildren(myTree, myNode, null);
+    }
+
+    @Override
+    public Iterable<Element> children(String ns)
+    {
+        return new TinyChildren(myTree, myNode, ns);
+    }
+
+    @Override
+    public Element child(String ns, String local)
+    {
+        TinyTree.Children children = myTree.children(myNode);
+        int pos = children.names.first(myTree.treeCode(ns, local));
+        return pos < 0 ? null : new TinyElement(myTree, children.nodes[pos]);
+    }
+
+    @Override
+    public Iterable<Element> children(String ns, String local)
+    {
+        final TinyTree.Children children = myTree.children(myNode);
+        final int first = children.names.first(myTree.treeCode(ns, local));
+        return new Iterable<Element>() {
+            @Override
+            public Iterator<Element> iterator() {
+                return new Iterator<Element>() {
+                    @Override
+                    public boolean hasNext() {
+                        return myPos >= 0;
+                    }
+                    @Override
+                    public Element next() {
+                        if ( myPos < 0 ) {
+                            throw new NoSuchElementException();
+                        }
+                        int next = children.nodes[myPos];
+                        myPos = children.names.next(myPos);
+                        return new TinyElement(myTree, next);
+                    }
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("Tiny trees are read-only");
+                    }
+                    private int myPos = first;
+                };
+            }
+        };
+    }
+
+    @Override
+    public int childCount()
+    {
+        return myTree.children(myNode).nodes.length;
+    }
+
+    @Override
+    public void noOtherNCNameAttribute(String[] names, String[] forbidden_ns)
+            throws ToolsException
+    {
+        noOtherNCNameAttribute(AttributeChecker.forArrays(names, forbidden_ns));
+    }
+
+    @Override
+    public void noOtherNCNameAttribute(AttributeChecker checker)
+            throws ToolsException
+    {
+        for ( int a = myTree.attrStart(myNode); a < myTree.attrEnd(myNode); ++a ) {
+            int code = myTree.attrNameCode(a);
+            boolean allowed = code == NamePool.NO_CODE
+                ? checker.isAllowed(myTree.attrNamespaceUri(a), myTree.attrLocalName(a))
+                : checker.isAllowed(code);
+            if ( ! allowed ) {
+                throw new ToolsException("@" + myTree.attrDisplayName(a) + " not allowed on " + getDisplayName());
+            }
+        }
+    }
+
+    @Override
+    public Sequence getContent()
+    {
+        return new TinySequence(myTree, myTree.firstChild(myNode), false);
+    }
+
+    @Override
+    public CharSequence getStringValue()
+    {
+        return myTree.stringValue(myNode);
+    }
+
+    @Override
+    public Reader openTextReader()
+    {
+        return myTree.textReader(myNode);
+    }
+
+    @Override
+    public XMLStreamReader openStreamReader()
+    {
+        return new TinyStreamReader(myTree, myNode);
+    }
+
+    @Override
+    public void replay(ContentHandler handler)
+            throws ToolsException
+    {
+        try {
+            handler.startDocument();
+            myTree.send(myNode, handler);
+            handler.endDocument();
+        }
+        catch ( SAXException ex ) {
+            throw new ToolsException("Error replaying " + getDisplayName(), ex);
+        }
+    }
+
+    @Override
+    public long getDigest()
+    {
+        return myTree.digest(myNode);
+    }
+
+    @Override
+    public QName parseQName(String value)
+            throws ToolsException
+    {
+        return myTree.bindings(myNode).parseQName(value);
+    }
+
+    @Override
+    public List<QName> parseQNames(CharSequence value)
+            throws ToolsException
+    {
+        return myTree.bindings(myNode).parseQNames(value);
+    }
+
+    /**
+     * Return the namespace bindings in scope on this element.
+     *
+     * @return The bindings in scope.
+     */
+    public NamespaceBindings getNamespaceBindings()
+    {
+        return myTree.bindings(myNode);
+    }
+
+    /**
+     * Return the tree this element is part of.
+     *
+     * @return The tree.
+     */
+    public TinyTree getTree()
+    {
+        return myTree;
+    }
+
+    int getNode()
+    {
+        return myNode;
+    }
+
+    private final TinyTree myTree;
+    private final int myNode;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
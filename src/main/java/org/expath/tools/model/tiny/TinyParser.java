@@ -0,0 +1,245 @@
+/****************************************************************************/
+/*  File:       TinyParser.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.LimitedInputStream;
+import org.expath.tools.model.ParseLimitException;
+import org.expath.tools.model.ParseLimits;
+import org.expath.tools.model.Projection;
+import org.expath.tools.model.SaxParserPool;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Parse documents straight into {@link TinyTree} objects, from SAX events.
+ *
+ * No DOM tree is built: the nodes are stored directly from the events into
+ * arrays of primitives.  The resulting trees are read-only, and much smaller
+ * than the equivalent DOM trees (a few ints per node, instead of several
+ * objects).
+ *
+ * The SAX parsers are borrowed from a {@link SaxParserPool}, so the same
+ * object can be used concurrently by several threads.  The options must be
+ * set before the parser is used for the first time, and not changed while it
+ * is used by other threads.
+ *
+ * Only elements, attributes, namespace bindings and text are kept: comments
+ * and processing instructions are dropped while parsing (the text around
+ * them is joined in one text node).  So {@link Element#getContent()} does not
+ * return them, contrary to the content of a {@link
+ * org.expath.tools.model.dom.DomElement}.
+ *
+ * @author agent
+ */
+public class TinyParser
+{
+    /**
+     * Create a parser using the default pool.
+     */
+    public TinyParser()
+    {
+        this(null);
+    }
+
+    /**
+     * Create a parser using a specific pool.
+     *
+     * @param pool The pool to borrow SAX parsers from, or {@code null} to use
+     * the default pool at the time of each parse.
+     */
+    public TinyParser(SaxParserPool pool)
+    {
+        myPool = pool;
+    }
+
+    /**
+     * Set whether to strip all whitespace-only text nodes (off by default).
+     *
+     * Whitespace-only text nodes in the scope of {@code xml:space="preserve"}
+     * are always kept.
+     *
+     * @param strip {@code true} to strip whitespace-only text nodes.
+     */
+    public void setStripWhitespace(boolean strip)
+    {
+        myStrip = strip;
+    }
+
+    /**
+     * Return whether whitespace-only text nodes are stripped.
+     *
+     * @return {@code true} if whitespace-only text nodes are stripped.
+     */
+    public boolean isStripWhitespace()
+    {
+        return myStrip;
+    }
+
+    /**
+     * Set the projection of the documents (by default the entire documents are kept).
+     *
+     * @param projection The projection to apply, or {@code null} to keep the
+     * entire documents.
+     */
+    public void setProjection(Projection projection)
+    {
+        myProjection = projection;
+    }
+
+    /**
+     * Return the projection of the documents.
+     *
+     * @return The projection, or {@code null} if the entire documents are kept.
+     */
+    public Projection getProjection()
+    {
+        return myProjection;
+    }
+
+    /**
+     * Set the limits on the resources used to parse each document.
+     *
+     * @param limits The limits to apply, or {@code null} for no limit.
+     */
+    public void setLimits(ParseLimits limits)
+    {
+        myLimits = limits;
+    }
+
+    /**
+     * Return the limits on the resources used to parse each document.
+     *
+     * @return The limits, or {@code null} if there is no limit.
+     */
+    public ParseLimits getLimits()
+    {
+        return myLimits;
+    }
+
+    /**
+     * Parse a string.
+     *
+     * @param xml The document to parse.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(String xml)
+            throws ToolsException
+    {
+        if ( myLimits != null && xml.length() > myLimits.getMaxBytes() ) {
+            throw new ParseLimitException(ParseLimits.Kind.BYTES, myLimits.getMaxBytes());
+        }
+        return parse(new InputSource(new StringReader(xml)), null, "Error parsing the XML string");
+    }
+
+    /**
+     * Parse an array of bytes.
+     *
+     * @param bytes The encoded document to parse.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(byte[] bytes)
+            throws ToolsException
+    {
+        return parse(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Parse an input stream.
+     *
+     * The stream is read until the end of the document, but it is not closed.
+     *
+     * @param in The stream to read the encoded document from.
+     *
+     * @return The root element of the document.
+     *
+     * @throws ToolsException If there is any error parsing the document.
+     */
+    public Element parse(InputStream in)
+            throws ToolsException
+    {
+        long max = myLimits == null ? Long.MAX_VALUE : myLimits.getMaxBytes();
+        LimitedInputStream limited = new LimitedInputStream(in, max) {
+            @Override
+            public void close()
+            {
+                // the caller owns the underlying stream, protect it from the parser
+            }
+        };
+        return parse(new InputSource(limited), limited, "Error parsing the XML document");
+    }
+
+    private Element parse(InputSource input, LimitedInputStream limited, String error)
+            throws ToolsException
+    {
+        SaxParserPool pool = myPool == null ? SaxParserPool.getDefault() : myPool;
+        XMLReader reader = pool.acquire();
+        TinyBuilder builder = new TinyBuilder(this);
+        try {
+            reader.setContentHandler(builder);
+            reader.setErrorHandler(builder);
+            reader.parse(input);
+            return builder.getTree().getRoot();
+        }
+        catch ( SAXException ex ) {
+            if ( ex.getException() instanceof ParseLimitException ) {
+                throw (ParseLimitException) ex.getException();
+            }
+            throw new ToolsException(error, ex);
+        }
+        catch ( IOException ex ) {
+            if ( limited != null && limited.getViolation() != null ) {
+                throw limited.getViolation();
+            }
+            throw new ToolsException(error, ex);
+        }
+        finally {
+            pool.release(reader);
+        }
+    }
+
+    private final SaxParserPool myPool;
+    private Projection myProjection = null;
+    private ParseLimits myLimits = null;
+    private boolean myStrip = false;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,182 @@
+/****************************************************************************/
+/*  File:       TinySequence.java                                           */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.io.OutputStream;
+import javax.xml.namespace.QName;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Sequence;
+import org.expath.tools.serial.SerialParameters;
+import org.xml.sax.SAXException;
+
+/**
+ * A sequence of elements and text nodes, from a tree built by a {@link TinyParser}.
+ *
+ * The items are nodes in a {@link TinyTree}: either a node and its following
+ * siblings (the content of an element), or a single node.
+ *
+ * @author agent
+ */
+public class TinySequence
+        implements Sequence
+{
+    /**
+     * Create a sequence of nodes in a tree.
+     *
+     * @param first The first node, or -1 for the empty sequence.
+     *
+     * @param single Whether the sequence is the first node only, or the first
+     * node and all its following siblings.
+     */
+    TinySequence(TinyTree tree, int first, boolean single)
+    {
+        myTree = tree;
+        myFirst = first;
+        myNext = first;
+        mySingle = single;
+    }
+
+    @Override
+    public boolean isEmpty()
+            throws ToolsException
+    {
+        return myNext < 0;
+    }
+
+    @Override
+    public Sequence next()
+            throws ToolsException
+    {
+        if ( myNext < 0 ) {
+            return null;
+        }
+        int node = myNext;
+        myNext = mySingle ? -1 : myTree.nextSibling(node);
+        return new TinySequence(myTree, node, true);
+    }
+
+    /**
+     * Serialize the sequence, using a JAXP identity transformer.
+     *
+     * The serialization parameters supported by JAXP are passed to the
+     * transformer (method, encoding, indent, etc.), the others are ignored.
+     */
+    @Override
+    public void serialize(OutputStream out, SerialParameters params)
+            throws ToolsException
+    {
+        if ( myFirst < 0 ) {
+            return;
+        }
+        try {
+            TransformerHandler handler;
+            // JAXP factories are not thread-safe
+            synchronized ( FACTORY ) {
+                handler = FACTORY.newTransformerHandler();
+            }
+            if ( params != null ) {
+                setOutputProperties(handler.getTransformer(), params);
+            }
+            handler.setResult(new StreamResult(out));
+            handler.startDocument();
+            for ( int n = myFirst; n >= 0; n = mySingle ? -1 : myTree.nextSibling(n) ) {
+                myTree.send(n, handler);
+            }
+            handler.endDocument();
+        }
+        catch ( TransformerConfigurationException ex ) {
+            throw new ToolsException("Error creating the serializer", ex);
+        }
+        catch ( SAXException ex ) {
+            throw new ToolsException("Error serializing the sequence", ex);
+        }
+    }
+
+    private static void setOutputProperties(Transformer trans, SerialParameters params)
+    {
+        QName method = params.getMethod();
+        if ( method != null ) {
+            // JAXP uses the Clark notation for QNames
+            trans.setOutputProperty(OutputKeys.METHOD, method.toString());
+        }
+        setProperty(trans, OutputKeys.ENCODING, params.getEncoding());
+        setProperty(trans, OutputKeys.MEDIA_TYPE, params.getMediaType());
+        setProperty(trans, OutputKeys.DOCTYPE_PUBLIC, params.getDoctypePublic());
+        setProperty(trans, OutputKeys.DOCTYPE_SYSTEM, params.getDoctypeSystem());
+        setProperty(trans, OutputKeys.VERSION, params.getVersion());
+        setProperty(trans, OutputKeys.INDENT, params.getIndent());
+        setProperty(trans, OutputKeys.OMIT_XML_DECLARATION, params.getOmitXmlDeclaration());
+        SerialParameters.Standalone standalone = params.getStandalone();
+        if ( standalone == SerialParameters.Standalone.YES ) {
+            trans.setOutputProperty(OutputKeys.STANDALONE, "yes");
+        }
+        else if ( standalone == SerialParameters.Standalone.NO ) {
+            trans.setOutputProperty(OutputKeys.STANDALONE, "no");
+        }
+        StringBuilder cdata = new StringBuilder();
+        if ( params.getCdataSectionElements() != null ) {
+            for ( QName name : params.getCdataSectionElements() ) {
+                cdata.append(name.toString()).append(' ');
+            }
+        }
+        if ( cdata.length() > 0 ) {
+            trans.setOutputProperty(OutputKeys.CDATA_SECTION_ELEMENTS, cdata.toString().trim());
+        }
+    }
+
+    private static void setProperty(Transformer trans, String name, String value)
+    {
+        if ( value != null ) {
+            trans.setOutputProperty(name, value);
+        }
+    }
+
+    private static void setProperty(Transformer trans, String name, Boolean value)
+    {
+        if ( value != null ) {
+            trans.setOutputProperty(name, value ? "yes" : "no");
+        }
+    }
+
+    private final TinyTree myTree;
+    private final int myFirst;
+    private final boolean mySingle;
+    private int myNext;
+
+    private static final SAXTransformerFactory FACTORY = (SAXTransformerFactory) TransformerFactory.newInstance();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,109 @@
+/****************************************************************************/
+/*  File:       TinyStreamReader.java                                       */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.util.List;
+import org.expath.tools.model.TreeStreamReader;
+
+/**
+ * A StAX view over an element in a {@link TinyTree}.
+ *
+ * The reader walks the arrays of the tree, and the text events point into
+ * the characters of the tree, without copying them.
+ *
+ * @author agent
+ */
+final class TinyStreamReader
+        extends TreeStreamReader
+{
+    public TinyStreamReader(TinyTree tree, int node)
+    {
+        myTree = tree;
+        myTop = node;
+        report(node, true);
+    }
+
+    @Override
+    protected void advance()
+    {
+        if ( myStarted ) {
+            int child = myTree.firstChild(myNode);
+            if ( child >= 0 ) {
+                report(child, false);
+            }
+            else {
+                endElement();
+                myStarted = false;
+            }
+        }
+        else if ( myNode == myTop ) {
+            endDocument();
+        }
+        else {
+            int next = myTree.nextSibling(myNode);
+            if ( next >= 0 ) {
+                report(next, false);
+            }
+            else {
+                myNode = myTree.parent(myNode);
+                endElement();
+            }
+        }
+    }
+
+    /**
+     * Report a node, the start tag of an element or a text node.
+     */
+    private void report(int node, boolean top)
+    {
+        myNode = node;
+        if ( ! myTree.isElement(node) ) {
+            text(myTree.chars(), myTree.textStart(node), myTree.textLength(node));
+            myStarted = false;
+            return;
+        }
+        startElement(myTree.namespaceUri(node), myTree.localName(node), myTree.prefix(node));
+        List<String> bindings = top ? myTree.inScopeBindings(node) : myTree.ownBindings(node);
+        for ( int i = 0; i < bindings.size(); i += 2 ) {
+            addNamespace(bindings.get(i), bindings.get(i + 1));
+        }
+        for ( int a = myTree.attrStart(node); a < myTree.attrEnd(node); ++a ) {
+            addAttribute(myTree.attrNamespaceUri(a), myTree.attrLocalName(a), myTree.attrPrefix(a), myTree.attrValue(a));
+        }
+        myStarted = true;
+    }
+
+    private final TinyTree myTree;
+    private final int myTop;
+    // the current node, and whether the current event is its start tag
+    private int myNode;
+    private boolean myStarted;
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
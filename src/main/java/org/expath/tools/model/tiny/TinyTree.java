@@ -0,0 +1,663 @@
+/****************************************************************************/
+/*  File:       TinyTree.java                                               */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.io.CharArrayReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.expath.tools.model.ChildIndex;
+import org.expath.tools.model.NamePool;
+import org.expath.tools.model.NamespaceBindings;
+import org.expath.tools.model.StructuralDigest;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * An immutable tree, stored in parallel arrays of primitives.
+ *
+ * The nodes (elements and text nodes) are numbered in document order, the
+ * root element being the node 0.  For each node, the tree stores its kind,
+ * its name code, the index of its parent and the index of its next sibling
+ * (or -1).  The first child of a node, if any, is always the next node.  The
+ * attributes, namespace bindings and text of the nodes are stored in shared
+ * arrays as well, and each node records the offset of its own ones, so the
+ * ones of node {@code i} end where the ones of node {@code i + 1} start.
+ *
+ * The names are stored as codes in a name table of the tree, and the codes
+ * in the default {@link NamePool} are only looked up (and cached when found),
+ * so parsing documents never grows the pool.  Element and attribute objects are only
+ * views over the arrays (a tree and an index), created on demand.  Once built
+ * the tree never changes, so it can be shared freely by several threads.
+ *
+ * Safe publication: the nodes, names and content are only in final fields,
+ * set in the constructor and never written afterwards, so every thread sees
+ * them fully built, however the tree was handed over.  The lazy caches (name
+ * codes in the pool, namespace snapshots, child indexes, typed values and
+ * digests) are not final, and are filled without locking.  These races are
+ * benign.  A thread can miss a cache array created by another thread, or miss
+ * an entry, and it then computes the same value again.  The entries are ints
+ * (written atomically), immutable objects with final fields only (the namespace
+ * snapshots and child indexes), immutable typed values, or live in an
+ * AtomicLongArray (the digests).  So a thread never sees a half-built entry.
+ *
+ * @author agent
+ */
+public final class TinyTree
+{
+    TinyTree(int size, byte[] kinds, int[] names, int[] prefixes, int[] parents, int[] nexts,
+             int[] attr_starts, int[] attr_names, int[] attr_prefixes, String[] attr_values,
+             int[] ns_starts, String[] ns_prefixes, String[] ns_uris,
+             int[] text_starts, char[] chars, String[] prefix_table,
+             String[] name_uris, String[] name_locals, Map<String, Map<String, Integer>> name_codes)
+    {
+        mySize = size;
+        myKinds = kinds;
+        myNames = names;
+        myPrefixes = prefixes;
+        myParents = parents;
+        myNexts = nexts;
+        myAttrStarts = attr_starts;
+        myAttrNames = attr_names;
+        myAttrPrefixes = attr_prefixes;
+        myAttrValues = attr_values;
+        myNsStarts = ns_starts;
+        myNsPrefixes = ns_prefixes;
+        myNsUris = ns_uris;
+        myTextStarts = text_starts;
+        myChars = chars;
+        myPrefixTable = prefix_table;
+        myNameUris = name_uris;
+        myNameLocals = name_locals;
+        myNameCodes = name_codes;
+    }
+
+    /**
+     * Return the number of nodes (elements and text nodes) in the tree.
+     *
+     * @return The number of nodes.
+     */
+    public int getNodeCount()
+    {
+        return mySize;
+    }
+
+    /**
+     * Return the number of attributes in the tree.
+     *
+     * @return The number of attributes.
+     */
+    public int getAttributeCount()
+    {
+        return myAttrStarts[mySize];
+    }
+
+    /**
+     * Return the root element of the tree.
+     *
+     * @return The root element.
+     */
+    public TinyElement getRoot()
+    {
+        return new TinyElement(this, 0);
+    }
+
+    boolean isElement(int node)
+    {
+        return myKinds[node] == ELEMENT;
+    }
+
+    /**
+     * Return the code of the name of a node in the default pool, or NO_CODE.
+     */
+    int nameCode(int node)
+    {
+        return poolCode(myNames[node]);
+    }
+
+    String localName(int node)
+    {
+        return myNameLocals[myNames[node]];
+    }
+
+    String namespaceUri(int node)
+    {
+        return myNameUris[myNames[node]];
+    }
+
+    /**
+     * Return the code of a name in the name table of this tree, or -1.
+     */
+    int treeCode(String ns, String local)
+    {
+        Map<String, Integer> locals = myNameCodes.get(ns == null ? "" : ns);
+        Integer code = locals == null ? null : locals.get(local);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Return the code in the default pool of a name in the name table.
+     *
+     * The codes are looked up, never allocated.  They are cached once found,
+     * plus one so 0 means "not found yet", but NO_CODE is not cached as the
+     * name can be added to the pool later.  The cache is racy but benign.
+     */
+    private int poolCode(int name)
+    {
+        int[] cache = myPoolCodes;
+        if ( cache == null ) {
+            cache = new int[myNameLocals.length];
+            myPoolCodes = cache;
+        }
+        int code = cache[name] - 1;
+        if ( code < 0 ) {
+            code = POOL.getCode(myNameUris[name], myNameLocals[name]);
+            if ( code != NamePool.NO_CODE ) {
+                cache[name] = code + 1;
+            }
+        }
+        return code;
+    }
+
+    String prefix(int node)
+    {
+        return myPrefixTable[myPrefixes[node]];
+    }
+
+    int parent(int node)
+    {
+        return myParents[node];
+    }
+
+    /**
+     * Return the first child of a node, or -1.
+     */
+    int firstChild(int node)
+    {
+        int child = node + 1;
+        return child < mySize && myParents[child] == node ? child : -1;
+    }
+
+    /**
+     * Return the next sibling of a node, or -1.
+     */
+    int nextSibling(int node)
+    {
+        return myNexts[node];
+    }
+
+    String text(int node)
+    {
+        int start = myTextStarts[node];
+        return new String(myChars, start, myTextStarts[node + 1] - start);
+    }
+
+    /**
+     * Return the string value of a node, as a read-only view over the characters.
+     *
+     * The text nodes of a subtree are consecutive, and elements do not have
+     * any characters, so the text of a subtree is one range of the array.
+     */
+    CharSequence stringValue(int node)
+    {
+        int start = myTextStarts[node];
+        int end = myTextStarts[subtreeEnd(node)];
+        return CharBuffer.wrap(myChars, start, end - start).asReadOnlyBuffer();
+    }
+
+    /**
+     * Return a reader over the string value of a node.
+     */
+    Reader textReader(int node)
+    {
+        int start = myTextStarts[node];
+        int end = myTextStarts[subtreeEnd(node)];
+        return new CharArrayReader(myChars, start, end - start);
+    }
+
+    /**
+     * Return the first node after the subtree of a node (can be the size of the tree).
+     */
+    private int subtreeEnd(int node)
+    {
+        int n = node;
+        while ( n >= 0 && myNexts[n] < 0 ) {
+            n = myParents[n];
+        }
+        return n < 0 ? mySize : myNexts[n];
+    }
+
+    char[] chars()
+    {
+        return myChars;
+    }
+
+    int textStart(int node)
+    {
+        return myTextStarts[node];
+    }
+
+    int textLength(int node)
+    {
+        return myTextStarts[node + 1] - myTextStarts[node];
+    }
+
+    int attrStart(int node)
+    {
+        return myAttrStarts[node];
+    }
+
+    int attrEnd(int node)
+    {
+        return myAttrStarts[node + 1];
+    }
+
+    /**
+     * Return the code of the name of an attribute in the default pool, or NO_CODE.
+     */
+    int attrNameCode(int attr)
+    {
+        return poolCode(myAttrNames[attr]);
+    }
+
+    /**
+     * Return the code of the name of an attribute in the name table of this tree.
+     */
+    int attrTreeCode(int attr)
+    {
+        return myAttrNames[attr];
+    }
+
+    String attrLocalName(int attr)
+    {
+        return myNameLocals[myAttrNames[attr]];
+    }
+
+    String attrNamespaceUri(int attr)
+    {
+        return myNameUris[myAttrNames[attr]];
+    }
+
+    String attrPrefix(int attr)
+    {
+        return myPrefixTable[myAttrPrefixes[attr]];
+    }
+
+    String attrDisplayName(int attr)
+    {
+        String prefix = myPrefixTable[myAttrPrefixes[attr]];
+        String local = attrLocalName(attr);
+        return prefix.isEmpty() ? local : prefix + ":" + local;
+    }
+
+    String attrValue(int attr)
+    {
+        return myAttrValues[attr];
+    }
+
+    /**
+     * Return the cached typed value of an attribute, or null.
+     */
+    Object typedValue(int attr)
+    {
+        Object[] cache = myTypedValues;
+        return cache == null ? null : cache[attr];
+    }
+
+    /**
+     * Cache the typed value of an attribute.
+     *
+     * The cache is racy but benign, like the other caches: at worst a value is
+     * parsed again.
+     */
+    void typedValue(int attr, Object value)
+    {
+        Object[] cache = myTypedValues;
+        if ( cache == null ) {
+            cache = new Object[getAttributeCount()];
+            myTypedValues = cache;
+        }
+        cache[attr] = value;
+    }
+
+    /**
+     * Return the structural digest of an element.
+     *
+     * The digests are memoized per element, for the element and for all the
+     * elements of its subtree, and a memoized subtree is not walked again.
+     * The walk is not recursive, as trees can be deep.  The cache is racy
+     * but benign: the same digest is computed by all threads.
+     */
+    long digest(int node)
+    {
+        AtomicLongArray cache = myDigests;
+        if ( cache == null ) {
+            cache = new AtomicLongArray(mySize);
+            myDigests = cache;
+        }
+        long known = cache.get(node);
+        if ( known != 0 ) {
+            return known;
+        }
+        StructuralDigest digest = new StructuralDigest();
+        startDigest(node, digest);
+        int current = node;
+        int child = firstChild(node);
+        for ( ; ; ) {
+            if ( child < 0 ) {
+                long result = digest.endElement();
+                cache.lazySet(current, result);
+                if ( current == node ) {
+                    return result;
+                }
+                child = myNexts[current];
+                current = myParents[current];
+            }
+            else if ( myKinds[child] == TEXT ) {
+                int start = myTextStarts[child];
+                digest.text(myChars, start, myTextStarts[child + 1] - start);
+                child = myNexts[child];
+            }
+            else if ( cache.get(child) != 0 ) {
+                digest.child(cache.get(child));
+                child = myNexts[child];
+            }
+            else {
+                startDigest(child, digest);
+                current = child;
+                child = firstChild(child);
+            }
+        }
+    }
+
+    private void startDigest(int node, StructuralDigest digest)
+    {
+        digest.startElement(namespaceUri(node), localName(node));
+        for ( int a = myAttrStarts[node]; a < myAttrStarts[node + 1]; ++a ) {
+            digest.attribute(attrNamespaceUri(a), attrLocalName(a), myAttrValues[a]);
+        }
+    }
+
+    /**
+     * Return the namespace bindings in scope on a node.
+     *
+     * The snapshots are computed on demand and cached per node.  A node which
+     * does not declare any namespace shares the snapshot of its parent.  The
+     * cache is racy but benign: the snapshots are immutable, so if several
+     * threads compute the same one at the same time, they are equivalent.
+     */
+    NamespaceBindings bindings(int node)
+    {
+        NamespaceBindings[] cache = myBindings;
+        if ( cache == null ) {
+            cache = new NamespaceBindings[mySize];
+            myBindings = cache;
+        }
+        NamespaceBindings bindings = cache[node];
+        if ( bindings != null ) {
+            return bindings;
+        }
+        // go up to the closest ancestor with a snapshot (iteratively, trees can be deep)
+        int parent = myParents[node];
+        bindings = NamespaceBindings.EMPTY;
+        while ( parent >= 0 ) {
+            NamespaceBindings cached = cache[parent];
+            if ( cached != null ) {
+                bindings = cached;
+                break;
+            }
+            parent = myParents[parent];
+        }
+        // then compute the snapshots down to the node
+        List<Integer> path = new ArrayList<Integer>();
+        for ( int n = node; n != parent; n = myParents[n] ) {
+            path.add(n);
+        }
+        for ( int i = path.size() - 1; i >= 0; --i ) {
+            int n = path.get(i);
+            int start = myNsStarts[n];
+            int end = myNsStarts[n + 1];
+            if ( end > start ) {
+                bindings = bindings.extend(
+                    Arrays.copyOfRange(myNsPrefixes, start, end),
+                    Arrays.copyOfRange(myNsUris, start, end));
+            }
+            cache[n] = bindings;
+        }
+        return bindings;
+    }
+
+    /**
+     * Return the children elements of a node, and their index by name.
+     *
+     * The indexes are built on demand and cached per node, the same way as
+     * the namespace snapshots.  They use the codes in the name table of the
+     * tree, see {@link #treeCode(String, String)}.
+     */
+    Children children(int node)
+    {
+        Children[] cache = myChildren;
+        if ( cache == null ) {
+            cache = new Children[mySize];
+            myChildren = cache;
+        }
+        Children children = cache[node];
+        if ( children == null ) {
+            int count = 0;
+            for ( int n = firstChild(node); n >= 0; n = myNexts[n] ) {
+                if ( myKinds[n] == ELEMENT ) {
+                    ++count;
+                }
+            }
+            int[] nodes = new int[count];
+            int[] codes = new int[count];
+            int i = 0;
+            for ( int n = firstChild(node); n >= 0; n = myNexts[n] ) {
+                if ( myKinds[n] == ELEMENT ) {
+                    nodes[i] = n;
+                    codes[i] = myNames[n];
+                    ++i;
+                }
+            }
+            children = new Children(nodes, new ChildIndex(codes));
+            cache[node] = children;
+        }
+        return children;
+    }
+
+    /**
+     * The children elements of a node, and their index by name.
+     */
+    static final class Children
+    {
+        public Children(int[] nodes, ChildIndex names)
+        {
+            this.nodes = nodes;
+            this.names = names;
+        }
+        public final int[] nodes;
+        public final ChildIndex names;
+    }
+
+    /**
+     * Send the events for a node (and its content) to a SAX handler.
+     *
+     * The node is the top of the sent tree, so all the namespace bindings in
+     * scope are declared on it.  The walk is not recursive, as trees can be
+     * deep, it uses the parent and sibling links like {@link TinyStreamReader}.
+     */
+    void send(int node, ContentHandler handler)
+            throws SAXException
+    {
+        if ( myKinds[node] == TEXT ) {
+            sendText(node, handler);
+            return;
+        }
+        List<String> top = inScopeBindings(node);
+        startElement(node, handler, top);
+        int current = node;
+        int child = firstChild(node);
+        for ( ; ; ) {
+            if ( child < 0 ) {
+                endElement(current, handler, current == node ? top : ownBindings(current));
+                if ( current == node ) {
+                    return;
+                }
+                child = myNexts[current];
+                current = myParents[current];
+            }
+            else if ( myKinds[child] == TEXT ) {
+                sendText(child, handler);
+                child = myNexts[child];
+            }
+            else {
+                startElement(child, handler, ownBindings(child));
+                current = child;
+                child = firstChild(child);
+            }
+        }
+    }
+
+    private void sendText(int node, ContentHandler handler)
+            throws SAXException
+    {
+        int start = myTextStarts[node];
+        handler.characters(myChars, start, myTextStarts[node + 1] - start);
+    }
+
+    private void startElement(int node, ContentHandler handler, List<String> bindings)
+            throws SAXException
+    {
+        for ( int i = 0; i < bindings.size(); i += 2 ) {
+            handler.startPrefixMapping(bindings.get(i), bindings.get(i + 1));
+        }
+        AttributesImpl attrs = new AttributesImpl();
+        for ( int a = myAttrStarts[node]; a < myAttrStarts[node + 1]; ++a ) {
+            attrs.addAttribute(attrNamespaceUri(a), attrLocalName(a), attrDisplayName(a), "CDATA", myAttrValues[a]);
+        }
+        handler.startElement(namespaceUri(node), localName(node), qname(node), attrs);
+    }
+
+    private void endElement(int node, ContentHandler handler, List<String> bindings)
+            throws SAXException
+    {
+        handler.endElement(namespaceUri(node), localName(node), qname(node));
+        for ( int i = 0; i < bindings.size(); i += 2 ) {
+            handler.endPrefixMapping(bindings.get(i));
+        }
+    }
+
+    private String qname(int node)
+    {
+        String prefix = prefix(node);
+        String local = localName(node);
+        return prefix.isEmpty() ? local : prefix + ":" + local;
+    }
+
+    /**
+     * Return the bindings declared on a node, as a list of prefixes and URIs.
+     */
+    List<String> ownBindings(int node)
+    {
+        List<String> result = new ArrayList<String>();
+        for ( int b = myNsStarts[node]; b < myNsStarts[node + 1]; ++b ) {
+            result.add(myNsPrefixes[b]);
+            result.add(myNsUris[b]);
+        }
+        return result;
+    }
+
+    /**
+     * Return the bindings in scope, the closest one for each prefix.
+     */
+    List<String> inScopeBindings(int node)
+    {
+        List<String> result = new ArrayList<String>();
+        for ( int n = node; n >= 0; n = myParents[n] ) {
+            for ( int b = myNsStarts[n]; b < myNsStarts[n + 1]; ++b ) {
+                String prefix = myNsPrefixes[b];
+                boolean seen = false;
+                for ( int j = 0; j < result.size() && ! seen; j += 2 ) {
+                    seen = result.get(j).equals(prefix);
+                }
+                if ( ! seen ) {
+                    result.add(prefix);
+                    result.add(myNsUris[b]);
+                }
+            }
+        }
+        return result;
+    }
+
+    static final byte ELEMENT = 1;
+    static final byte TEXT = 3;
+
+    // the nodes
+    private final int mySize;
+    private final byte[] myKinds;
+    private final int[] myNames;
+    private final int[] myPrefixes;
+    private final int[] myParents;
+    private final int[] myNexts;
+    // the attributes, namespace bindings and characters, with offsets per node
+    private final int[] myAttrStarts;
+    private final int[] myAttrNames;
+    private final int[] myAttrPrefixes;
+    private final String[] myAttrValues;
+    private final int[] myNsStarts;
+    private final String[] myNsPrefixes;
+    private final String[] myNsUris;
+    private final int[] myTextStarts;
+    private final char[] myChars;
+    // the prefix table
+    private final String[] myPrefixTable;
+    // the name table, and the codes in the table by namespace URI then local name
+    private final String[] myNameUris;
+    private final String[] myNameLocals;
+    private final Map<String, Map<String, Integer>> myNameCodes;
+    // the codes of the names in the default pool, plus one, created on demand
+    private int[] myPoolCodes = null;
+    // the snapshots of the namespace bindings, created on demand
+    private NamespaceBindings[] myBindings = null;
+    // the indexes of the children by name, created on demand
+    private Children[] myChildren = null;
+    // the typed values of the attributes, created on demand
+    private Object[] myTypedValues = null;
+    // the structural digests of the elements (0 if not computed yet), created on demand
+    private AtomicLongArray myDigests = null;
+
+    private static final NamePool POOL = NamePool.getDefault();
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
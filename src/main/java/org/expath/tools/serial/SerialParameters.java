@@ -15,6 +15,7 @@ import java.util.Set;
 import javax.xml.namespace.QName;
 import org.expath.tools.ToolsException;
 import org.expath.tools.model.Element;
+import org.expath.tools.model.NamePool;
 
 /**
  * A set of serialization parameters.
@@ -29,88 +30,84 @@ public class SerialParameters
         if ( null == elem ) {
             throw new NullPointerException("Element for serialization parameters is null");
         }
-        String ns = elem.getNamespaceUri();
-        String name = elem.getLocalName();
-        if ( ! SERIAL_NS_URI.equals(ns) || ! SERIAL_PARAMS_NAME.equals(name) ) {
-            throw new ToolsException("Element name incorrect: {" + ns + "}" + name);
+        if ( elem.getNameCode() != SERIAL_PARAMS_CODE ) {
+            throw new ToolsException("Element name incorrect: {" + elem.getNamespaceUri() + "}" + elem.getLocalName());
         }
         SerialParameters params = new SerialParameters();
         for ( Element child : elem.children() ) {
-            String child_ns = child.getNamespaceUri();
-            String child_name = child.getLocalName();
+            int code = child.getNameCode();
             String value = child.getAttribute(SERIAL_VALUE_NAME);
             if ( null == value ) {
-                throw new ToolsException("No @" + SERIAL_VALUE_NAME + " on the element: {" + ns + "}" + name);
+                throw new ToolsException("No @" + SERIAL_VALUE_NAME + " on the element: {" + elem.getNamespaceUri() + "}" + elem.getLocalName());
             }
-            if ( SERIAL_NS_URI.equals(child_ns) ) {
-                if ( BYTE_ORDER_MARK_NAME.equals(child_name) ) {
-                    params.setByteOrderMark(value);
-                }
-                else if ( CDATA_SECTION_ELEMENTS_NAME.equals(child_name) ) {
-                    params.addCdataSectionElements(value, child);
-                }
-                else if ( DOCTYPE_PUBLIC_NAME.equals(child_name) ) {
-                    params.setDoctypePublic(value);
-                }
-                else if ( DOCTYPE_SYSTEM_NAME.equals(child_name) ) {
-                    params.setDoctypeSystem(value);
-                }
-                else if ( ENCODING_NAME.equals(child_name) ) {
-                    params.setEncoding(value);
-                }
-                else if ( ESCAPE_URI_ATTRIBUTES_NAME.equals(child_name) ) {
-                    params.setEscapeUriAttributes(value);
-                }
-                else if ( HTML_VERSION_NAME.equals(child_name) ) {
-                    params.setHtmlVersion(value);
-                }
-                else if ( INCLUDE_CONTENT_TYPE_NAME.equals(child_name) ) {
-                    params.setIncludeContentType(value);
-                }
-                else if ( INDENT_NAME.equals(child_name) ) {
-                    params.setIndent(value);
-                }
-                else if ( ITEM_SEPARATOR_NAME.equals(child_name) ) {
-                    params.setItemSeparator(value);
-                }
-                else if ( MEDIA_TYPE_NAME.equals(child_name) ) {
-                    params.setMediaType(value);
-                }
-                else if ( METHOD_NAME.equals(child_name) ) {
-                    // default namespace must not be used for method
-                    QName qname = value.indexOf(':') < 0
-                        ? new QName(value)
-                        : child.parseQName(value);
-                    params.setMethod(qname);
-                }
-                else if ( NORMALIZATION_FORM_NAME.equals(child_name) ) {
-                    params.setNormalizationForm(value);
-                }
-                else if ( OMIT_XML_DECLARATION_NAME.equals(child_name) ) {
-                    params.setOmitXmlDeclaration(value);
-                }
-                else if ( STANDALONE_NAME.equals(child_name) ) {
-                    params.setStandalone(value);
-                }
-                else if ( SUPPRESS_INDENTATION_NAME.equals(child_name) ) {
-                    params.addSuppressIndentation(value, child);
-                }
-                else if ( UNDECLARE_PREFIXES_NAME.equals(child_name) ) {
-                    params.setUndeclarePrefixes(value);
-                }
-                else if ( USE_CHARACTER_MAPS_NAME.equals(child_name) ) {
-                    params.addUseCharacterMaps(value, child);
-                }
-                else if ( VERSION_NAME.equals(child_name) ) {
-                    params.setVersion(value);
-                }
-                else {
-                    throw new ToolsException("Unknown serialization param: {" + child_ns + "}" + child_name);
-                }
+            // the names are compared by their codes in the name pool alone (a
+            // name not in the pool has NO_CODE, so it is not a known parameter)
+            if ( code == BYTE_ORDER_MARK_CODE ) {
+                params.setByteOrderMark(value);
+            }
+            else if ( code == CDATA_SECTION_ELEMENTS_CODE ) {
+                params.addCdataSectionElements(value, child);
+            }
+            else if ( code == DOCTYPE_PUBLIC_CODE ) {
+                params.setDoctypePublic(value);
+            }
+            else if ( code == DOCTYPE_SYSTEM_CODE ) {
+                params.setDoctypeSystem(value);
+            }
+            else if ( code == ENCODING_CODE ) {
+                params.setEncoding(value);
+            }
+            else if ( code == ESCAPE_URI_ATTRIBUTES_CODE ) {
+                params.setEscapeUriAttributes(value);
+            }
+            else if ( code == HTML_VERSION_CODE ) {
+                params.setHtmlVersion(value);
+            }
+            else if ( code == INCLUDE_CONTENT_TYPE_CODE ) {
+                params.setIncludeContentType(value);
+            }
+            else if ( code == INDENT_CODE ) {
+                params.setIndent(value);
+            }
+            else if ( code == ITEM_SEPARATOR_CODE ) {
+                params.setItemSeparator(value);
+            }
+            else if ( code == MEDIA_TYPE_CODE ) {
+                params.setMediaType(value);
+            }
+            else if ( code == METHOD_CODE ) {
+                // default namespace must not be used for method
+                QName qname = value.indexOf(':') < 0
+                    ? new QName(value)
+                    : child.parseQName(value);
+                params.setMethod(qname);
+            }
+            else if ( code == NORMALIZATION_FORM_CODE ) {
+                params.setNormalizationForm(value);
+            }
+            else if ( code == OMIT_XML_DECLARATION_CODE ) {
+                params.setOmitXmlDeclaration(value);
+            }
+            else if ( code == STANDALONE_CODE ) {
+                params.setStandalone(value);
+            }
+            else if ( code == SUPPRESS_INDENTATION_CODE ) {
+                params.addSuppressIndentation(value, child);
+            }
+            else if ( code == UNDECLARE_PREFIXES_CODE ) {
+                params.setUndeclarePrefixes(value);
+            }
+            else if ( code == USE_CHARACTER_MAPS_CODE ) {
+                params.addUseCharacterMaps(value, child);
+            }
+            else if ( code == VERSION_CODE ) {
+                params.setVersion(value);
+            }
+            else if ( SERIAL_NS_URI.equals(child.getNamespaceUri()) ) {
+                throw new ToolsException("Unknown serialization param: {" + SERIAL_NS_URI + "}" + child.getLocalName());
             }
             else {
-                QName qn = new QName(child_ns, child_name);
-                params.setExtension(qn, value);
+                params.setExtension(POOL.getQName(child.getNamespaceUri(), child.getLocalName()), value);
             }
         }
         return params;
@@ -697,11 +694,8 @@ public class SerialParameters
     private Set<QName> parseQNames(String value, Element scope)
             throws ToolsException
     {
-        Set<QName> qnames = new HashSet<QName>();
-        for ( String v : value.split("\\s+") ) {
-            qnames.add(scope.parseQName(v));
-        }
-        return qnames;
+        // resolve the whole list in one pass
+        return new HashSet<QName>(scope.parseQNames(value));
     }
 
     private Set<UseChar> parseCharMap(String value, Element scope)
@@ -709,10 +703,8 @@ public class SerialParameters
     {
         Set<UseChar> result = new HashSet<UseChar>();
         for ( Element elem : scope.children() ) {
-            String ns = elem.getNamespaceUri();
-            String name = elem.getLocalName();
-            if ( ! SERIAL_NS_URI.equals(ns) || ! CHAR_MAP_NAME.equals(name) ) {
-                throw new ToolsException("Element name incorrect: {" + ns + "}" + name);
+            if ( elem.getNameCode() != CHAR_MAP_CODE ) {
+                throw new ToolsException("Element name incorrect: {" + elem.getNamespaceUri() + "}" + elem.getLocalName());
             }
             String ch  = elem.getAttribute(CHAR_ATTR_NAME);
             String str = elem.getAttribute(MAP_STRING_ATTR_NAME);
@@ -769,6 +761,29 @@ public class SerialParameters
     private static final String UNDECLARE_PREFIXES_NAME = "undeclare-prefixes";
     private static final String USE_CHARACTER_MAPS_NAME = "use-character-maps";
     private static final String VERSION_NAME = "version";
+
+    private static final NamePool POOL = NamePool.getDefault();
+    private static final int SERIAL_PARAMS_CODE = POOL.allocate(SERIAL_NS_URI, SERIAL_PARAMS_NAME);
+    private static final int CHAR_MAP_CODE = POOL.allocate(SERIAL_NS_URI, CHAR_MAP_NAME);
+    private static final int BYTE_ORDER_MARK_CODE = POOL.allocate(SERIAL_NS_URI, BYTE_ORDER_MARK_NAME);
+    private static final int CDATA_SECTION_ELEMENTS_CODE = POOL.allocate(SERIAL_NS_URI, CDATA_SECTION_ELEMENTS_NAME);
+    private static final int DOCTYPE_PUBLIC_CODE = POOL.allocate(SERIAL_NS_URI, DOCTYPE_PUBLIC_NAME);
+    private static final int DOCTYPE_SYSTEM_CODE = POOL.allocate(SERIAL_NS_URI, DOCTYPE_SYSTEM_NAME);
+    private static final int ENCODING_CODE = POOL.allocate(SERIAL_NS_URI, ENCODING_NAME);
+    private static final int ESCAPE_URI_ATTRIBUTES_CODE = POOL.allocate(SERIAL_NS_URI, ESCAPE_URI_ATTRIBUTES_NAME);
+    private static final int HTML_VERSION_CODE = POOL.allocate(SERIAL_NS_URI, HTML_VERSION_NAME);
+    private static final int INCLUDE_CONTENT_TYPE_CODE = POOL.allocate(SERIAL_NS_URI, INCLUDE_CONTENT_TYPE_NAME);
+    private static final int INDENT_CODE = POOL.allocate(SERIAL_NS_URI, INDENT_NAME);
+    private static final int ITEM_SEPARATOR_CODE = POOL.allocate(SERIAL_NS_URI, ITEM_SEPARATOR_NAME);
+    private static final int MEDIA_TYPE_CODE = POOL.allocate(SERIAL_NS_URI, MEDIA_TYPE_NAME);
+    private static final int METHOD_CODE = POOL.allocate(SERIAL_NS_URI, METHOD_NAME);
+    private static final int NORMALIZATION_FORM_CODE = POOL.allocate(SERIAL_NS_URI, NORMALIZATION_FORM_NAME);
+    private static final int OMIT_XML_DECLARATION_CODE = POOL.allocate(SERIAL_NS_URI, OMIT_XML_DECLARATION_NAME);
+    private static final int STANDALONE_CODE = POOL.allocate(SERIAL_NS_URI, STANDALONE_NAME);
+    private static final int SUPPRESS_INDENTATION_CODE = POOL.allocate(SERIAL_NS_URI, SUPPRESS_INDENTATION_NAME);
+    private static final int UNDECLARE_PREFIXES_CODE = POOL.allocate(SERIAL_NS_URI, UNDECLARE_PREFIXES_NAME);
+    private static final int USE_CHARACTER_MAPS_CODE = POOL.allocate(SERIAL_NS_URI, USE_CHARACTER_MAPS_NAME);
+    private static final int VERSION_CODE = POOL.allocate(SERIAL_NS_URI, VERSION_NAME);
 }
 
 
@@ -789,5 +804,5 @@ public class SerialParameters
 /*                                                                          */
 /*  The Initial Developer of the Original Code is Florent Georges.          */
 /*                                                                          */
-/*  Contributor(s): none.                                                   */
+/*  Contributor(s): agent.                                                  */
 /* ------------------------------------------------------------------------ */
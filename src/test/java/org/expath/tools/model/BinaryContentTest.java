@@ -0,0 +1,97 @@
+/****************************************************************************/
+/*  File:       BinaryContentTest.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Base64;
+import java.util.Random;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.stax.StaxParser;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test decoding the binary content of elements with {@link BinaryContent}.
+ *
+ * @author agent
+ */
+public class BinaryContentTest
+{
+    @Test
+    public void decodeBase64AndHex()
+            throws Exception
+    {
+        for ( int size : new int[] { 0, 1, 2, 3, 50000 } ) {
+            byte[] bytes = new byte[size];
+            new Random(size).nextBytes(bytes);
+            // MIME base64 has line breaks, like indented content
+            String base64 = "<b>\n" + Base64.getMimeEncoder().encodeToString(bytes) + "\n</b>";
+            StringBuilder hex = new StringBuilder("<h>");
+            for ( byte b : bytes ) {
+                hex.append(String.format("%02x", b));
+            }
+            hex.append("</h>");
+            Element[] elems = {
+                DomElement.parseString(base64),
+                new TinyParser().parse(base64),
+                new StaxParser().parse(new StringReader(base64))
+            };
+            for ( Element elem : elems ) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(BinaryContent.decodeBase64(elem, out), size, "the number of bytes");
+                assertEquals(out.toByteArray(), bytes, "the base64 bytes of " + size);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BinaryContent.decodeHex(new TinyParser().parse(hex.toString()), Channels.newChannel(out));
+            assertEquals(out.toByteArray(), bytes, "the hex bytes of " + size);
+        }
+        for ( String invalid : new String[] { "<b>QUJD=</b>", "<b>QUI</b>", "<b>QU=I</b>", "<b>QU*=</b>" } ) {
+            try {
+                BinaryContent.decodeBase64(DomElement.parseString(invalid), new ByteArrayOutputStream());
+                fail("invalid base64: " + invalid);
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+        }
+        try {
+            BinaryContent.decodeHex(DomElement.parseString("<h>abc</h>"), new ByteArrayOutputStream());
+            fail("odd number of hex digits");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,85 @@
+/****************************************************************************/
+/*  File:       ElementPathTest.java                                        */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the {@link ElementPath} compilation and evaluation.
+ *
+ * @author agent
+ */
+public class ElementPathTest
+{
+    @Test
+    public void selectInModels()
+            throws Exception
+    {
+        String xml = "<http:request xmlns:http='urn:http' xmlns:o='urn:o'>"
+                + "<http:multipart><http:body n='1'/><o:body n='2'/><http:body n='3'/></http:multipart>"
+                + "<http:header/>"
+                + "<http:multipart><http:body n='4'/></http:multipart>"
+                + "</http:request>";
+        NamespaceBindings bindings = NamespaceBindings.EMPTY.extend(new String[] { "h" }, new String[] { "urn:http" });
+        ElementPath bodies = ElementPath.compile("h:multipart/h:body", bindings);
+        ElementPath any = ElementPath.compile("h:multipart/*:body", bindings);
+        ElementPath all = ElementPath.compile("*/*", bindings);
+        for ( Element root : new Element[] { DomElement.parseString(xml), new TinyParser().parse(xml) } ) {
+            assertEquals(values(bodies.select(root)), "1 3 4", "the http:body elements");
+            assertEquals(values(any.select(root)), "1 2 3 4", "all the body elements");
+            assertEquals(values(all.select(root)), "1 2 3 4", "all the grandchildren");
+            assertEquals(bodies.selectFirst(root).getAttribute("n"), "1", "the first http:body");
+            assertNull(ElementPath.compile("h:header/h:body", bindings).selectFirst(root), "nothing under header");
+        }
+        try {
+            ElementPath.compile("x:multipart", bindings);
+            fail("unbound prefix must be rejected");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+    }
+
+    private static String values(Iterable<Element> elems)
+    {
+        List<String> values = new ArrayList<String>();
+        for ( Element e : elems ) {
+            values.add(e.getAttribute("n"));
+        }
+        return String.join(" ", values);
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
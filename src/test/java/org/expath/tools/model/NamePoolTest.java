@@ -0,0 +1,126 @@
+/****************************************************************************/
+/*  File:       NamePoolTest.java                                           */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import javax.xml.namespace.QName;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the {@link NamePool}, and the name codes of the model implementations.
+ *
+ * @author agent
+ */
+public class NamePoolTest
+{
+    @Test
+    public void allocateCodes()
+    {
+        NamePool pool = new NamePool();
+        assertEquals(pool.getCode("urn:a", "x"), -1, "no code before allocation");
+        int x = pool.allocate("urn:a", "x");
+        int y = pool.allocate(new String("urn:a"), "y");
+        assertEquals(pool.allocate("urn:a", new String("x")), x, "the same code for the same name");
+        assertNotEquals(pool.allocate("", "x"), x, "another code in another namespace");
+        assertSame(pool.getNamespaceUri(y), pool.getNamespaceUri(x), "the same URI instance");
+        assertSame(pool.getQName(x), pool.getQName(x), "the same QName instance");
+        assertEquals(pool.getQName(y), new QName("urn:a", "y"), "the QName of y");
+        for ( int i = 0; i < 1000; ++i ) {
+            pool.allocate("urn:b", "name-" + i);
+        }
+        assertEquals(pool.size(), 1003, "the pool grows");
+        assertEquals(pool.getLocalName(x), "x", "the local name after growing");
+        assertEquals(pool.getCode(null, "x"), pool.getCode("", "x"), "null is no namespace");
+        assertEquals(pool.allocate(null, "x"), pool.getCode("", "x"), "null is no namespace");
+    }
+
+    @Test
+    public void sameCodesAcrossModels()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p' p:a='1'><p:child/></root>";
+        // the names known by the application
+        NamePool pool = NamePool.getDefault();
+        pool.allocate("", "root");
+        pool.allocate("urn:p", "child");
+        pool.allocate("urn:p", "a");
+        Element dom = DomElement.parseString(xml);
+        Element tiny = new TinyParser().parse(xml);
+        assertEquals(dom.getNameCode(), tiny.getNameCode(), "the code of root");
+        Element dom_child = dom.children().iterator().next();
+        Element tiny_child = tiny.children().iterator().next();
+        assertEquals(dom_child.getNameCode(), tiny_child.getNameCode(), "the code of child");
+        assertEquals(tiny_child.getNameCode(), NamePool.getDefault().getCode("urn:p", "child"), "the code in the pool");
+        Attribute dom_attr = null;
+        for ( Attribute a : dom.attributes() ) {
+            if ( "urn:p".equals(a.getNamespaceUri()) ) {
+                dom_attr = a;
+            }
+        }
+        assertEquals(dom_attr.getLocalName(), "a", "the local name of the DOM attribute");
+        assertEquals(dom_attr.getNameCode(), tiny.attributes().iterator().next().getNameCode(), "the code of p:a");
+    }
+
+    @Test
+    public void documentsDoNotGrowPool()
+            throws Exception
+    {
+        String xml = "<unknown-root xmlns:u='urn:unknown' u:unknown-attr='1' unknown-attr='2'>"
+                + "<unknown-child/><u:unknown-child/><unknown-child/></unknown-root>";
+        NamePool pool = NamePool.getDefault();
+        int size = pool.size();
+        Element[] roots = { DomElement.parseString(xml), new TinyParser().parse(xml) };
+        for ( Element root : roots ) {
+            String which = root.getClass().getSimpleName();
+            assertEquals(root.getNameCode(), NamePool.NO_CODE, "no code for the root in " + which);
+            for ( Attribute a : root.attributes() ) {
+                assertEquals(a.getNameCode(), NamePool.NO_CODE, "no code for the attributes in " + which);
+            }
+            assertEquals(root.getAttribute("urn:unknown", "unknown-attr"), "1", "the namespaced attribute in " + which);
+            assertEquals(root.child("urn:unknown", "unknown-child").getNamespaceUri(), "urn:unknown", "the child in " + which);
+            int count = 0;
+            for ( Element c : root.children("", "unknown-child") ) {
+                ++count;
+            }
+            assertEquals(count, 2, "the children in no namespace in " + which);
+            assertNull(root.child("", "other"), "no such child in " + which);
+            root.parseQName("u:unknown-qname");
+        }
+        assertEquals(pool.size(), size, "parsing documents does not add names to the pool");
+        // a name added later by the application gets its code
+        int code = pool.allocate("", "unknown-child");
+        for ( Element root : roots ) {
+            assertEquals(root.children().iterator().next().getNameCode(), code, "the code added to the pool");
+        }
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,106 @@
+/****************************************************************************/
+/*  File:       NamespaceBindingsTest.java                                  */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.stax.StaxParser;
+import org.expath.tools.model.tiny.TinyElement;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the {@link NamespaceBindings}, and QName parsing in the model
+ * implementations.
+ *
+ * @author agent
+ */
+public class NamespaceBindingsTest
+{
+    @Test
+    public void parseQNameLists()
+            throws Exception
+    {
+        String xml = "<root xmlns='urn:d' xmlns:a='urn:a'><c xmlns:b='urn:b'><e/></c></root>";
+        List<QName> expected = Arrays.asList(
+                new QName("urn:a", "x"),
+                new QName("urn:b", "y"),
+                new QName("urn:d", "z"),
+                new QName("urn:a", "w"));
+        String value = "  a:x\tb:y z\n a:w ";
+        Element dom = first(first(DomElement.parseString(xml)));
+        Element tiny = first(first(new TinyParser().parse(xml)));
+        Element stax = first(first(new StaxParser().parse(new java.io.StringReader(xml))));
+        assertEquals(dom.parseQNames(value), expected, "the QNames in DOM");
+        assertEquals(tiny.parseQNames(value), expected, "the QNames in tiny tree");
+        assertEquals(stax.parseQNames(value), expected, "the QNames in StAX");
+        assertTrue(dom.parseQNames(" ").isEmpty(), "no QName in blanks");
+        try {
+            tiny.parseQNames("a:x c:y");
+            fail("unbound prefix must be rejected");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shareSnapshots()
+            throws Exception
+    {
+        TinyElement root = (TinyElement) new TinyParser().parse("<r xmlns:a='urn:a'><x/><y xmlns:b='urn:b'/></r>");
+        TinyElement x = null;
+        TinyElement y = null;
+        for ( Element c : root.children() ) {
+            if ( x == null ) {
+                x = (TinyElement) c;
+            }
+            else {
+                y = (TinyElement) c;
+            }
+        }
+        assertSame(x.getNamespaceBindings(), root.getNamespaceBindings(), "shared when nothing is declared");
+        assertNotSame(y.getNamespaceBindings(), root.getNamespaceBindings(), "extended on new bindings");
+        assertEquals(y.getNamespaceBindings().getNamespaceUri("a"), "urn:a", "inherited binding");
+        assertEquals(y.getNamespaceBindings().getNamespaceUri("b"), "urn:b", "own binding");
+        assertNull(x.getNamespaceBindings().getNamespaceUri("b"), "binding not in scope");
+    }
+
+    private static Element first(Element parent)
+            throws ToolsException
+    {
+        return parent.children().iterator().next();
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,143 @@
+/****************************************************************************/
+/*  File:       ReplayTest.java                                             */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.io.StringReader;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.stax.StaxParser;
+import org.expath.tools.model.tiny.TinyBuilder;
+import org.expath.tools.model.tiny.TinyParser;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test replaying elements as StAX and SAX events.
+ *
+ * @author agent
+ */
+public class ReplayTest
+{
+    @Test
+    public void replayModels()
+            throws Exception
+    {
+        String xml = "<root xmlns='urn:d' xmlns:p='urn:p'><!-- c --><skip/>"
+                + "<p:sub a='1' p:b='2'>text<x xmlns:q='urn:q' q:c='3'/><![CDATA[<cdata>]]></p:sub></root>";
+        String expected = "S{urn:p}sub[a=1,{urn:p}b=2] T(text) S{urn:d}x[{urn:q}c=3] E T(<cdata>) E";
+        Element[] roots = {
+            DomElement.parseString(xml),
+            new TinyParser().parse(xml),
+            new StaxParser().parse(new StringReader(xml)),
+            new StaxParser().parse(new StringReader(xml))
+        };
+        for ( int i = 0; i < roots.length; ++i ) {
+            Element sub = roots[i].child("urn:p", "sub");
+            String which = sub.getClass().getSimpleName() + " " + i;
+            Element copy;
+            // the first StAX element is read as a StAX view, the second one as SAX
+            if ( i != 2 ) {
+                TinyBuilder builder = new TinyBuilder();
+                sub.replay(builder);
+                copy = builder.getTree().getRoot();
+            }
+            else {
+                copy = sub;
+            }
+            XMLStreamReader reader = copy.openStreamReader();
+            assertEquals(reader.getNamespaceURI("p"), "urn:p", "the prefix bound on root, in " + which);
+            try {
+                reader.getNamespaceURI(null);
+                fail("a null prefix must be rejected, in " + which);
+            }
+            catch ( IllegalArgumentException ex ) {
+                // expected
+            }
+            assertEquals(events(reader), expected, "the events of " + which);
+            assertEquals(copy.parseQName("p:y"), new QName("urn:p", "y"), "the bindings of the copy of " + which);
+        }
+    }
+
+    @Test
+    public void replayDeepTree()
+            throws Exception
+    {
+        int depth = 100000;
+        StringBuilder xml = new StringBuilder();
+        for ( int i = 0; i < depth; ++i ) {
+            xml.append("<n>");
+        }
+        xml.append("text");
+        for ( int i = 0; i < depth; ++i ) {
+            xml.append("</n>");
+        }
+        final int[] counts = new int[2];
+        new TinyParser().parse(xml.toString()).replay(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String local, String qname, Attributes attrs) {
+                ++counts[0];
+            }
+            @Override
+            public void endElement(String uri, String local, String qname) {
+                ++counts[1];
+            }
+        });
+        assertEquals(counts[0], depth, "the start tags");
+        assertEquals(counts[1], depth, "the end tags");
+    }
+
+    private static String events(XMLStreamReader reader)
+            throws Exception
+    {
+        StringBuilder buf = new StringBuilder();
+        for ( int event = reader.getEventType(); event != XMLStreamConstants.END_DOCUMENT; event = reader.next() ) {
+            if ( event == XMLStreamConstants.START_ELEMENT ) {
+                buf.append(" S").append(reader.getName()).append('[');
+                for ( int i = 0; i < reader.getAttributeCount(); ++i ) {
+                    buf.append(i == 0 ? "" : ",").append(reader.getAttributeName(i)).append('=').append(reader.getAttributeValue(i));
+                }
+                buf.append(']');
+            }
+            else if ( event == XMLStreamConstants.END_ELEMENT ) {
+                buf.append(" E");
+            }
+            else {
+                buf.append(" T(").append(reader.getText()).append(')');
+            }
+        }
+        assertFalse(reader.hasNext(), "no event after the end");
+        return buf.substring(1);
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
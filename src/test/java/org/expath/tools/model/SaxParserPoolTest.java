@@ -0,0 +1,88 @@
+/****************************************************************************/
+/*  File:       SaxParserPoolTest.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the reuse of SAX parsers through {@link SaxParserPool}.
+ *
+ * @author agent
+ */
+public class SaxParserPoolTest
+{
+    @Test
+    public void reuseParser()
+            throws Exception
+    {
+        SaxParserPool pool = new SaxParserPool(1);
+        TinyParser parser = new TinyParser(pool);
+        Element first = parser.parse("<first/>");
+        assertEquals(first.getLocalName(), "first", "the first element name");
+        assertEquals(pool.getMissCount(), 1, "the first parse creates a parser");
+        assertEquals(pool.getIdleCount(), 1, "the parser is given back");
+        try {
+            parser.parse("<unclosed>");
+            fail("a malformed document must not parse");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+        Element second = parser.parse("<second/>");
+        assertEquals(second.getLocalName(), "second", "the second element name");
+        assertEquals(pool.getMissCount(), 1, "the next parses do not create a parser");
+        assertEquals(pool.getHitCount(), 2, "the parser is reused, even after an error");
+    }
+
+    @Test
+    public void noPooling()
+            throws Exception
+    {
+        SaxParserPool pool = new SaxParserPool(0);
+        assertEquals(pool.getCapacity(), 0, "the capacity");
+        pool.release(pool.acquire());
+        assertEquals(pool.getMissCount(), 1, "the parser was created");
+        assertEquals(pool.getIdleCount(), 0, "nothing is kept");
+    }
+
+    @Test
+    public void defaultCapacity()
+    {
+        int fallback = 2 * Runtime.getRuntime().availableProcessors();
+        assertEquals(SaxParserPool.defaultCapacity(null), fallback, "no property");
+        assertEquals(SaxParserPool.defaultCapacity("3"), 3, "a valid property");
+        assertEquals(SaxParserPool.defaultCapacity("x"), fallback, "an invalid property is ignored");
+        assertEquals(SaxParserPool.defaultCapacity("-2"), fallback, "a negative property is ignored");
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
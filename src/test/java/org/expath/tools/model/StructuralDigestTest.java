@@ -0,0 +1,84 @@
+/****************************************************************************/
+/*  File:       StructuralDigestTest.java                                   */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import java.io.StringReader;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.stax.StaxParser;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the structural digest and deep-equal of elements.
+ *
+ * @author agent
+ */
+public class StructuralDigestTest
+{
+    @Test
+    public void digestAndDeepEqual()
+            throws Exception
+    {
+        // same tree: other prefixes, attribute order, comments, and text split differently
+        String xml = "<r xmlns='urn:d' a='1' b='2'><!-- c -->te<![CDATA[xt]]><s/></r>";
+        String same = "<p:r xmlns:p='urn:d' b='2' a='1'>text<p:s></p:s></p:r>";
+        String[] others = {
+            "<r xmlns='urn:d' a='1' b='3'>text<s/></r>",
+            "<r xmlns='urn:d' a='1' b='2'>tex<s/>t</r>",
+            "<r xmlns='urn:d' a='1' b='2'>text<s><t/></s></r>",
+            "<r a='1' b='2'>text<s/></r>"
+        };
+        Element expected = DomElement.parseString(xml);
+        for ( String input : new String[] { xml, same } ) {
+            Element[] roots = {
+                DomElement.parseString(input),
+                new TinyParser().parse(input),
+                new StaxParser().parse(new StringReader(input))
+            };
+            for ( Element root : roots ) {
+                String which = root.getClass().getSimpleName() + " " + input;
+                assertEquals(root.getDigest(), expected.getDigest(), "the digest of " + which);
+                assertEquals(StructuralDigest.compute(root), root.getDigest(), "the memoized digest of " + which);
+                assertTrue(StructuralDigest.deepEqual(expected, root), "deep-equal " + which);
+            }
+        }
+        for ( String input : others ) {
+            Element root = new TinyParser().parse(input);
+            assertNotEquals(root.getDigest(), expected.getDigest(), "the digest of " + input);
+            assertFalse(StructuralDigest.deepEqual(expected, root), "deep-equal " + input);
+        }
+        // the memoized digests of the subtrees are the same as if computed alone
+        Element tiny = new TinyParser().parse(xml);
+        tiny.getDigest();
+        assertEquals(tiny.child("urn:d", "s").getDigest(), DomElement.parseString("<s xmlns='urn:d'/>").getDigest());
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,116 @@
+/****************************************************************************/
+/*  File:       VocabularyTest.java                                         */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model;
+
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the {@link Vocabulary} declaration and its {@link VocabularyValidator}.
+ *
+ * @author agent
+ */
+public class VocabularyTest
+{
+    @Test
+    public void validateTrees()
+            throws Exception
+    {
+        Vocabulary vocab = new Vocabulary();
+        Vocabulary.Rule request = vocab.addElement(NS, "request");
+        request.addRequiredAttributes("method");
+        request.addOptionalAttributes("href", "timeout");
+        request.addChildren(new QName(NS, "header"), new QName(NS, "body"));
+        request.setAllowForeignChildren(true);
+        vocab.addElement(NS, "header").addRequiredAttributes("name", "value");
+        vocab.addElement(NS, "body").addRequiredAttributes("media-type");
+        VocabularyValidator validator = vocab.compile();
+
+        String head = "<h:request xmlns:h='" + NS + "' xmlns:x='urn:x' method='get'>";
+        String foot = "</h:request>";
+        valid(validator, head + "<h:header name='a' value='1'/><x:ext><any/></x:ext><h:body media-type='text/plain'/>" + foot);
+        invalid(validator, "<h:request xmlns:h='" + NS + "'/>");
+        invalid(validator, head + "<h:header name='a'/>" + foot);
+        invalid(validator, head + "<h:body media-type='t' h:foo='1'/>" + foot);
+        invalid(validator, head + "<h:body media-type='t' other='1'/>" + foot);
+        invalid(validator, head + "<h:request method='get'/>" + foot);
+        invalid(validator, head + "<no-ns/>" + foot);
+    }
+
+    @Test
+    public void validateDeepTree()
+            throws Exception
+    {
+        Vocabulary vocab = new Vocabulary();
+        vocab.addElement(NS, "n").addChildren(new QName(NS, "n"));
+        VocabularyValidator validator = vocab.compile();
+        int depth = 100000;
+        StringBuilder xml = new StringBuilder();
+        xml.append("<n xmlns='").append(NS).append("'>");
+        for ( int i = 1; i < depth; ++i ) {
+            xml.append("<n>");
+        }
+        StringBuilder bad = new StringBuilder(xml).append("<n a='1'/>");
+        for ( int i = 0; i < depth; ++i ) {
+            xml.append("</n>");
+            bad.append("</n>");
+        }
+        valid(validator, xml.toString());
+        invalid(validator, bad.toString());
+    }
+
+    private static void valid(VocabularyValidator validator, String xml)
+            throws ToolsException
+    {
+        validator.validate(DomElement.parseString(xml));
+        validator.validate(new TinyParser().parse(xml));
+    }
+
+    private static void invalid(VocabularyValidator validator, String xml)
+            throws ToolsException
+    {
+        for ( Element root : new Element[] { DomElement.parseString(xml), new TinyParser().parse(xml) } ) {
+            try {
+                validator.validate(root);
+                fail("must be invalid: " + xml);
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+        }
+    }
+
+    private static final String NS = "http://expath.org/ns/http-client";
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -10,7 +10,9 @@
 package org.expath.tools.model.dom;
 
 import java.util.Iterator;
+import org.expath.tools.ToolsException;
 import org.expath.tools.model.Attribute;
+import org.expath.tools.model.AttributeChecker;
 import org.expath.tools.model.Element;
 import org.expath.tools.model.Sequence;
 import static org.testng.Assert.*;
@@ -71,6 +73,169 @@ public class DomElementParseTest
         Text t = (Text) text;
         assertEquals(t.getWholeText(), "World!", "the text");
     }
+
+    @Test
+    public void reuseWrappers()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p'><a/>text<p:b/><c/></root>";
+        Element elem = DomElement.parseString(xml);
+        Iterator<Element> first = elem.children().iterator();
+        Iterator<Element> second = elem.children().iterator();
+        while ( first.hasNext() ) {
+            assertSame(first.next(), second.next(), "the same wrapper on each traversal");
+        }
+        assertFalse(second.hasNext(), "the same number of children");
+        Iterator<Element> in_p = elem.children("urn:p").iterator();
+        assertEquals(in_p.next().getLocalName(), "b", "the only child in urn:p");
+        assertFalse(in_p.hasNext(), "the only child in urn:p");
+        assertSame(elem.attributes(), elem.attributes(), "the same attribute list");
+    }
+
+    @Test
+    public void childByName()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p'><a n='1'/><p:a/> <b/><a n='2'/></root>";
+        Element elem = DomElement.parseString(xml);
+        assertEquals(elem.childCount(), 4, "the number of children");
+        assertEquals(elem.child("", "a").getAttribute("n"), "1", "the first a");
+        assertSame(elem.child("", "a"), elem.children().iterator().next(), "the same wrapper");
+        assertEquals(elem.child("urn:p", "a").getNamespaceUri(), "urn:p", "p:a");
+        assertNull(elem.child("", "c"), "no c child");
+        assertNull(elem.child("urn:unknown", "never-seen"), "a name never seen");
+        Iterator<Element> as = elem.children("", "a").iterator();
+        assertEquals(as.next().getAttribute("n"), "1", "the first a");
+        assertEquals(as.next().getAttribute("n"), "2", "the second a");
+        assertFalse(as.hasNext(), "only two a children");
+    }
+
+    @Test
+    public void checkNamesAndNamespaces()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p' xmlns:q='urn:q' a='1' q:b='2'><p:x/><y/></root>";
+        Element elem = DomElement.parseString(xml);
+        assertTrue(elem.hasNoNsChild(), "y is in no namespace");
+        assertFalse(elem.child("urn:p", "x").hasNoNsChild(), "x has no child");
+        elem.noOtherNCNameAttribute(new String[] { "a" }, new String[] { "urn:p" });
+        AttributeChecker checker = new AttributeChecker(new String[] { "a" }, new String[] { "urn:q" });
+        for ( int i = 0; i < 2; ++i ) {
+            try {
+                elem.noOtherNCNameAttribute(checker);
+                fail("q:b must be rejected");
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+        }
+        try {
+            elem.noOtherNCNameAttribute(new String[] { "b" }, new String[0]);
+            fail("a must be rejected");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }        // the checkers are cached by the identity of the arrays
+        String[] names = { "a" };
+        String[] forbidden = { "urn:p" };
+        assertSame(AttributeChecker.forArrays(names, forbidden), AttributeChecker.forArrays(names, forbidden), "the same checker");
+        assertNotSame(AttributeChecker.forArrays(names, forbidden), AttributeChecker.forArrays(names, new String[] { "urn:p" }), "another checker");
+    }
+
+    @Test
+    public void typedAttributes()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p' i=' 42 ' l='9000000000' d='-INF' m='1.50' q='p:name' b='1' bad='x'/>";
+        Element elem = DomElement.parseString(xml);
+        Attribute i = null;
+        for ( Attribute a : elem.attributes() ) {
+            String name = a.getLocalName();
+            if ( name.equals("i") ) {
+                i = a;
+                assertEquals(a.getInteger(), 42, "@i as an integer");
+            }
+            else if ( name.equals("l") ) {
+                assertEquals(a.getLong(), 9000000000L, "@l as a long");
+            }
+            else if ( name.equals("d") ) {
+                assertEquals(a.getDouble(), Double.NEGATIVE_INFINITY, "@d as a double");
+            }
+            else if ( name.equals("m") ) {
+                assertEquals(a.getDecimal(), new java.math.BigDecimal("1.50"), "@m as a decimal");
+            }
+            else if ( name.equals("q") ) {
+                assertEquals(a.getQName(), new javax.xml.namespace.QName("urn:p", "name"), "@q as a QName");
+            }
+            else if ( name.equals("b") ) {
+                assertTrue(a.getBoolean(), "@b as a boolean");
+            }
+            else if ( name.equals("bad") ) {
+                try {
+                    a.getInteger();
+                    fail("@bad is not an integer");
+                }
+                catch ( ToolsException ex ) {
+                    // expected
+                }
+            }
+        }
+        assertNotNull(i, "@i must exist");
+        assertEquals(i.getValueAsCharSequence().toString(), " 42 ", "@i as a character sequence");
+    }
+
+    @Test
+    public void typedAttributesLexicalForms()
+            throws Exception
+    {
+        assertTrue(attribute(" true ").getXsBoolean(), "' true ' as an xs:boolean");
+        assertFalse(attribute("0").getXsBoolean(), "'0' as an xs:boolean");
+        // getBoolean is lenient
+        assertTrue(attribute("TRUE").getBoolean(), "'TRUE' as a boolean");
+        assertTrue(attribute("1").getBoolean(), "'1' as a boolean");
+        assertFalse(attribute("yes").getBoolean(), "'yes' as a boolean");
+        assertFalse(attribute(" true ").getBoolean(), "' true ' as a boolean");
+        assertEquals(attribute(" -1.50 ").getDecimal(), new java.math.BigDecimal("-1.50"), "' -1.50 ' as a decimal");
+        assertEquals(attribute("5.").getDecimal(), new java.math.BigDecimal("5"), "'5.' as a decimal");
+        assertEquals(attribute(" 1.5e3 ").getDouble(), 1500.0, "' 1.5e3 ' as a double");
+        assertEquals(attribute(".5").getDouble(), 0.5, "'.5' as a double");
+        assertEquals(attribute("INF").getDouble(), Double.POSITIVE_INFINITY, "'INF' as a double");
+        assertTrue(Double.isNaN(attribute("NaN").getDouble()), "'NaN' as a double");
+        for ( String bad : new String[] { "yes", "TRUE", "", "2" } ) {
+            try {
+                attribute(bad).getXsBoolean();
+                fail("'" + bad + "' is not an xs:boolean");
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+        }
+        for ( String bad : new String[] { "1e3", "1E3", "1.5e-2", "INF", "NaN", "" } ) {
+            try {
+                attribute(bad).getDecimal();
+                fail("'" + bad + "' is not a decimal");
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+        }
+        for ( String bad : new String[] { "1d", "1f", "0x1p3", "Infinity", "-Infinity", "nan", "1e", "" } ) {
+            try {
+                attribute(bad).getDouble();
+                fail("'" + bad + "' is not a double");
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+        }
+    }
+
+    private Attribute attribute(String value)
+            throws Exception
+    {
+        Element elem = DomElement.parseString("<root a='" + value + "'/>");
+        return elem.attributes().iterator().next();
+    }
 }
 
 
@@ -91,5 +256,5 @@ public class DomElementParseTest
 /*                                                                          */
 /*  The Initial Developer of the Original Code is Florent Georges.          */
 /*                                                                          */
-/*  Contributor(s): none.                                                   */
+/*  Contributor(s): agent.                                                  */
 /* ------------------------------------------------------------------------ */
@@ -0,0 +1,164 @@
+/****************************************************************************/
+/*  File:       DomParseCacheTest.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.StructuralDigest;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test caching parsed elements with {@link DomParseCache}.
+ *
+ * @author agent
+ */
+public class DomParseCacheTest
+{
+    @Test
+    public void hitAndMiss()
+            throws Exception
+    {
+        DomParseCache cache = new DomParseCache(1024 * 1024);
+        DomParser parser = new DomParser();
+        parser.setCache(cache);
+        Element first = parser.parse("<root><a/></root>");
+        Element second = parser.parse("<root><a/></root>");
+        Element third = parser.parse("<root><b/></root>");
+        assertNotSame(second, first, "a cached element is a copy");
+        assertTrue(StructuralDigest.deepEqual(first, second), "the same input returns the cached element");
+        assertNotSame(third, first, "another input is parsed");
+        assertEquals(cache.getHitCount(), 1, "one hit");
+        assertEquals(cache.getMissCount(), 2, "two misses");
+        assertEquals(cache.getEntryCount(), 2, "two entries");
+        assertTrue(cache.getSize() > 0, "the size of the cache");
+    }
+
+    @Test
+    public void bytesKey()
+            throws Exception
+    {
+        DomParseCache cache = new DomParseCache(1024 * 1024);
+        DomParser parser = new DomParser();
+        parser.setCache(cache);
+        byte[] bytes = "<root/>".getBytes(UTF_8);
+        Element first = parser.parse(bytes);
+        // same content, in another array, and at another position in a buffer
+        ByteBuffer buffer = ByteBuffer.wrap("xx<root/>".getBytes(UTF_8));
+        buffer.position(2);
+        Element second = parser.parse(buffer);
+        assertEquals(cache.getHitCount(), 1, "the same content returns the cached element");
+        assertTrue(StructuralDigest.deepEqual(first, second), "the same content gives the same element");
+        // changing the original array does not change the cached key
+        bytes[1] = 'x';
+        Element third = parser.parse(bytes);
+        assertEquals(third.getLocalName(), "xoot", "the modified content is parsed");
+    }
+
+    @Test
+    public void eviction()
+            throws Exception
+    {
+        DomParseCache cache = new DomParseCache(1000);
+        DomParser parser = new DomParser();
+        parser.setCache(cache);
+        for ( int i = 0; i < 100; ++i ) {
+            parser.parse("<root><child-" + i + "/></root>");
+        }
+        assertTrue(cache.getSize() <= 1000, "the size stays under the maximum");
+        assertTrue(cache.getEvictionCount() > 0, "entries have been evicted");
+        assertEquals(cache.getEntryCount() + cache.getEvictionCount(), 100, "entries in or evicted");
+        // the most recent entry is still there
+        parser.parse("<root><child-99/></root>");
+        assertEquals(cache.getHitCount(), 1, "the last entry is still cached");
+    }
+
+    @Test
+    public void concurrentHits()
+            throws Exception
+    {
+        final DomParseCache cache = new DomParseCache(1024 * 1024);
+        final DomParser parser = new DomParser();
+        parser.setCache(cache);
+        final String xml = "<root a='1'><b>text</b><c/></root>";
+        parser.parse(xml);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for ( int i = 0; i < 8; ++i ) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call()
+                            throws Exception
+                    {
+                        for ( int j = 0; j < 200; ++j ) {
+                            DomElement elem = (DomElement) parser.parse(xml);
+                            org.w3c.dom.Element root = elem.getUnderlyingElement();
+                            if ( ! "1".equals(root.getAttribute("a")) || root.getChildNodes().getLength() != 2 ) {
+                                return false;
+                            }
+                            // each caller owns its copy, changing it does not change the cache
+                            root.setAttribute("a", "changed");
+                            root.removeChild(root.getFirstChild());
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for ( Future<Boolean> result : results ) {
+                assertTrue(result.get(), "each hit is a pristine copy");
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(cache.getHitCount(), 8 * 200, "all but the first parse are hits");
+    }
+
+    @Test
+    public void hashes()
+    {
+        assertEquals(DomParseCache.hash("<root/>"), DomParseCache.hash("<root/>"), "hash is stable");
+        assertNotEquals(DomParseCache.hash("<root/>"), DomParseCache.hash("<roos/>"), "hash depends on content");
+        ByteBuffer one = ByteBuffer.wrap("0123456789abcdef!".getBytes(UTF_8));
+        ByteBuffer two = ByteBuffer.wrap("0123456789abcdef?".getBytes(UTF_8));
+        assertNotEquals(DomParseCache.hash(one), DomParseCache.hash(two), "the tail bytes are hashed");
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,112 @@
+/****************************************************************************/
+/*  File:       DomParserPoolTest.java                                      */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test the reuse of parsers through {@link DomParserPool}.
+ *
+ * @author agent
+ */
+public class DomParserPoolTest
+{
+    @Test
+    public void reuseParser()
+            throws Exception
+    {
+        DomParserPool saved = DomParserPool.getDefault();
+        DomParserPool pool = new DomParserPool(1);
+        DomParserPool.setDefault(pool);
+        try {
+            Element first = DomElement.parseString("<first/>");
+            assertEquals(first.getLocalName(), "first", "the first element name");
+            assertEquals(pool.getMissCount(), 1, "the first parse creates a parser");
+            assertEquals(pool.getIdleCount(), 1, "the parser is given back");
+            Element second = DomElement.parseString("<second/>");
+            assertEquals(second.getLocalName(), "second", "the second element name");
+            assertEquals(pool.getMissCount(), 1, "the second parse does not create a parser");
+            assertEquals(pool.getHitCount(), 1, "the second parse reuses the parser");
+        }
+        finally {
+            DomParserPool.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void reuseAfterError()
+            throws Exception
+    {
+        DomParserPool saved = DomParserPool.getDefault();
+        DomParserPool pool = new DomParserPool(1);
+        DomParserPool.setDefault(pool);
+        try {
+            try {
+                DomElement.parseString("<unclosed>");
+                fail("a malformed document must not parse");
+            }
+            catch ( ToolsException ex ) {
+                // expected
+            }
+            Element elem = DomElement.parseString("<root/>");
+            assertEquals(elem.getLocalName(), "root", "the element name after an error");
+            assertEquals(pool.getHitCount(), 1, "the parser is reused after an error");
+        }
+        finally {
+            DomParserPool.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void noPooling()
+            throws Exception
+    {
+        DomParserPool pool = new DomParserPool(0);
+        assertEquals(pool.getCapacity(), 0, "the capacity");
+        assertNotNull(pool.acquire(), "a parser is always created");
+        assertEquals(pool.getMissCount(), 1, "the parser was created");
+        assertEquals(pool.getIdleCount(), 0, "nothing is kept");
+    }
+
+    @Test
+    public void defaultCapacity()
+    {
+        int fallback = 2 * Runtime.getRuntime().availableProcessors();
+        assertEquals(DomParserPool.defaultCapacity(null), fallback, "no property");
+        assertEquals(DomParserPool.defaultCapacity(" 3 "), 3, "a valid property");
+        assertEquals(DomParserPool.defaultCapacity("0"), 0, "no pooling");
+        assertEquals(DomParserPool.defaultCapacity("many"), fallback, "an invalid property is ignored");
+        assertEquals(DomParserPool.defaultCapacity("-1"), fallback, "a negative property is ignored");
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
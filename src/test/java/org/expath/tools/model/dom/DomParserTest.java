@@ -0,0 +1,452 @@
+/****************************************************************************/
+/*  File:       DomParserTest.java                                          */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.ParseLimitException;
+import org.expath.tools.model.ParseLimits;
+import org.expath.tools.model.Projection;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Test parsing the various inputs supported by {@link DomParser}.
+ *
+ * @author agent
+ */
+public class DomParserTest
+{
+    @Test
+    public void parseUtf8Bytes()
+            throws Exception
+    {
+        byte[] bytes = "<root>café</root>".getBytes(UTF_8);
+        Element elem = new DomParser().parse(bytes);
+        assertEquals(elem.getLocalName(), "root", "the root element name");
+        assertEquals(textOf(elem), "café", "the text, decoded as UTF-8 by default");
+    }
+
+    @Test
+    public void parseDeclaredEncoding()
+            throws Exception
+    {
+        String xml = "<?xml version='1.0' encoding='ISO-8859-1'?><root>café</root>";
+        Element elem = new DomParser().parse(xml.getBytes(Charset.forName("ISO-8859-1")));
+        assertEquals(textOf(elem), "café", "the text, decoded using the XML declaration");
+    }
+
+    @Test
+    public void parseByteOrderMark()
+            throws Exception
+    {
+        byte[] bytes = "﻿<root>café</root>".getBytes(Charset.forName("UTF-16BE"));
+        Element elem = new DomParser().parse(bytes);
+        assertEquals(textOf(elem), "café", "the text, decoded using the BOM");
+    }
+
+    @Test
+    public void parseBuffer()
+            throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        buffer.put("garbage<root/>".getBytes(UTF_8));
+        buffer.flip();
+        buffer.position(7);
+        Element elem = new DomParser().parse(buffer);
+        assertEquals(elem.getLocalName(), "root", "the root element name");
+        assertEquals(buffer.position(), 7, "the buffer position must not change");
+    }
+
+    @Test
+    public void parseStreamAndChannel()
+            throws Exception
+    {
+        byte[] bytes = "<root/>".getBytes(UTF_8);
+        Element first = new DomParser().parse(new ByteArrayInputStream(bytes));
+        assertEquals(first.getLocalName(), "root", "the root element name, from a stream");
+        Element second = new DomParser().parse(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        assertEquals(second.getLocalName(), "root", "the root element name, from a channel");
+    }
+
+    @Test
+    public void parseFile()
+            throws Exception
+    {
+        Path file = Files.createTempFile("dom-parser-test", ".xml");
+        try {
+            Files.write(file, "<root xmlns='urn:test'><child/></root>".getBytes(UTF_8));
+            Element elem = DomElement.parseFile(file);
+            assertEquals(elem.getLocalName(), "root", "the root element name");
+            assertEquals(elem.getNamespaceUri(), "urn:test", "the root element namespace");
+            assertTrue(elem.children().iterator().hasNext(), "the root element has a child");
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void parseGzip()
+            throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new GZIPOutputStream(bytes);
+        out.write("<root>café</root>".getBytes(UTF_8));
+        out.close();
+        Element elem = new DomParser().parse(bytes.toByteArray());
+        assertEquals(textOf(elem), "café", "the text of the gzipped document");
+        // corrupt the CRC in the trailer
+        byte[] corrupted = bytes.toByteArray();
+        corrupted[corrupted.length - 8] ^= 0xFF;
+        try {
+            new DomParser().parse(new ByteArrayInputStream(corrupted));
+            fail("a corrupted gzip stream must not parse");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parseDeflate()
+            throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new DeflaterOutputStream(bytes);
+        out.write("<root>café</root>".getBytes(UTF_8));
+        out.close();
+        Element elem = new DomParser().parse(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(textOf(elem), "café", "the text of the deflated document");
+        DomParser parser = new DomParser();
+        parser.setDecompress(false);
+        try {
+            parser.parse(bytes.toByteArray());
+            fail("a deflated document must not parse when decompression is off");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void keepCdataSections()
+            throws Exception
+    {
+        Element elem = new DomParser().parse("<root>a<![CDATA[<b>]]>c</root>");
+        NodeList nodes = ((DomElement) elem).getUnderlyingElement().getChildNodes();
+        assertEquals(nodes.getLength(), 3, "the CDATA section is not merged with text");
+        assertEquals(nodes.item(1).getNodeType(), Node.CDATA_SECTION_NODE, "the CDATA section node");
+    }
+
+    @Test
+    public void stripAllWhitespace()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        parser.setStripWhitespace(true);
+        Element elem = parser.parse(INDENTED);
+        NodeList nodes = ((DomElement) elem).getUnderlyingElement().getChildNodes();
+        assertEquals(nodes.getLength(), 2, "the whitespace text nodes in root are stripped");
+        assertEquals(textOf(nodes.item(0)), "text", "the text of the first child");
+        assertEquals(textOf(nodes.item(1)), "\n  \n ", "the preserved whitespace");
+        assertEquals(nodes.item(1).getChildNodes().getLength(), 3, "the preserved whitespace nodes");
+    }
+
+    @Test
+    public void stripWhitespaceInElements()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        parser.addStripWhitespaceElement("urn:test", "b");
+        Element elem = parser.parse(
+            "<root xmlns='urn:test'>\n <a> <x/> </a>\n <b> <x/> </b>\n</root>");
+        NodeList nodes = ((DomElement) elem).getUnderlyingElement().getChildNodes();
+        assertEquals(nodes.getLength(), 5, "the whitespace text nodes in root are kept");
+        assertEquals(nodes.item(1).getChildNodes().getLength(), 3, "the whitespace text nodes in a are kept");
+        assertEquals(nodes.item(3).getChildNodes().getLength(), 1, "the whitespace text nodes in b are stripped");
+    }
+
+    @Test
+    public void projectPaths()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        Projection projection = new Projection();
+        projection.addPath(new QName("urn:test", "a"), new QName(Projection.WILDCARD, "x"));
+        parser.setProjection(projection);
+        Element elem = parser.parse(
+            "<root xmlns='urn:test'><a><x><deep/></x><y/></a><b><x/></b></root>");
+        org.w3c.dom.Element root = ((DomElement) elem).getUnderlyingElement();
+        assertEquals(root.getChildNodes().getLength(), 1, "only a is kept in root");
+        org.w3c.dom.Element a = (org.w3c.dom.Element) root.getFirstChild();
+        assertEquals(a.getChildNodes().getLength(), 1, "only x is kept in a");
+        assertEquals(a.getFirstChild().getChildNodes().getLength(), 1, "the content of x is kept");
+    }
+
+    @Test
+    public void projectDepth()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        Projection projection = new Projection();
+        projection.setMaxDepth(2);
+        parser.setProjection(projection);
+        Element elem = parser.parse("<root><a>text<b/></a><c/></root>");
+        NodeList nodes = ((DomElement) elem).getUnderlyingElement().getChildNodes();
+        assertEquals(nodes.getLength(), 2, "the children of root are kept");
+        assertEquals(nodes.item(0).getChildNodes().getLength(), 1, "the grandchildren are skipped");
+        try {
+            parser.parse("<root><a><b></a></b></root>");
+            fail("a skipped element must still be well-formed");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+        // the skipped elements are counted against the limits
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxDepth(5);
+        parser.setLimits(limits);
+        parser.parse("<root><a><b><c><d/></c></b></a></root>");
+        assertLimit(parser, "<root><a><b><c><d><e/></d></c></b></a></root>", ParseLimits.Kind.DEPTH);
+    }
+
+    @Test
+    public void limitTreeSize()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxDepth(3);
+        limits.setMaxElements(4);
+        limits.setMaxAttributes(2);
+        parser.setLimits(limits);
+        parser.parse("<root a='1'><b><c b='2'/></b><d/></root>");
+        assertLimit(parser, "<root><b><c><d/></c></b></root>", ParseLimits.Kind.DEPTH);
+        assertLimit(parser, "<root><b/><c/><d/><e/></root>", ParseLimits.Kind.ELEMENTS);
+        assertLimit(parser, "<root a='1' b='2' c='3'/>", ParseLimits.Kind.ATTRIBUTES);
+    }
+
+    @Test
+    public void limitInputSize()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxBytes(100);
+        limits.setMaxTextLength(10);
+        parser.setLimits(limits);
+        parser.parse("<root>0123456789</root>".getBytes(UTF_8));
+        assertLimit(parser, "<root>0123456789X</root>", ParseLimits.Kind.TEXT_LENGTH);
+        // the limit applies to the decompressed bytes
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new GZIPOutputStream(bytes);
+        out.write("<root>".getBytes(UTF_8));
+        for ( int i = 0; i < 1000; ++i ) {
+            out.write("<a/>".getBytes(UTF_8));
+        }
+        out.write("</root>".getBytes(UTF_8));
+        out.close();
+        try {
+            parser.parse(bytes.toByteArray());
+            fail("the document must exceed the limit on bytes");
+        }
+        catch ( ParseLimitException ex ) {
+            assertEquals(ex.getKind(), ParseLimits.Kind.BYTES, "the kind of limit exceeded");
+        }
+    }
+
+    @Test
+    public void limitWhileReading()
+            throws Exception
+    {
+        DomParser parser = new DomParser();
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxAttributes(2);
+        limits.setMaxTextLength(10);
+        parser.setLimits(limits);
+        // the counts on the markup must not exceed the ones in the tree
+        String xml = "<?xml version='1.0' encoding='UTF-8'?>\n"
+            + "<!DOCTYPE root [ <!ENTITY e '<x a=\"1\" b=\"2\" c=\"3\">'> ]>"
+            + "<!-- <a b='' c='' d=''> --><root a='>' b='='>0123456789"
+            + "<![CDATA[01234567]]]>&lt;12345678\r\n<?pi x?>&#xE9;\u00E912345678</root>";
+        parser.parse(xml);
+        parser.parse(xml.getBytes(UTF_8));
+        parser.parse(xml.replace("UTF-8", "UTF-16").getBytes(Charset.forName("UTF-16")));
+        // the root element is counted as well
+        StringBuilder root = new StringBuilder("<root");
+        for ( int i = 0; i < 3; ++i ) {
+            root.append(" a").append(i).append("=''");
+        }
+        assertLimit(parser, root.append("/>").toString(), ParseLimits.Kind.ATTRIBUTES);
+        // documents never ending, so the limits must be enforced while reading
+        limits.setMaxTextLength(1000);
+        assertLimit(parser, endless("<root>", "text %d "), ParseLimits.Kind.TEXT_LENGTH);
+        assertLimit(parser, endless("<root><![CDATA[", "text %d "), ParseLimits.Kind.TEXT_LENGTH);
+    }
+
+    @Test
+    public void parseBatch()
+            throws Exception
+    {
+        List<String> xmls = new ArrayList<String>();
+        for ( int i = 0; i < 100; ++i ) {
+            xmls.add("<elem-" + i + "/>");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Element> elems;
+        try {
+            elems = new DomParser().parseAll(xmls, executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(elems.size(), 100, "one element per input");
+        for ( int i = 0; i < 100; ++i ) {
+            assertEquals(elems.get(i).getLocalName(), "elem-" + i, "the elements are in order");
+        }
+    }
+
+    @Test(expectedExceptions = ToolsException.class)
+    public void parseBatchError()
+            throws Exception
+    {
+        List<byte[]> docs = new ArrayList<byte[]>();
+        docs.add("<ok/>".getBytes(UTF_8));
+        docs.add("<not-ok>".getBytes(UTF_8));
+        new DomParser().parseAllBytes(docs);
+    }
+
+    @Test
+    public void parseAsync()
+            throws Exception
+    {
+        final List<Runnable> queue = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                queue.add(task);
+            }
+        };
+        DomAsyncParser parser = new DomAsyncParser(new DomParser(), executor, 1);
+        CompletableFuture<Element> first = parser.parse("<first/>");
+        CompletableFuture<Element> second = parser.parse("<second/>");
+        assertEquals(parser.getPendingCount(), 1, "only one parse is pending");
+        assertTrue(second.isCompletedExceptionally(), "the second parse is rejected");
+        queue.get(0).run();
+        assertEquals(first.get().getLocalName(), "first", "the first parse completed");
+        assertEquals(parser.getPendingCount(), 0, "no more pending parse");
+    }
+
+    private void assertLimit(DomParser parser, String xml, ParseLimits.Kind kind)
+            throws Exception
+    {
+        try {
+            parser.parse(xml);
+            fail("the document must exceed the limit on " + kind);
+        }
+        catch ( ParseLimitException ex ) {
+            assertEquals(ex.getKind(), kind, "the kind of limit exceeded");
+        }
+    }
+
+    private void assertLimit(DomParser parser, InputStream in, ParseLimits.Kind kind)
+            throws Exception
+    {
+        try {
+            parser.parse(in);
+            fail("the document must exceed the limit on " + kind);
+        }
+        catch ( ParseLimitException ex ) {
+            assertEquals(ex.getKind(), kind, "the kind of limit exceeded");
+        }
+    }
+
+    /**
+     * A stream never ending: {@code start}, then {@code item} formatted with 0, 1, 2, etc.
+     */
+    private InputStream endless(final String start, final String item)
+    {
+        return new InputStream() {
+            @Override
+            public int read()
+            {
+                if ( myPos == myBuffer.length ) {
+                    myBuffer = String.format(item, myCount++).getBytes(UTF_8);
+                    myPos = 0;
+                }
+                return myBuffer[myPos++] & 0xFF;
+            }
+
+            private byte[] myBuffer = start.getBytes(UTF_8);
+            private int myPos = 0;
+            private int myCount = 0;
+        };
+    }
+
+    private String textOf(Node node)
+    {
+        return node.getTextContent();
+    }
+
+    private String textOf(Element elem)
+    {
+        return ((DomElement) elem).getUnderlyingElement().getTextContent();
+    }
+
+    private static final String INDENTED =
+        "<root>\n" +
+        "  <a>text</a>\n" +
+        "  <p xml:space='preserve'>\n  <b/>\n </p>\n" +
+        "</root>";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
@@ -0,0 +1,164 @@
+/****************************************************************************/
+/*  File:       DomSplitParserTest.java                                     */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.dom;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Element;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test parsing documents in segments with {@link DomSplitParser}.
+ *
+ * @author agent
+ */
+public class DomSplitParserTest
+{
+    @Test
+    public void parseSegments()
+            throws Exception
+    {
+        DomSplitParser parser = new DomSplitParser();
+        parser.setSegmentSize(100);
+        parser.setMaxPendingSegments(3);
+        int i = 0;
+        try ( DomSplitParser.Elements elems = parser.parse(document(1000).getBytes(UTF_8)) ) {
+            for ( Element elem : elems ) {
+                assertEquals(elem.getNamespaceUri(), "urn:items", "the namespace of the element");
+                assertEquals(elem.getAttribute("id"), "" + i, "the elements are in document order");
+                QName type = elem.parseQName(elem.getAttribute("type"));
+                assertEquals(type, new QName("urn:types", "t" + i), "the root namespace bindings are in scope");
+                ++i;
+            }
+        }
+        assertEquals(i, 1000, "the number of elements");
+    }
+
+    @Test
+    public void parseFile()
+            throws Exception
+    {
+        Path file = Files.createTempFile("dom-split-parser-test", ".xml");
+        try {
+            Files.write(file, document(10).getBytes(UTF_8));
+            DomSplitParser parser = new DomSplitParser();
+            try ( Stream<Element> elems = parser.parse(file).stream() ) {
+                assertEquals(elems.count(), 10, "all elements in a single segment");
+            }
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void emptyRoot()
+            throws Exception
+    {
+        DomSplitParser.Elements elems = new DomSplitParser().parse("<root a='/>'/>".getBytes(UTF_8));
+        assertFalse(elems.hasNext(), "no element in an empty root");
+    }
+
+    @Test
+    public void malformedSegment()
+            throws Exception
+    {
+        DomSplitParser parser = new DomSplitParser();
+        parser.setSegmentSize(1);
+        DomSplitParser.Elements elems = parser.parse("<root><a/><b></c><d/></root>".getBytes(UTF_8));
+        try {
+            for ( Element elem : elems ) {
+                // consume
+            }
+            fail("the malformed segment must be rejected");
+        }
+        catch ( IllegalStateException ex ) {
+            assertTrue(ex.getCause() instanceof ToolsException, "the cause is the parse error");
+        }
+    }
+
+    @Test
+    public void malformedRootEnd()
+            throws Exception
+    {
+        String[] inputs = {
+            "<r><a/><b/></x>",
+            "<r><a/><b/></r><junk",
+            "<r><a/></r><r2><c/></r2>",
+            "<r/>junk"
+        };
+        for ( String input : inputs ) {
+            DomSplitParser parser = new DomSplitParser();
+            parser.setSegmentSize(1);
+            try {
+                DomSplitParser.Elements elems = parser.parse(input.getBytes(UTF_8));
+                for ( Element elem : elems ) {
+                    // consume
+                }
+                fail("the input must be rejected: " + input);
+            }
+            catch ( ToolsException ex ) {
+                // thrown by the scan of the prolog
+            }
+            catch ( IllegalStateException ex ) {
+                assertTrue(ex.getCause() instanceof ToolsException, "the cause is the scan error, for " + input);
+            }
+        }
+        DomSplitParser.Elements elems = new DomSplitParser().parse("<r><a/></r >\n<!-- c --><?pi x?> ".getBytes(UTF_8));
+        assertTrue(elems.hasNext(), "whitespace, comments and PIs after the root element");
+    }
+
+    private String document(int count)
+    {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+        xml.append("<!DOCTYPE root [ <!ENTITY e 'é'> ]>\n");
+        xml.append("<!-- a <comment> -->\n");
+        xml.append("<root xmlns='urn:items' xmlns:t='urn:types'>\n");
+        for ( int i = 0; i < count; ++i ) {
+            xml.append("  <item id='").append(i).append("' type=\"t:t").append(i).append("\" x='>'>");
+            xml.append("<![CDATA[</item>]]>&e;<!-- </item> --><?pi </item>?><sub/><sub>text</sub>");
+            xml.append("</item>\n");
+            if ( i % 3 == 0 && i + 1 < count ) {
+                xml.append("  <item id='").append(++i).append("' type='t:t").append(i).append("'/>\n");
+            }
+        }
+        xml.append("</root>\n");
+        return xml.toString();
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
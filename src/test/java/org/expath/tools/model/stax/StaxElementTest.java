@@ -0,0 +1,171 @@
+/****************************************************************************/
+/*  File:       StaxElementTest.java                                        */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.stax;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Iterator;
+import javax.xml.namespace.QName;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.Sequence;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.model.tiny.TinyParser;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test reading documents with {@link StaxElement}.
+ *
+ * @author agent
+ */
+public class StaxElementTest
+{
+    @Test
+    public void streamChildren()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p' a='1'><p:one>text<skipped/></p:one><two/><p:three/></root>";
+        Element root = new StaxParser().parse(new StringReader(xml));
+        assertEquals(root.getAttribute("a"), "1", "the root attribute");
+        Iterator<Element> children = root.children().iterator();
+        Element one = children.next();
+        assertEquals(one.getDisplayName(), "p:one", "the first child");
+        // one is not read, moving to two skips it
+        Element two = children.next();
+        assertEquals(two.getLocalName(), "two", "the second child");
+        assertEquals(two.parseQName("p:x"), new QName("urn:p", "x"), "the prefix bound on root");
+        try {
+            one.children();
+            fail("the stream has passed one");
+        }
+        catch ( IllegalStateException ex ) {
+            // expected
+        }
+        assertEquals(children.next().getNamespaceUri(), "urn:p", "the third child");
+        assertFalse(children.hasNext(), "only three children");
+        try {
+            root.children();
+            fail("the children of root can be read only once");
+        }
+        catch ( IllegalStateException ex ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void bufferSubtree()
+            throws Exception
+    {
+        String xml = "<root xmlns='urn:r'><a><b>text</b><c/></a><d/></root>";
+        Element root = new StaxParser().parse(new StringReader(xml));
+        Iterator<Element> children = root.children("urn:r").iterator();
+        Element a = children.next();
+        Sequence content = a.getContent();
+        assertFalse(content.isEmpty(), "the content of a is buffered");
+        // once buffered, the children can be read several times
+        assertEquals(a.children().iterator().next().getLocalName(), "b", "the first child of a");
+        assertEquals(a.children().iterator().next().getLocalName(), "b", "the first child of a, again");
+        assertEquals(children.next().getLocalName(), "d", "the stream continues after a");
+    }
+
+    @Test
+    public void countChildren()
+            throws Exception
+    {
+        String xml = "<root><a><b/><c/></a><d/></root>";
+        Element root = new StaxParser().parse(new StringReader(xml));
+        Element a = root.children().iterator().next();
+        // buffered first, so the children are still available
+        assertTrue(a.hasNoNsChild(), "b is in no namespace");
+        assertEquals(a.childCount(), 2, "the children of a");
+        assertEquals(a.child("", "c").getLocalName(), "c", "the child c of a");
+        // streamed, so the children are read by childCount()
+        root = new StaxParser().parse(new StringReader(xml));
+        assertEquals(root.childCount(), 2, "the children of root");
+        try {
+            root.children();
+            fail("the children of root have been read by childCount()");
+        }
+        catch ( IllegalStateException ex ) {
+            assertTrue(ex.getMessage().contains("childCount()"), "the message tells which method read them");
+        }
+    }
+
+    @Test
+    public void childrenByName()
+            throws Exception
+    {
+        String xml = "<root a='1' b='2'><x n='1'><x/></x><y/><x n='2'/></root>";
+        Element root = new StaxParser().parse(new StringReader(xml));
+        String[] out = new String[3];
+        root.getAttributes(new String[] { "b", "c", "a" }, out);
+        assertEquals(out, new String[] { "2", null, "1" }, "the attribute values by slot");
+        int count = 0;
+        for ( Element x : root.children("", "x") ) {
+            ++count;
+            assertEquals(x.getAttribute("n"), Integer.toString(count), "the x children in order");
+        }
+        assertEquals(count, 2, "the nested x is not a child of root");
+    }
+
+    @Test
+    public void readText()
+            throws Exception
+    {
+        StringBuilder body = new StringBuilder();
+        for ( int i = 0; i < 5000; ++i ) {
+            body.append("line ").append(i).append('\n');
+        }
+        String xml = "<root><body>" + body + "<i>in</i><![CDATA[<cdata>]]></body><after/></root>";
+        String expected = body + "in<cdata>";
+        Element root = new StaxParser().parse(new StringReader(xml));
+        Iterator<Element> children = root.children().iterator();
+        Reader reader = children.next().openTextReader();
+        StringBuilder read = new StringBuilder();
+        char[] buf = new char[1000];
+        for ( int n = reader.read(buf); n >= 0; n = reader.read(buf) ) {
+            read.append(buf, 0, n);
+        }
+        assertEquals(read.toString(), expected, "the streamed text");
+        assertEquals(children.next().getLocalName(), "after", "the stream continues after the text");
+        for ( Element elem : new Element[] { DomElement.parseString(xml), new TinyParser().parse(xml) } ) {
+            Element first = elem.children().iterator().next();
+            assertEquals(first.getStringValue().toString(), expected, "the string value");
+            assertEquals(first.getStringValue().charAt(expected.length() - 1), '>', "the last char");
+            Reader r = first.openTextReader();
+            read.setLength(0);
+            for ( int n = r.read(buf); n >= 0; n = r.read(buf) ) {
+                read.append(buf, 0, n);
+            }
+            assertEquals(read.toString(), expected, "the text read");
+        }
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */
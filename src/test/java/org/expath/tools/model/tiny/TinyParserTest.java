@@ -0,0 +1,210 @@
+/****************************************************************************/
+/*  File:       TinyParserTest.java                                         */
+/*  Author:     agent                                                       */
+/*  Date:       2026-10-17                                                  */
+/*  Tags:                                                                   */
+/*      Copyright (c) 2026 agent (see end of file.)                         */
+/* ------------------------------------------------------------------------ */
+
+
+package org.expath.tools.model.tiny;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import javax.xml.namespace.QName;
+import org.expath.tools.ToolsException;
+import org.expath.tools.model.Attribute;
+import org.expath.tools.model.AttributeSlots;
+import org.expath.tools.model.Element;
+import org.expath.tools.model.ParseLimitException;
+import org.expath.tools.model.ParseLimits;
+import org.expath.tools.model.Projection;
+import org.expath.tools.model.Sequence;
+import org.expath.tools.model.dom.DomElement;
+import org.expath.tools.serial.SerialParameters;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test parsing into a {@link TinyElement}.
+ *
+ * @author agent
+ */
+public class TinyParserTest
+{
+    @Test
+    public void parseString()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p'><hello type='global' p:a='x'>World!</hello><p:other/> <last xmlns:q='urn:q'/></root>";
+        Element elem = new TinyParser().parse(xml);
+        assertEquals(elem.getLocalName(), "root", "the root element name");
+        assertEquals(elem.getNamespaceUri(), "", "the root element namespace");
+        assertFalse(elem.attributes().iterator().hasNext(), "namespace declarations are not attributes");
+        Iterator<Element> children = elem.children().iterator();
+        Element hello = children.next();
+        Element other = children.next();
+        assertEquals(children.next().parseQName("q:x"), new QName("urn:q", "x"), "the prefix q on last");
+        assertFalse(children.hasNext(), "/root/* must have three elements");
+        assertEquals(other.getNamespaceUri(), "urn:p", "the other element namespace");
+        assertEquals(other.getDisplayName(), "p:other", "the other element display name");
+        assertTrue(elem.hasNoNsChild(), "hello is in no namespace");
+        assertEquals(hello.getAttribute("type"), "global", "the hello/@type value");
+        assertNull(hello.getAttribute("a"), "hello/@a is in a namespace");
+        Iterator<Attribute> attrs = hello.attributes().iterator();
+        assertEquals(attrs.next().getValue(), "global", "the first attribute");
+        assertEquals(attrs.next().getNamespaceUri(), "urn:p", "the second attribute namespace");
+        assertEquals(hello.parseQName("p:name"), new QName("urn:p", "name"), "the parsed QName");
+        try {
+            other.parseQName("q:x");
+            fail("the prefix q is not in scope on other");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+        hello.noOtherNCNameAttribute(new String[] { "type" }, new String[0]);
+        try {
+            hello.noOtherNCNameAttribute(new String[] { "type" }, new String[] { "urn:p" });
+            fail("p:a is in a forbidden namespace");
+        }
+        catch ( ToolsException ex ) {
+            // expected
+        }
+        Sequence content = hello.getContent();
+        assertFalse(content.isEmpty(), "/root/hello/node() must not be empty");
+        content.next();
+        assertTrue(content.isEmpty(), "/root/hello/node() must have only one node");
+    }
+
+    @Test
+    public void serializeContent()
+            throws Exception
+    {
+        String xml = "<root xmlns='urn:r' xmlns:p='urn:p'>a<p:b c='d'>e</p:b><f/></root>";
+        Element elem = new TinyParser().parse(xml.getBytes("UTF-8"));
+        SerialParameters params = new SerialParameters();
+        params.setOmitXmlDeclaration(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        elem.getContent().serialize(out, params);
+        String result = out.toString("UTF-8");
+        assertTrue(result.startsWith("a<p:b "), "the serialized text and prefix");
+        // the order of attributes and namespace declarations is not fixed
+        Element copy = new TinyParser().parse("<copy>" + result + "</copy>");
+        Iterator<Element> children = copy.children().iterator();
+        Element b = children.next();
+        assertEquals(b.getNamespaceUri(), "urn:p", "the namespace of b");
+        assertEquals(b.getAttribute("c"), "d", "the attribute of b");
+        assertEquals(b.parseQName("x"), new QName("urn:r", "x"), "the default namespace in scope on b");
+        assertEquals(children.next().getNamespaceUri(), "urn:r", "the namespace of f");
+    }
+
+    @Test
+    public void projectAndLimit()
+            throws Exception
+    {
+        TinyParser parser = new TinyParser();
+        Projection projection = new Projection();
+        projection.setMaxDepth(2);
+        parser.setProjection(projection);
+        parser.setStripWhitespace(true);
+        Element elem = parser.parse("<root>\n <a>text<b/></a>\n <c/>\n</root>");
+        Iterator<Element> children = elem.children().iterator();
+        Element a = children.next();
+        assertEquals(children.next().getLocalName(), "c", "the second child");
+        assertFalse(a.children().iterator().hasNext(), "the grandchildren are skipped");
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxElements(3);
+        parser.setLimits(limits);
+        try {
+            parser.parse("<root><a/><b/><c/></root>".getBytes("UTF-8"));
+            fail("the document must exceed the limit on elements");
+        }
+        catch ( ParseLimitException ex ) {
+            assertEquals(ex.getKind(), ParseLimits.Kind.ELEMENTS, "the kind of limit exceeded");
+        }
+        // the elements skipped by the projection are counted as well
+        limits.setMaxElements(100);
+        limits.setMaxDepth(5);
+        parser.parse("<root><a><b><c><d/></c></b></a></root>");
+        try {
+            parser.parse("<root><a><b><c><d><e/></d></c></b></a></root>");
+            fail("the skipped elements must exceed the limit on depth");
+        }
+        catch ( ParseLimitException ex ) {
+            assertEquals(ex.getKind(), ParseLimits.Kind.DEPTH, "the kind of limit exceeded");
+        }
+    }
+
+    @Test
+    public void childByName()
+            throws Exception
+    {
+        StringBuilder xml = new StringBuilder("<root>");
+        for ( int i = 0; i < 100; ++i ) {
+            xml.append("<c").append(i % 10).append(" n='").append(i).append("'/>text");
+        }
+        Element root = new TinyParser().parse(xml.append("</root>").toString());
+        assertEquals(root.childCount(), 100, "the number of children");
+        assertEquals(root.child("", "c3").getAttribute("n"), "3", "the first c3");
+        assertNull(root.child("", "c10"), "no c10 child");
+        int count = 0;
+        for ( Element c : root.children("", "c7") ) {
+            assertEquals(c.getAttribute("n"), Integer.toString(10 * count + 7), "the c7 children in order");
+            ++count;
+        }
+        assertEquals(count, 10, "the number of c7 children");
+    }
+
+    @Test
+    public void fetchAttributes()
+            throws Exception
+    {
+        String xml = "<root xmlns:p='urn:p' method='get' p:method='post' href='/x'/>";
+        AttributeSlots slots = new AttributeSlots("href", "timeout", "method");
+        for ( Element elem : new Element[] { new TinyParser().parse(xml), DomElement.parseString(xml) } ) {
+            String[] out = { "stale", "stale", "stale", "untouched" };
+            elem.getAttributes(slots, out);
+            assertEquals(out, new String[] { "/x", null, "get", "untouched" }, "the values in their slots");
+            elem.getAttributes(new String[] { "method" }, out);
+            assertEquals(out[0], "get", "the value with names compiled on the fly");
+            assertEquals(elem.getAttribute("urn:p", "method"), "post", "the attribute in a namespace");
+            assertEquals(elem.getAttribute("", "method"), "get", "the attribute in no namespace");
+            assertNull(elem.getAttribute("urn:p", "href"), "no such attribute in a namespace");
+        }
+        try {
+            new AttributeSlots("href", "method", "href");
+            fail("a name cannot have two slots");
+        }
+        catch ( IllegalArgumentException ex ) {
+            // expected
+        }
+        try {
+            new AttributeSlots(new QName("urn:p", "a"), new QName("a"), new QName("urn:p", "a"));
+            fail("a name cannot have two slots");
+        }
+        catch ( IllegalArgumentException ex ) {
+            // expected
+        }
+    }
+}
+
+
+/* ------------------------------------------------------------------------ */
+/*  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS COMMENT.               */
+/*                                                                          */
+/*  The contents of this file are subject to the Mozilla Public License     */
+/*  Version 1.0 (the "License"); you may not use this file except in        */
+/*  compliance with the License. You may obtain a copy of the License at    */
+/*  http://www.mozilla.org/MPL/.                                            */
+/*                                                                          */
+/*  Software distributed under the License is distributed on an "AS IS"     */
+/*  basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.  See    */
+/*  the License for the specific language governing rights and limitations  */
+/*  under the License.                                                      */
+/*                                                                          */
+/*  The Original Code is: all this file.                                    */
+/*                                                                          */
+/*  The Initial Developer of the Original Code is agent.                    */
+/*                                                                          */
+/*  Contributor(s): none.                                                   */
+/* ------------------------------------------------------------------------ */